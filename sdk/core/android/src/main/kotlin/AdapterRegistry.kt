@@ -10,21 +10,46 @@ import com.rivalapexmediation.sdk.contract.ShowCallbacks
 import com.rivalapexmediation.sdk.contract.RewardedCallbacks
 import com.rivalapexmediation.sdk.models.AdAdapter
 import com.rivalapexmediation.sdk.runtime.AdapterRuntimeWrapper
+import com.rivalapexmediation.sdk.util.ClockProvider
+import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
 import kotlinx.coroutines.SupervisorJob
 import kotlinx.coroutines.cancel
+import kotlinx.coroutines.launch
+import java.security.MessageDigest
 import java.util.concurrent.ConcurrentHashMap
 
 /**
  * Minimal AdapterRegistry for the Android SDK (AdAdapter-based)
  * - Separate from sdk.core.android.src.adapter.AdapterRegistry which targets a different interface
  * - This registry serves MediationSDK by holding AdAdapter instances and lifecycle management
+ * - Runtime adapter loads run on [loadDispatcher] so the host can bound their thread usage
+ * - Runtime adapters are instantiated on first use; [prewarm] initializes the ones placements
+ *   need in parallel, off the caller's thread
  */
-class AdapterRegistry {
+class AdapterRegistry(
+    private val loadDispatcher: CoroutineDispatcher = Dispatchers.IO
+) {
+    /**
+     * How long one runtime adapter took to construct and to run its last init, and whether that
+     * init came from [prewarm] or from the first load that needed it.
+     */
+    data class AdapterInitTiming(
+        val network: String,
+        val instantiateMs: Long,
+        val initMs: Long?,
+        val success: Boolean?,
+        val source: String?,
+        val initCount: Int
+    )
+
     private val adapters = ConcurrentHashMap<String, AdAdapter>()
     private val runtimeFactories = ConcurrentHashMap<String, (Context) -> AdNetworkAdapterV2>()
     private val runtimeAdapters = ConcurrentHashMap<String, RuntimeAdapterEntry>()
+    @Volatile private var appContext: Context? = null
+    private val initScope = CoroutineScope(SupervisorJob() + loadDispatcher)
 
     init {
         // No default vendor adapters in core. Host apps (BYO) must register adapters explicitly
@@ -35,13 +60,51 @@ class AdapterRegistry {
      * Optional initialization hook; kept for API compatibility with MediationSDK.initializeInternal()
      */
     fun initialize(context: Context) {
-        // Instantiate runtime adapters lazily using registered factories
-        runtimeFactories.forEach { (network, factory) ->
-            runtimeAdapters.computeIfAbsent(network) {
+        // Factories run on first use (see runtimeEntry), so unused networks cost nothing at start-up.
+        appContext = context
+    }
+
+    /**
+     * Initializes the given runtime adapters in parallel on [loadDispatcher] and returns without
+     * waiting. [configs] maps network to the init config covering every placement it serves;
+     * adapters already initialized with equivalent content are skipped.
+     */
+    fun prewarm(configs: Map<String, com.rivalapexmediation.sdk.contract.AdapterConfig>, timeoutMs: Int): Job {
+        return initScope.launch {
+            configs.forEach { (network, config) ->
+                val entry = runtimeEntry(network) ?: return@forEach
+                launch {
+                    try {
+                        entry.ensureInitialized(config, timeoutMs, source = "prewarm")
+                    } catch (_: Throwable) {
+                        // The first load retries init and surfaces the failure.
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-adapter construction and init timings, slowest init first.
+     */
+    fun initReport(): List<AdapterInitTiming> =
+        runtimeAdapters.values.map { it.timing() }.sortedByDescending { it.initMs ?: -1L }
+
+    private fun runtimeEntry(network: String): RuntimeAdapterEntry? {
+        runtimeAdapters[network]?.let { return it }
+        val factory = runtimeFactories[network] ?: return null
+        val context = appContext ?: return null
+        // Locked rather than computeIfAbsent (API 24+), so each factory still runs once.
+        return synchronized(runtimeAdapters) {
+            runtimeAdapters[network] ?: run {
+                val start = ClockProvider.clock.monotonicNow()
+                val adapter = factory(context)
                 RuntimeAdapterEntry(
                     partnerId = network,
-                    adapter = factory(context)
-                )
+                    adapter = adapter,
+                    loadDispatcher = loadDispatcher,
+                    instantiateMs = ClockProvider.clock.monotonicNow() - start
+                ).also { runtimeAdapters[network] = it }
             }
         }
     }
@@ -70,7 +133,7 @@ class AdapterRegistry {
      */
     fun getRegisteredNetworks(): List<String> {
         val legacy = adapters.keys().toList()
-        val runtime = runtimeAdapters.keys.toList()
+        val runtime = runtimeAdapters.keys.toList() + if (appContext != null) runtimeFactories.keys.toList() else emptyList()
         return (legacy + runtime).distinct()
     }
 
@@ -79,7 +142,7 @@ class AdapterRegistry {
      */
     fun getRuntimeAdapters(networks: List<String>): List<RuntimeAdapterEntry> {
         if (networks.isEmpty()) return emptyList()
-        return networks.mapNotNull { runtimeAdapters[it] }
+        return networks.mapNotNull { runtimeEntry(it) }
     }
 
     fun getRuntimeEntry(network: String): RuntimeAdapterEntry? = runtimeAdapters[network]
@@ -96,44 +159,114 @@ class AdapterRegistry {
             try { entry.shutdown() } catch (_: Throwable) {}
         }
         runtimeAdapters.clear()
+        initScope.cancel()
     }
 
     class RuntimeAdapterEntry internal constructor(
         val partnerId: String,
         private val adapter: AdNetworkAdapterV2,
-        private val scope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.Default)
+        private val scope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.Default),
+        loadDispatcher: CoroutineDispatcher = Dispatchers.IO,
+        private val instantiateMs: Long = 0L
     ) {
-        private val runtime = AdapterRuntimeWrapper(adapter, partnerId, scope)
+        private val runtime = AdapterRuntimeWrapper(adapter, partnerId, scope, loadDispatcher)
         private val initLock = Any()
-        @Volatile private var lastInitSignature: Int? = null
+        // Content signature (everything but placements) and the placements the adapter was
+        // initialized with; a config whose placements are a subset needs no re-init.
+        @Volatile private var lastInitSignature: String? = null
+        @Volatile private var initializedPlacements: Map<String, String> = emptyMap()
         @Volatile private var initialized: Boolean = false
+        @Volatile private var lastInitMs: Long? = null
+        @Volatile private var lastInitSuccess: Boolean? = null
+        @Volatile private var lastInitSource: String? = null
+        @Volatile private var initCount: Int = 0
+        // Every load builds a fresh but usually equal config; comparing it against the last one
+        // signed skips the digest.
+        @Volatile private var lastSigned: SignedConfig? = null
 
-        fun ensureInitialized(config: com.rivalapexmediation.sdk.contract.AdapterConfig, timeoutMs: Int): InitResult {
-            val signature = config.hashCode()
-            if (initialized && lastInitSignature == signature) {
+        fun ensureInitialized(
+            config: com.rivalapexmediation.sdk.contract.AdapterConfig,
+            timeoutMs: Int,
+            source: String = "load"
+        ): InitResult {
+            val signature = signatureOf(config)
+            if (isCovered(signature, config.placements)) {
                 return InitResult(success = true)
             }
             return synchronized(initLock) {
-                if (initialized && lastInitSignature == signature) {
+                if (isCovered(signature, config.placements)) {
                     InitResult(success = true)
                 } else {
-                    val result = adapter.init(config, timeoutMs)
+                    // Same content: widen to the union so alternating placements don't re-init.
+                    val placements = if (signature == lastInitSignature) {
+                        initializedPlacements + config.placements
+                    } else {
+                        config.placements
+                    }
+                    val start = ClockProvider.clock.monotonicNow()
+                    val result = adapter.init(config.copy(placements = placements), timeoutMs)
+                    lastInitMs = ClockProvider.clock.monotonicNow() - start
+                    lastInitSuccess = result.success
+                    lastInitSource = source
+                    initCount++
                     if (result.success) {
-                        initialized = true
+                        initializedPlacements = placements
                         lastInitSignature = signature
+                        initialized = true
                     } else {
                         initialized = false
                         lastInitSignature = null
+                        initializedPlacements = emptyMap()
                     }
                     result
                 }
             }
         }
 
+        private fun signatureOf(config: com.rivalapexmediation.sdk.contract.AdapterConfig): String {
+            val cached = lastSigned
+            if (cached != null && AdapterInitSignature.sameContent(cached.config, config)) return cached.signature
+            return AdapterInitSignature.of(config).also { lastSigned = SignedConfig(config, it) }
+        }
+
+        private class SignedConfig(
+            val config: com.rivalapexmediation.sdk.contract.AdapterConfig,
+            val signature: String
+        )
+
+        private fun isCovered(signature: String, placements: Map<String, String>): Boolean {
+            if (!initialized || lastInitSignature != signature) return false
+            val known = initializedPlacements
+            return placements.all { (id, mapped) -> known[id] == mapped }
+        }
+
+        internal fun timing(): AdapterInitTiming = AdapterInitTiming(
+            network = partnerId,
+            instantiateMs = instantiateMs,
+            initMs = lastInitMs,
+            success = lastInitSuccess,
+            source = lastInitSource,
+            initCount = initCount
+        )
+
         suspend fun loadInterstitial(placement: String, meta: RequestMeta, timeoutMs: Int): LoadResult {
             return runtime.loadInterstitialWithEnforcement(placement, meta, timeoutMs)
         }
 
+        /**
+         * Like [loadInterstitial], but re-issues the request once it passes the adapter's p95
+         * latency, if [acquireHedge] allows it.
+         */
+        suspend fun loadInterstitialHedged(
+            placement: String,
+            meta: RequestMeta,
+            timeoutMs: Int,
+            acquireHedge: () -> Boolean,
+            onHedgeSettled: (hedgeWon: Boolean) -> Unit
+        ): LoadResult {
+            return runtime.loadWithHedging(placement, meta, timeoutMs, acquireHedge, onHedgeSettled)
+        }
+
         fun showInterstitial(handle: AdHandle, viewContext: Any, callbacks: ShowCallbacks) {
             runtime.showInterstitialOnMain(handle, viewContext, callbacks)
         }
@@ -153,3 +286,46 @@ class AdapterRegistry {
         }
     }
 }
+
+/**
+ * Stable digest of an adapter init config, excluding placements. Unlike hashCode() it is
+ * deterministic across processes and independent of map ordering.
+ */
+internal object AdapterInitSignature {
+    /** True when [a] and [b] would produce the same signature; placements are ignored. */
+    fun sameContent(
+        a: com.rivalapexmediation.sdk.contract.AdapterConfig,
+        b: com.rivalapexmediation.sdk.contract.AdapterConfig
+    ): Boolean = a === b || (
+        a.partner == b.partner &&
+            a.credentials == b.credentials &&
+            a.privacy == b.privacy &&
+            a.region == b.region &&
+            a.options == b.options
+        )
+
+    fun of(config: com.rivalapexmediation.sdk.contract.AdapterConfig): String {
+        val creds = config.credentials
+        val privacy = config.privacy
+        val canonical = buildString {
+            append("partner=").append(config.partner)
+            append("|key=").append(creds.key)
+            append("|secret=").append(creds.secret.orEmpty())
+            append("|app=").append(creds.appId.orEmpty())
+            creds.accountIds.orEmpty().toSortedMap().forEach { (k, v) -> append("|acct.").append(k).append('=').append(v) }
+            append("|region=").append(config.region?.name.orEmpty())
+            config.options?.let { append("|muted=").append(it.startMuted).append("|test=").append(it.testMode).append("|floor=").append(it.bidFloorMicros) }
+            append("|gdpr=").append(privacy.gdprApplies)
+            append("|tcf=").append(privacy.iabTcfV2.orEmpty())
+            append("|usp=").append(privacy.iabUsPrivacy.orEmpty())
+            append("|coppa=").append(privacy.coppa)
+            append("|att=").append(privacy.attStatus.name)
+            append("|lat=").append(privacy.limitAdTracking)
+            append("|sandbox=").append(privacy.privacySandboxOptIn)
+            append("|adid=").append(privacy.advertisingId.orEmpty())
+            append("|asid=").append(privacy.appSetId.orEmpty())
+        }
+        val digest = MessageDigest.getInstance("SHA-256").digest(canonical.toByteArray(Charsets.UTF_8))
+        return digest.joinToString("") { "%02x".format(it) }
+    }
+}
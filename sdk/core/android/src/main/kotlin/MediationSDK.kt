@@ -3,9 +3,17 @@ package com.rivalapexmediation.sdk
 import android.app.Activity
 import android.content.Context
 import android.content.res.Configuration
+import com.rivalapexmediation.sdk.cache.AdCacheTTL
+import com.rivalapexmediation.sdk.cache.AdInventory
 import com.rivalapexmediation.sdk.logging.Logger
+import com.rivalapexmediation.sdk.runtime.BidCollector
+import com.rivalapexmediation.sdk.runtime.HedgeBudget
+import com.rivalapexmediation.sdk.runtime.HedgeManager
+import com.rivalapexmediation.sdk.runtime.LoadCoalescer
+import com.rivalapexmediation.sdk.runtime.LoadJoinPolicy
 import com.rivalapexmediation.sdk.runtime.PlacementPacer
 import com.rivalapexmediation.sdk.util.ClockProvider
+import com.rivalapexmediation.sdk.util.RequestIds
 import android.os.Build
 import android.os.Handler
 import android.os.Looper
@@ -13,12 +21,11 @@ import android.os.StrictMode
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.Executors
 import java.util.concurrent.Callable
+import java.util.concurrent.CancellationException
 import java.util.concurrent.Future
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.TimeoutException
 import kotlinx.coroutines.*
-import okhttp3.CertificatePinner
-import okhttp3.OkHttpClient
 import com.rivalapexmediation.sdk.config.ConfigManager
 import com.rivalapexmediation.sdk.consent.ConsentManager
 import com.rivalapexmediation.sdk.consent.UmpConsentClient
@@ -45,9 +52,14 @@ import com.rivalapexmediation.sdk.contract.RequestMeta as RuntimeRequestMeta
 import com.rivalapexmediation.sdk.contract.RewardedCallbacks
 import com.rivalapexmediation.sdk.contract.ShowCallbacks
 import com.rivalapexmediation.sdk.telemetry.TelemetryCollector
+import com.rivalapexmediation.sdk.telemetry.TelemetryDropPolicy
+import com.rivalapexmediation.sdk.telemetry.TelemetryRedactor
 import com.rivalapexmediation.sdk.models.*
 import com.rivalapexmediation.sdk.threading.CircuitBreaker
 import com.rivalapexmediation.sdk.network.AuctionClient
+import com.rivalapexmediation.sdk.network.HttpClientRegistry
+import com.rivalapexmediation.sdk.network.NetworkMonitor
+import com.rivalapexmediation.sdk.network.RequestContext
 import com.rivalapexmediation.sdk.privacy.PrivacyIdentifierProvider
 import com.rivalapexmediation.sdk.privacy.PrivacyIdentifiers
 import com.rivalapexmediation.sdk.privacy.PrivacySandboxStateProvider
@@ -56,6 +68,7 @@ import com.rivalapexmediation.sdk.measurement.OmSdkHelper
 import com.rivalapexmediation.sdk.measurement.OmSdkRegistry
 import com.rivalapexmediation.sdk.measurement.OmSdkSessionController
 import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicBoolean
 import kotlinx.coroutines.runBlocking
 
 /**
@@ -101,6 +114,19 @@ class MediationSDK private constructor(
         }
         
         private val mainHandler by lazy { Handler(Looper.getMainLooper()) }
+
+        private val backgroundDispatcher = backgroundExecutor.asCoroutineDispatcher()
+        private val networkDispatcher = networkExecutor.asCoroutineDispatcher()
+
+        // Bounded pool for runtime (V2) adapter loads. Suspended loads hold no thread, and the
+        // blocking adapter call itself is capped here instead of growing with adapters x placements.
+        private val runtimeDispatcher = Executors.newFixedThreadPool(
+            (Runtime.getRuntime().availableProcessors() * 2).coerceIn(4, 16)
+        ) { r ->
+            Thread(r, "RivalApexMediation-Runtime").apply {
+                priority = Thread.NORM_PRIORITY
+            }
+        }.asCoroutineDispatcher()
         
         /**
          * Initialize the SDK (must be called from Application.onCreate())
@@ -163,7 +189,9 @@ class MediationSDK private constructor(
         ConfigManager(context, config, null, keyBytes)
     }
     private val telemetry = TelemetryCollector(context, config)
-    private val adapterRegistry = AdapterRegistry()
+    private val adapterRegistry = AdapterRegistry(runtimeDispatcher)
+    private val loadScope = CoroutineScope(SupervisorJob() + backgroundDispatcher)
+    private val adapterScope = CoroutineScope(SupervisorJob() + runtimeDispatcher)
     private val privacyIdentifierProvider = PrivacyIdentifierProvider(context)
     private val privacySandboxStateProvider = PrivacySandboxStateProvider(context)
     private val sessionDepth = AtomicInteger(0)
@@ -178,9 +206,68 @@ class MediationSDK private constructor(
     }
     private val circuitBreakers = ConcurrentHashMap<String, CircuitBreaker>()
     private val pacing = PlacementPacer(config.minNoFillRetryMs, ClockProvider.clock)
-    // Simple in-memory ad cache per placement (interstitials): preserves last loaded ad for fast show.
-    private data class CachedAd(val ad: Ad, val expiryAtMs: Long)
-    private val adCache = mutableMapOf<String, CachedAd>()
+    // Per-placement ad inventory: up to config.adInventorySlots ads, best eCPM first, for fast show.
+    private val adCache = AdInventory(
+        slotsPerPlacement = config.adInventorySlots.coerceAtLeast(1),
+        onEvicted = { ad -> releaseRuntimeBinding(ad) }
+    )
+    // Hedge accounting per placement, and S2S auction latencies that set NEXT_BEST hedge delays.
+    private val hedgeBudget = HedgeBudget()
+    private val auctionLatencies = HedgeManager()
+    // Loads in flight per placement; concurrent loadAd calls join them per config.loadJoinPolicy.
+    private val loadFlights = LoadCoalescer<AdLoadCallback>(config.loadJoinPolicy)
+    // Placements with a background inventory refill currently running.
+    private val refillsInFlight: MutableSet<String> = ConcurrentHashMap.newKeySet()
+    // Null when connectivity can't be observed (e.g. ACCESS_NETWORK_STATE not granted).
+    private val networkMonitor: NetworkMonitor? by lazy {
+        try {
+            NetworkMonitor.getInstance(context).also { it.startMonitoring() }
+        } catch (_: Throwable) {
+            null
+        }
+    }
+    private val auctionWarmupInFlight = AtomicBoolean(false)
+    @Volatile private var watchedMonitor: NetworkMonitor? = null
+    // Re-warm the auction connection whenever the device (re)gains a network; sockets pooled on
+    // a previous transport are dead, so drop them first.
+    private val connectivityListener = object : NetworkMonitor.NetworkStateListener {
+        @Volatile private var lastType: NetworkMonitor.ConnectionType? = null
+
+        override fun onNetworkStateChanged(state: NetworkMonitor.NetworkState) {
+            val previous = lastType
+            lastType = state.connectionType
+            RequestContext.onConnectivityChanged(state.connectionType.name.lowercase(java.util.Locale.US))
+            if (!state.isConnected) return
+            if (previous != null && previous != state.connectionType) HttpClientRegistry.evictAll()
+            warmAuctionConnection()
+        }
+    }
+    // Orientation and locale feed the request context snapshot; drop it when they change.
+    private val configurationCallbacks = object : android.content.ComponentCallbacks {
+        override fun onConfigurationChanged(newConfig: Configuration) {
+            RequestContext.invalidate()
+        }
+
+        @Deprecated("Deprecated in Java")
+        override fun onLowMemory() {}
+    }
+    // Request-invariant parts of RuntimeRequestMeta, rebuilt only when the device snapshot or
+    // the consent state they were derived from changes.
+    private class RuntimeRequestTemplate(
+        val snapshot: RequestContext,
+        val consentSource: ConsentManager.State,
+        val device: RuntimeDeviceMeta,
+        val user: RuntimeUserMeta,
+        val net: RuntimeNetworkMeta,
+        val orientation: RuntimeOrientation
+    )
+    @Volatile private var runtimeRequestTemplate: RuntimeRequestTemplate? = null
+    private class SpanMetadataBase(
+        val consentSource: ConsentManager.State,
+        val testMode: Boolean,
+        val byStrategy: Map<LoadStrategy, Map<String, Any>>
+    )
+    @Volatile private var spanMetadataBase: SpanMetadataBase? = null
     // Consent preferences propagated to auction metadata (GDPR/USP/COPPA/LAT)
     @Volatile private var consentState: ConsentManager.State = ConsentManager.State()
     @Volatile private var auctionClient: AuctionClient? = null
@@ -236,6 +323,7 @@ class MediationSDK private constructor(
     fun setAuctionApiKey(key: String) {
         this.auctionApiKey = key
         this.auctionClient = null // will be recreated lazily
+        warmAuctionConnection()
     }
 
     // Public: set consent and privacy flags to be propagated to auction metadata
@@ -285,6 +373,9 @@ class MediationSDK private constructor(
     // Diagnostics: list registered adapter names
     fun getAdapterNames(): List<String> = adapterRegistry.getRegisteredNetworks().map { it.lowercase() }.sorted()
 
+    // Diagnostics: per-adapter construction/init timings, slowest init first
+    fun getAdapterInitReport(): List<AdapterRegistry.AdapterInitTiming> = adapterRegistry.initReport()
+
     // BYO: allow host apps to register a runtime adapter factory before initialize()
     fun registerRuntimeAdapterFactory(network: String, factory: (Context) -> AdNetworkAdapterV2) {
         adapterRegistry.registerRuntimeAdapterFactory(network.lowercase(), factory)
@@ -489,10 +580,15 @@ class MediationSDK private constructor(
         val latencySink: (Long, String) -> Unit = { latency, outcome ->
             telemetry.recordAuctionClientLatency(outcome, latency)
         }
+        // Link RTT comes from the /health warm-up only. Auction latency includes the server's
+        // auction, which scales with the deadline we send and would feed back into it.
+        val rttSink: (Long) -> Unit = { rtt -> networkMonitor?.recordRtt(rtt) }
+        val firstConnectionSink: (Boolean, String) -> Unit = { reused, protocol ->
+            telemetry.recordFirstAuctionConnection(reused, protocol)
+        }
         val created = AuctionClient(
             config.auctionEndpoint,
             auctionApiKey,
-            buildPinnedHttpClientIfEnabled(),
             circuitBreakerFactory = {
                 CircuitBreaker(
                     failureThreshold = config.circuitBreakerFailureThreshold,
@@ -502,37 +598,28 @@ class MediationSDK private constructor(
             },
             clock = ClockProvider.clock,
             latencyRecorder = latencySink,
+            certificatePins = certificatePinsIfEnabled(),
+            firstConnectionRecorder = firstConnectionSink,
+            rttRecorder = rttSink,
         )
         auctionClient = created
         return created
     }
 
     /**
-     * Build an OkHttpClient with Certificate Pinning when enabled via remote feature flags.
-     * Returns null when disabled or misconfigured so AuctionClient falls back to its default client.
+     * Certificate pins from remote feature flags when pinning is enabled, else empty.
+     * AuctionClient resolves them to a pinned client profile from the shared HTTP registry.
      */
-    private fun buildPinnedHttpClientIfEnabled(): OkHttpClient? {
+    private fun certificatePinsIfEnabled(): Map<String, List<String>> {
         return try {
             val features = configManager.getFeatureFlags()
-            if (!features.netTlsPinningEnabled) return null
-            val pinMap = features.netTlsPinning
-            if (pinMap.isEmpty()) return null
-            val pinnerBuilder = CertificatePinner.Builder()
-            for ((host, pins) in pinMap) {
-                if (host.isNullOrBlank()) continue
-                pins.forEach { pin ->
-                    if (!pin.isNullOrBlank()) {
-                        pinnerBuilder.add(host, pin)
-                    }
-                }
-            }
-            val pinner = pinnerBuilder.build()
-            OkHttpClient.Builder()
-                .certificatePinner(pinner)
-                .retryOnConnectionFailure(false)
-                .build()
+            if (!features.netTlsPinningEnabled) return emptyMap()
+            features.netTlsPinning
+                .filterKeys { !it.isNullOrBlank() }
+                .mapValues { (_, pins) -> pins.filter { !it.isNullOrBlank() } }
+                .filterValues { it.isNotEmpty() }
         } catch (_: Throwable) {
-            null
+            emptyMap()
         }
     }
 
@@ -572,12 +659,18 @@ class MediationSDK private constructor(
                 // OM SDK: install helper only if host bundles the vendor library and enables flag.
                 installOmSdkController(configManager.getFeatureFlags())
 
-                // Initialize adapters
+                // Initialize adapters: the ones placements use start in parallel in the background,
+                // the rest are created on first use.
                 adapterRegistry.initialize(context)
+                prewarmRuntimeAdapters()
 
                 // Setup telemetry
                 telemetry.start()
 
+                // Pre-establish the S2S auction connection now and after every connectivity change.
+                watchConnectivityForWarmup()
+                try { context.registerComponentCallbacks(configurationCallbacks) } catch (_: Throwable) {}
+
                 // Record initialization time
                 telemetry.recordInitialization()
 
@@ -618,13 +711,33 @@ class MediationSDK private constructor(
      * Load an ad for the specified placement
      * 
      * @param placement The ad placement identifier
+     * Concurrent calls for a placement share one load and all receive its result; under
+     * [LoadJoinPolicy.TOP_UP] a second load may start instead while the inventory has room.
+     *
      * @param callback Callback for ad load result (called on main thread)
      */
     fun loadAd(placement: String, callback: AdLoadCallback) {
-        val loadTask = Runnable {
+        val flight = loadFlights.begin(placement, callback) { inFlight ->
+            adCache.slotsPerPlacement > 1 && adCache.count(placement) + inFlight < adCache.slotsPerPlacement
+        }
+        if (flight == null) {
+            Logger.d("MediationSDK", "Joined in-flight load for placement=$placement")
+            return
+        }
+        // Fans the result out to every caller that joined this load.
+        val delivery = object : AdLoadCallback {
+            override fun onAdLoaded(ad: Ad) {
+                loadFlights.complete(flight).forEach { it.onAdLoaded(ad) }
+            }
+
+            override fun onError(error: AdError, message: String) {
+                loadFlights.complete(flight).forEach { it.onError(error, message) }
+            }
+        }
+        val loadTask: suspend () -> Unit = loadTask@{
             val clock = com.rivalapexmediation.sdk.util.ClockProvider.clock
             val startTime = clock.monotonicNow()
-            val traceId = try { java.util.UUID.randomUUID().toString() } catch (_: Throwable) { "trace-${clock.now()}" }
+            val traceId = RequestIds.traceId()
 
             if (pacing.shouldThrottle(placement)) {
                 val remaining = pacing.remainingMs(placement)
@@ -640,8 +753,8 @@ class MediationSDK private constructor(
                     metadata = runtimeTelemetryMetadata(LoadStrategy.CLIENT_ADAPTER, mapOf("remaining_ms" to remaining))
                 )
                 telemetry.recordAdLoad(placement, 0L, false)
-                postToMainThread { callback.onError(AdError.NO_FILL, "pacing_active") }
-                return@Runnable
+                postToMainThread { delivery.onError(AdError.NO_FILL, "pacing_active") }
+                return@loadTask
             }
 
             try {
@@ -649,29 +762,63 @@ class MediationSDK private constructor(
                     val message = "ValidationMode is enabled; ad loads are blocked until disabled"
                     telemetry.recordError("validation_mode_blocked", IllegalStateException(message))
                     postToMainThread {
-                        callback.onError(AdError.INTERNAL_ERROR, "validation_mode_enabled")
+                        delivery.onError(AdError.INTERNAL_ERROR, "validation_mode_enabled")
                     }
-                    return@Runnable
+                    return@loadTask
                 }
 
                 // Check kill switch before any work
                 val features = configManager.getFeatureFlags()
                 if (features.killSwitch) {
                     telemetry.recordError("killed_by_config", IllegalStateException("kill_switch_active"))
-                    postToMainThread { callback.onError(AdError.INTERNAL_ERROR, "kill_switch_active") }
-                    return@Runnable
+                    postToMainThread { delivery.onError(AdError.INTERNAL_ERROR, "kill_switch_active") }
+                    return@loadTask
                 }
 
                 // Get placement configuration
-                val placementConfig = configManager.getPlacementConfig(placement)
-                if (placementConfig == null) {
+                val configuredPlacement = configManager.getPlacementConfig(placement)
+                if (configuredPlacement == null) {
                     telemetry.recordError("invalid_placement", IllegalArgumentException("Unknown placement: $placement"))
-                    postToMainThread { callback.onError(AdError.INVALID_PLACEMENT, "Unknown placement: $placement") }
-                    return@Runnable
+                    postToMainThread { delivery.onError(AdError.INVALID_PLACEMENT, "Unknown placement: $placement") }
+                    return@loadTask
                 }
 
+                // Size S2S and adapter deadlines to the current link; don't burn a timeout offline.
+                val linkTimeoutMs = networkAwareTimeoutMs(configuredPlacement.timeoutMs)
+                if (linkTimeoutMs == null) {
+                    val cached = adCache.peek(placement)
+                    telemetry.recordAdapterSpanFinish(
+                        traceId = traceId,
+                        placement = placement,
+                        adapter = "preflight",
+                        outcome = if (cached != null) "fill" else "error",
+                        latencyMs = 0L,
+                        errorCode = "offline",
+                        errorMessage = "no_active_network",
+                        metadata = runtimeTelemetryMetadata(LoadStrategy.CLIENT_ADAPTER, mapOf("cached" to (cached != null)))
+                    )
+                    if (cached != null) {
+                        postToMainThread { delivery.onAdLoaded(cached) }
+                    } else {
+                        telemetry.recordAdLoad(placement, 0L, false)
+                        postToMainThread { delivery.onError(AdError.NETWORK_ERROR, "offline") }
+                    }
+                    return@loadTask
+                }
+                val placementConfig = if (linkTimeoutMs == configuredPlacement.timeoutMs) {
+                    configuredPlacement
+                } else {
+                    configuredPlacement.copy(timeoutMs = linkTimeoutMs)
+                }
+
+                // NEXT_BEST hedging: an S2S auction still outstanding past its p95 keeps running while
+                // the adapter fan-out starts, and competes with the adapters' bids below.
+                var hedgedAuction: Deferred<AuctionClient.InterstitialResult>? = null
+                val auctionHedge = placementConfig.hedging?.takeIf { it.mode == HedgeMode.NEXT_BEST }
+
                 // 1) Try S2S auction first if enabled for this mode; fallback to adapters on no_fill.
                 if (shouldUseS2SForPlacement(placementConfig)) {
+                    val s2sStart = clock.monotonicNow()
                     try {
                         telemetry.recordAdapterSpanStart(
                             traceId,
@@ -679,7 +826,6 @@ class MediationSDK private constructor(
                             "s2s",
                             runtimeTelemetryMetadata(LoadStrategy.S2S)
                         )
-                        val s2sStart = clock.monotonicNow()
                         val client = ensureAuctionClient()
                         val meta = mutableMapOf<String, String>()
                         val effectiveTest = isTestModeEffective()
@@ -694,42 +840,57 @@ class MediationSDK private constructor(
                             timeoutMs = placementConfig.timeoutMs.toInt().coerceAtLeast(100),
                             auctionType = "header_bidding",
                         )
-                        val result = client.requestInterstitial(opts, currentAuctionConsent())
-                        // Map to Ad model and callback success
-                        val ttlMs = computeDefaultExpiryMs(placementConfig)
-                        val ad = Ad(
-                            id = result.creativeId ?: ("ad-" + clock.now()),
-                            placementId = placement,
-                            networkName = result.adapter,
-                            adType = AdType.INTERSTITIAL,
-                            ecpm = result.ecpm,
-                            creative = Creative.Banner(width = 0, height = 0, markupHtml = result.adMarkup ?: ""),
-                            metadata = buildRuntimeAdMetadata(LoadStrategy.S2S),
-                            expiryTimeMs = clock.monotonicNow() + ttlMs
-                        )
-                        cacheAd(placement, ad)
-                        val latency = clock.monotonicNow() - startTime
-                        telemetry.recordAdLoad(placement, latency, true)
-                        telemetry.recordAdapterSpanFinish(
-                            traceId = traceId,
-                            placement = placement,
-                            adapter = "s2s",
-                            outcome = "fill",
-                            latencyMs = clock.monotonicNow() - s2sStart,
-                            metadata = runtimeTelemetryMetadata(LoadStrategy.S2S)
-                        )
-                        postToMainThread { callback.onAdLoaded(ad) }
-                        return@Runnable
+                        val consent = currentAuctionConsent()
+                        val result = if (auctionHedge == null) {
+                            client.awaitInterstitial(opts, consent)
+                        } else {
+                            hedgeBudget.recordRequest(placement)
+                            val auction = adapterScope.async { client.awaitInterstitial(opts, consent) }
+                            val hedgeAfterMs = auctionLatencies.getHedgeDelayMs(placement)
+                                ?.takeIf { it < opts.timeoutMs && hasClientSources(placementConfig) }
+                            val early = if (hedgeAfterMs == null) {
+                                auction.await()
+                            } else {
+                                withTimeoutOrNull(hedgeAfterMs) { auction.await() }
+                            }
+                            when {
+                                early != null -> early
+                                hedgeBudget.tryAcquire(placement, auctionHedge.budgetPercent) -> {
+                                    hedgedAuction = auction
+                                    null
+                                }
+                                else -> auction.await()
+                            }
+                        }
+                        if (result != null) {
+                            auctionLatencies.recordLatency(placement, clock.monotonicNow() - s2sStart)
+                            // Map to Ad model and callback success
+                            val ad = auctionResultToAd(result, placement, placementConfig)
+                            cacheAd(placement, ad, placementConfig)
+                            val latency = clock.monotonicNow() - startTime
+                            telemetry.recordAdLoad(placement, latency, true)
+                            telemetry.recordAdapterSpanFinish(
+                                traceId = traceId,
+                                placement = placement,
+                                adapter = "s2s",
+                                outcome = "fill",
+                                latencyMs = clock.monotonicNow() - s2sStart,
+                                metadata = runtimeTelemetryMetadata(LoadStrategy.S2S)
+                            )
+                            postToMainThread { delivery.onAdLoaded(ad) }
+                            return@loadTask
+                        }
                     } catch (ae: AuctionClient.AuctionException) {
                         // Map taxonomy to AdError; if no_fill, proceed to adapter fallback; else report error
                         val reason = ae.reason
                         if (reason == "no_fill") {
+                            auctionLatencies.recordLatency(placement, clock.monotonicNow() - s2sStart)
                             telemetry.recordAdapterSpanFinish(
                                 traceId = traceId,
                                 placement = placement,
                                 adapter = "s2s",
                                 outcome = "no_fill",
-                                latencyMs = clock.monotonicNow() - startTime,
+                                latencyMs = clock.monotonicNow() - s2sStart,
                                 errorCode = reason,
                                 errorMessage = ae.message,
                                 metadata = runtimeTelemetryMetadata(LoadStrategy.S2S)
@@ -748,8 +909,8 @@ class MediationSDK private constructor(
                                 errorMessage = ae.message,
                                 metadata = runtimeTelemetryMetadata(LoadStrategy.S2S)
                             )
-                            postToMainThread { callback.onError(err, ae.message ?: reason) }
-                            return@Runnable
+                            postToMainThread { delivery.onError(err, ae.message ?: reason) }
+                            return@loadTask
                         }
                     }
                 }
@@ -761,19 +922,55 @@ class MediationSDK private constructor(
                 val legacyAdapters = enabledNetworks.mapNotNull { adapterRegistry.getAdapter(it) }
                     .filter { adapter -> adapter.isAvailable() && !isAdapterInCircuit(adapter.name) }
 
-                if (runtimeEntries.isEmpty() && legacyAdapters.isEmpty()) {
+                val pendingAuction = hedgedAuction
+                if (runtimeEntries.isEmpty() && legacyAdapters.isEmpty() && pendingAuction == null) {
                     pacing.markNoFill(placement)
                     postToMainThread {
-                        callback.onError(AdError.NO_FILL, "No adapters available")
+                        delivery.onError(AdError.NO_FILL, "No adapters available")
                     }
-                    return@Runnable
+                    return@loadTask
                 }
 
-                val futures = mutableListOf<Future<AdapterResult>>()
+                val calls = mutableListOf<Deferred<AdapterResult>>()
+
+                val auctionCall = pendingAuction?.let { auction ->
+                    val call = adapterScope.async {
+                        val s2sMeta = runtimeTelemetryMetadata(LoadStrategy.S2S, mapOf("hedged" to true))
+                        try {
+                            val ad = auctionResultToAd(auction.await(), placement, placementConfig)
+                            val latency = clock.monotonicNow() - startTime
+                            auctionLatencies.recordLatency(placement, latency)
+                            telemetry.recordAdapterSpanFinish(
+                                traceId = traceId,
+                                placement = placement,
+                                adapter = "s2s",
+                                outcome = "fill",
+                                latencyMs = latency,
+                                metadata = s2sMeta
+                            )
+                            AdapterResult(AdResponse(ad, ad.ecpm, latency, "s2s"), null)
+                        } catch (ae: AuctionClient.AuctionException) {
+                            telemetry.recordAdapterSpanFinish(
+                                traceId = traceId,
+                                placement = placement,
+                                adapter = "s2s",
+                                outcome = if (ae.reason == "no_fill") "no_fill" else "error",
+                                latencyMs = clock.monotonicNow() - startTime,
+                                errorCode = ae.reason,
+                                errorMessage = ae.message,
+                                metadata = s2sMeta
+                            )
+                            AdapterResult(null, null)
+                        }
+                    }
+                    // Stop the auction itself if its slot is cancelled at the placement deadline.
+                    call.invokeOnCompletion { cause -> if (cause != null) auction.cancel() }
+                    calls += call
+                    call
+                }
 
                 runtimeEntries.forEach { entry ->
-                    futures += networkExecutor.submit(Callable {
-                        val adapterStart = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow()
+                    calls += adapterScope.async {
                         val metadata = runtimeTelemetryMetadata(
                             LoadStrategy.CLIENT_ADAPTER,
                             mapOf("path" to "adapter", "api" to "runtime_v2")
@@ -785,102 +982,187 @@ class MediationSDK private constructor(
                             metadata
                         )
                         loadRuntimeWithCircuitBreaker(entry, placement, placementConfig, traceId, metadata)
-                    })
+                    }
                 }
 
                 legacyAdapters.forEach { adapter ->
-                    futures += networkExecutor.submit(Callable {
-                        val adapterStart = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow()
-                        val metadata = runtimeTelemetryMetadata(
-                            LoadStrategy.CLIENT_ADAPTER,
-                            mapOf("path" to "adapter", "api" to "legacy_v1")
-                        )
-                        telemetry.recordAdapterSpanStart(traceId, placement, adapter.name, metadata)
-                        try {
-                            val resp = loadWithCircuitBreaker(adapter, placement, placementConfig)
-                            val latency = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow() - adapterStart
-                            val outcome = if (resp?.isValid() == true) "fill" else "no_fill"
-                            telemetry.recordAdapterSpanFinish(
-                                traceId = traceId,
-                                placement = placement,
-                                adapter = adapter.name,
-                                outcome = outcome,
-                                latencyMs = latency,
-                                metadata = metadata
+                    // Legacy adapters block; keep them on the network pool and interrupt on cancel.
+                    calls += adapterScope.async {
+                        runInterruptible(networkDispatcher) {
+                            val adapterStart = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow()
+                            val metadata = runtimeTelemetryMetadata(
+                                LoadStrategy.CLIENT_ADAPTER,
+                                mapOf("path" to "adapter", "api" to "legacy_v1")
                             )
-                            AdapterResult(resp, null)
-                        } catch (t: Throwable) {
-                            val latency = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow() - adapterStart
-                            telemetry.recordAdapterSpanFinish(
-                                traceId = traceId,
-                                placement = placement,
-                                adapter = adapter.name,
-                                outcome = "error",
-                                latencyMs = latency,
-                                errorCode = "exception",
-                                errorMessage = t.message,
-                                metadata = metadata
-                            )
-                            throw t
+                            telemetry.recordAdapterSpanStart(traceId, placement, adapter.name, metadata)
+                            try {
+                                val resp = loadWithCircuitBreaker(adapter, placement, placementConfig)
+                                val latency = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow() - adapterStart
+                                val outcome = if (resp?.isValid() == true) "fill" else "no_fill"
+                                telemetry.recordAdapterSpanFinish(
+                                    traceId = traceId,
+                                    placement = placement,
+                                    adapter = adapter.name,
+                                    outcome = outcome,
+                                    latencyMs = latency,
+                                    metadata = metadata
+                                )
+                                AdapterResult(resp, null)
+                            } catch (t: Throwable) {
+                                val latency = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow() - adapterStart
+                                telemetry.recordAdapterSpanFinish(
+                                    traceId = traceId,
+                                    placement = placement,
+                                    adapter = adapter.name,
+                                    outcome = "error",
+                                    latencyMs = latency,
+                                    errorCode = "exception",
+                                    errorMessage = t.message,
+                                    metadata = metadata
+                                )
+                                throw t
+                            }
                         }
-                    })
-                }
-
-                val deadlineNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(placementConfig.timeoutMs)
-                val adapterResults = mutableListOf<AdapterResult>()
-                futures.forEach { future ->
-                    val remainingNs = deadlineNs - System.nanoTime()
-                    if (remainingNs <= 0) {
-                        future.cancel(true)
-                        telemetry.recordTimeout(placement, "adapter_timeout")
-                        return@forEach
-                    }
-                    try {
-                        val result = future.get(remainingNs, TimeUnit.NANOSECONDS)
-                        adapterResults += result
-                    } catch (e: TimeoutException) {
-                        future.cancel(true)
-                        telemetry.recordTimeout(placement, "adapter_timeout")
-                    } catch (e: Exception) {
-                        telemetry.recordError("adapter_load_failed", e)
                     }
                 }
-
-                // Cancel any stragglers beyond the placement deadline to avoid overruns.
-                futures.filter { !it.isDone }.forEach { it.cancel(true) }
+                val adapterResults = collectAdapterResults(calls, placement, placementConfig)
 
                 val results = adapterResults.mapNotNull { it.response }
 
                 // Select best ad (highest eCPM)
                 val bestAd = selectBestAd(results)
                 handleRuntimeBindings(adapterResults, bestAd)
+                if (auctionCall != null) {
+                    // The hedge (adapter fan-out) won unless the auction's own bid was chosen. Read
+                    // the bid from the finished call rather than from state its coroutine wrote.
+                    val auctionAd = if (auctionCall.isCompleted && !auctionCall.isCancelled) {
+                        auctionCall.await().response?.ad
+                    } else {
+                        null
+                    }
+                    recordHedgeOutcome(placement, "s2s", bestAd != null && bestAd !== auctionAd)
+                }
 
                 if (bestAd != null) {
                     val expiry = bestAd.expiryTimeMs ?: (com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow() + computeDefaultExpiryMs(placementConfig))
                     val cached = bestAd.copy(expiryTimeMs = expiry)
-                    cacheAd(placement, cached)
+                    cacheAd(placement, cached, placementConfig)
                     pacing.reset(placement)
                     val latency = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow() - startTime
                     telemetry.recordAdLoad(placement, latency, true)
-                    postToMainThread { callback.onAdLoaded(cached) }
+                    postToMainThread { delivery.onAdLoaded(cached) }
                 } else {
                     pacing.markNoFill(placement)
                     telemetry.recordAdLoad(placement, com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow() - startTime, false)
-                    postToMainThread { callback.onError(AdError.NO_FILL, "No valid bids received") }
+                    postToMainThread { delivery.onError(AdError.NO_FILL, "No valid bids received") }
                 }
 
+            } catch (e: CancellationException) {
+                throw e
             } catch (e: Exception) {
                 telemetry.recordError("load_ad_failed", e)
-                postToMainThread { callback.onError(AdError.INTERNAL_ERROR, e.message ?: "Unknown error") }
+                postToMainThread { delivery.onError(AdError.INTERNAL_ERROR, e.message ?: "Unknown error") }
             }
         }
+        // Results are delivered on the main thread after the task returns; stop accepting joiners
+        // now so a later call starts a fresh load instead of waiting on a finished one.
         if (isTestRuntime()) {
-            loadTask.run()
+            try { runBlocking { loadTask() } } finally { loadFlights.release(flight) }
         } else {
-            backgroundExecutor.execute(loadTask)
+            loadScope.launch {
+                try { loadTask() } finally { loadFlights.release(flight) }
+            }.invokeOnCompletion { cause ->
+                // A cancelled load (shutdown, or cancelled before it started) never delivers;
+                // without this its joiners would wait forever. A no-op once delivery ran.
+                if (cause is CancellationException) {
+                    postToMainThread { delivery.onError(AdError.INTERNAL_ERROR, "load_cancelled") }
+                }
+            }
         }
     }
     
+    /**
+     * Drains adapter bids in completion order against the placement deadline (see
+     * [BidCollector]). When [SDKConfig.bidEarlyExitMargin] is set, a valid bid clearing the floor
+     * by that margin ends collection early without counting the cancelled calls as timeouts.
+     */
+    private suspend fun collectAdapterResults(
+        calls: List<Deferred<AdapterResult>>,
+        placement: String,
+        placementConfig: PlacementConfig
+    ): List<AdapterResult> {
+        val earlyExitCpm = earlyExitThreshold(placementConfig)
+        return BidCollector.collect(
+            calls = calls,
+            timeoutMs = placementConfig.timeoutMs,
+            isDecisive = { result ->
+                val response = result.response
+                earlyExitCpm != null && response != null && response.isValid() && response.ecpm >= earlyExitCpm
+            },
+            onFailure = { e -> telemetry.recordError("adapter_load_failed", e) },
+            onStraggler = { telemetry.recordTimeout(placement, "adapter_timeout") }
+        )
+    }
+
+    /**
+     * Placement deadline scaled to the current link by [NetworkMonitor]; the configured value when
+     * connectivity can't be observed, or null when there is no active network at all. A network
+     * that is up but not yet validated (captive portal, slow validation) still gets its attempt.
+     */
+    private fun networkAwareTimeoutMs(configuredMs: Long): Long? {
+        val monitor = networkMonitor ?: return configuredMs
+        return try {
+            val preflight = monitor.preflight()
+            if (preflight is NetworkMonitor.PreflightResult.FastFail && !preflight.state.isConnected) {
+                null
+            } else {
+                monitor.scaleTimeout(configuredMs)
+            }
+        } catch (_: Throwable) {
+            configuredMs
+        }
+    }
+
+    private fun watchConnectivityForWarmup() {
+        if (isTestRuntime() || watchedMonitor != null) return
+        val monitor = networkMonitor
+        if (monitor == null) {
+            warmAuctionConnection()
+            return
+        }
+        watchedMonitor = monitor
+        // addListener reports the current state immediately, which performs the initial warm-up.
+        monitor.addListener(connectivityListener)
+    }
+
+    /**
+     * Opens the auction client's pooled connection ahead of the first auction (DNS, TCP, TLS and
+     * ALPN) through the same client profile and pins the auction will use. Skipped while S2S is
+     * off for this session or under tests, where it would consume mock responses.
+     */
+    private fun warmAuctionConnection() {
+        if (isTestRuntime() || sandboxForceAdapterPipeline) return
+        if (!config.enableS2SWhenCapable || auctionApiKey.isBlank()) return
+        if (!auctionWarmupInFlight.compareAndSet(false, true)) return
+        try {
+            networkExecutor.execute {
+                try {
+                    ensureAuctionClient().warmUp()
+                } finally {
+                    auctionWarmupInFlight.set(false)
+                }
+            }
+        } catch (_: Throwable) {
+            auctionWarmupInFlight.set(false)
+        }
+    }
+
+    private fun earlyExitThreshold(placementConfig: PlacementConfig): Double? {
+        val margin = config.bidEarlyExitMargin ?: return null
+        if (margin < 0.0 || placementConfig.floorPrice <= 0.0) return null
+        return placementConfig.floorPrice * (1.0 + margin)
+    }
+
     /**
      * Load ad with circuit breaker protection
      */
@@ -981,12 +1263,20 @@ class MediationSDK private constructor(
     }
 
     private fun prepareForReplacement() {
+        watchedMonitor?.removeListener(connectivityListener)
+        watchedMonitor = null
+        try { context.unregisterComponentCallbacks(configurationCallbacks) } catch (_: Throwable) {}
         try { telemetry.stop() } catch (_: Throwable) {}
         try { adapterRegistry.shutdown() } catch (_: Throwable) {}
         try { configManager.shutdown() } catch (_: Throwable) {}
+        loadScope.cancel()
+        adapterScope.cancel()
         circuitBreakers.clear()
         clearRuntimeBindings()
-        synchronized(adCache) { adCache.clear() }
+        refillsInFlight.clear()
+        loadFlights.clear()
+        hedgeBudget.clear()
+        adCache.clear()
     }
     
     /**
@@ -997,35 +1287,47 @@ class MediationSDK private constructor(
      */
     fun isAdReady(placement: String): Boolean {
         // This can be called from any thread
-        synchronized(adCache) {
-            pruneExpiredLocked()
-            val cached = adCache[placement]
-            val now = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow()
-            return cached != null && now < cached.expiryAtMs
-        }
+        val ready = adCache.peek(placement) != null
+        maybeRefillInventory(placement)
+        return ready
     }
 
     // Cache helpers
-    private fun cacheAd(placement: String, ad: Ad) {
+    private fun cacheAd(placement: String, ad: Ad, placementConfig: PlacementConfig) {
         val now = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow()
         val expiry = ad.expiryTimeMs ?: (now + 60_000L)
-        synchronized(adCache) {
-            adCache[placement]?.ad?.let { releaseRuntimeBinding(it) }
-            adCache[placement] = CachedAd(ad, expiry)
-            pruneExpiredLocked()
-        }
+        adCache.put(placement, ad, expiry, refreshIntervalMs(placementConfig))
     }
 
-    private fun pruneExpiredLocked() {
-        val now = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow()
-        val it = adCache.entries.iterator()
-        while (it.hasNext()) {
-            val e = it.next()
-            if (now >= e.value.expiryAtMs) {
-                releaseRuntimeBinding(e.value.ad)
-                it.remove()
+    private fun refreshIntervalMs(placementConfig: PlacementConfig): Long {
+        val refreshSec = placementConfig.refreshInterval
+        return if (refreshSec != null && refreshSec > 0) refreshSec * 1000L else AdCacheTTL.DEFAULT_REFRESH_INTERVAL_MS
+    }
+
+    /**
+     * Top up a multi-slot inventory in the background when a slot was consumed or has entered its
+     * prefetch window. One refill runs per placement at a time and chains until the inventory is
+     * full; pacing (after no_fill) and open circuit breakers stop it, as they would a publisher load.
+     */
+    private fun maybeRefillInventory(placement: String) {
+        if (adCache.slotsPerPlacement <= 1) return
+        if (refillsInFlight.contains(placement)) return
+        if (config.validationModeEnabled || pacing.shouldThrottle(placement)) return
+        val placementConfig = configManager.getPlacementConfig(placement) ?: return
+        val networks = applyAdapterWhitelist(placementConfig.enabledNetworks)
+        if (!shouldUseS2SForPlacement(placementConfig) && networks.all { isAdapterInCircuit(it) }) return
+        if (!adCache.needsRefill(placement)) return
+        if (!refillsInFlight.add(placement)) return
+        loadAd(placement, object : AdLoadCallback {
+            override fun onAdLoaded(ad: Ad) {
+                refillsInFlight.remove(placement)
+                maybeRefillInventory(placement)
             }
-        }
+
+            override fun onError(error: AdError, message: String) {
+                refillsInFlight.remove(placement)
+            }
+        })
     }
 
     private fun computeDefaultExpiryMs(placementConfig: PlacementConfig): Long {
@@ -1034,7 +1336,38 @@ class MediationSDK private constructor(
         return if (refreshSec != null && refreshSec > 0) (refreshSec * 2L * 1000L) else 60L * 60L * 1000L
     }
 
-    private fun loadViaRuntime(
+    private fun auctionResultToAd(
+        result: AuctionClient.InterstitialResult,
+        placement: String,
+        placementConfig: PlacementConfig
+    ): Ad {
+        val clock = com.rivalapexmediation.sdk.util.ClockProvider.clock
+        return Ad(
+            id = result.creativeId ?: ("ad-" + clock.now()),
+            placementId = placement,
+            networkName = result.adapter,
+            adType = AdType.INTERSTITIAL,
+            ecpm = result.ecpm,
+            creative = Creative.Banner(width = 0, height = 0, markupHtml = result.adMarkup ?: ""),
+            metadata = buildRuntimeAdMetadata(LoadStrategy.S2S),
+            expiryTimeMs = clock.monotonicNow() + computeDefaultExpiryMs(placementConfig)
+        )
+    }
+
+    // True when at least one client adapter could serve the placement right now.
+    private fun hasClientSources(placementConfig: PlacementConfig): Boolean {
+        val networks = applyAdapterWhitelist(placementConfig.enabledNetworks)
+        return adapterRegistry.getRuntimeAdapters(networks).any { !isAdapterInCircuit(it.partnerId) } ||
+            networks.mapNotNull { adapterRegistry.getAdapter(it) }.any { it.isAvailable() && !isAdapterInCircuit(it.name) }
+    }
+
+    private fun recordHedgeOutcome(placement: String, source: String, hedgeWon: Boolean) {
+        hedgeBudget.recordOutcome(placement, hedgeWon)
+        val stats = hedgeBudget.stats(placement)
+        telemetry.recordHedgeOutcome(placement, source, hedgeWon, stats.winRate, stats.extraLoad)
+    }
+
+    private suspend fun loadViaRuntime(
         entry: AdapterRegistry.RuntimeAdapterEntry,
         placement: String,
         placementConfig: PlacementConfig
@@ -1052,15 +1385,25 @@ class MediationSDK private constructor(
             return null
         }
         val requestMeta = buildRuntimeRequestMeta(placement, placementConfig)
-        val loadResult = runBlocking {
+        val retryHedge = placementConfig.hedging?.takeIf { it.mode == HedgeMode.RETRY }
+        val loadResult = if (retryHedge == null) {
             entry.loadInterstitial(placement, requestMeta, timeout)
+        } else {
+            hedgeBudget.recordRequest(placement)
+            entry.loadInterstitialHedged(
+                placement,
+                requestMeta,
+                timeout,
+                acquireHedge = { hedgeBudget.tryAcquire(placement, retryHedge.budgetPercent) },
+                onHedgeSettled = { won -> recordHedgeOutcome(placement, entry.partnerId, won) }
+            )
         }
         val response = adFromRuntime(placement, placementConfig, entry.partnerId, loadResult)
         val binding = RuntimeHandleBinding(entry.partnerId, loadResult.handle, placementConfig.adType)
         return RuntimeLoadPayload(response, binding)
     }
 
-    private fun loadRuntimeWithCircuitBreaker(
+    private suspend fun loadRuntimeWithCircuitBreaker(
         entry: AdapterRegistry.RuntimeAdapterEntry,
         placement: String,
         placementConfig: PlacementConfig,
@@ -1085,7 +1428,7 @@ class MediationSDK private constructor(
         }
 
         return try {
-            val payload = breaker.execute(
+            val payload = breaker.executeSuspend(
                 action = { loadViaRuntime(entry, placement, placementConfig) },
                 classifySuccess = { result -> result?.response?.isValid() == true },
                 countException = { ex -> shouldCountException(ex) }
@@ -1102,6 +1445,8 @@ class MediationSDK private constructor(
                 metadata = metadata
             )
             AdapterResult(response?.copy(loadTime = latency), payload?.binding)
+        } catch (e: CancellationException) {
+            throw e
         } catch (t: Exception) {
             val latency = com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow() - adapterStart
             val adapterError = t as? AdapterError
@@ -1121,7 +1466,31 @@ class MediationSDK private constructor(
         }
     }
 
-    private fun buildRuntimeAdapterConfig(networkId: String, placementConfig: PlacementConfig): RuntimeAdapterConfig? {
+    /**
+     * Starts init for every runtime adapter a configured placement routes to, with one config
+     * per network covering all of its placements, so first loads find them ready.
+     */
+    private fun prewarmRuntimeAdapters() {
+        val placements = configManager.getAllPlacements().values
+        if (placements.isEmpty()) return
+        val byNetwork = LinkedHashMap<String, MutableList<PlacementConfig>>()
+        placements.forEach { placementConfig ->
+            applyAdapterWhitelist(placementConfig.enabledNetworks).forEach { network ->
+                byNetwork.getOrPut(network) { mutableListOf() } += placementConfig
+            }
+        }
+        val configs = byNetwork.mapNotNull { (network, served) ->
+            buildRuntimeAdapterConfig(network, served)?.let { network to it }
+        }.toMap()
+        if (configs.isEmpty()) return
+        val timeoutMs = placements.maxOf { it.timeoutMs }.toInt().coerceAtLeast(100)
+        adapterRegistry.prewarm(configs, timeoutMs)
+    }
+
+    private fun buildRuntimeAdapterConfig(networkId: String, placementConfig: PlacementConfig): RuntimeAdapterConfig? =
+        buildRuntimeAdapterConfig(networkId, listOf(placementConfig))
+
+    private fun buildRuntimeAdapterConfig(networkId: String, placementConfigs: List<PlacementConfig>): RuntimeAdapterConfig? {
         val creds = adapterConfigProvider?.getCredentials(networkId)?.takeIf { it.isNotEmpty() } ?: return null
         val key = creds["key"] ?: creds["api_key"] ?: creds["app_key"] ?: return null
         val secret = creds["secret"] ?: creds["app_secret"]
@@ -1129,11 +1498,12 @@ class MediationSDK private constructor(
         val accountIds = creds
             .filterKeys { it.startsWith("account.") }
             .mapKeys { it.key.removePrefix("account.") }
-        val placementKey = "placement.${placementConfig.placementId}"
-        val mappedPlacement = creds[placementKey]
-            ?: creds["placement_id"]
-            ?: placementConfig.placementId
-        val placements = mapOf(placementConfig.placementId to mappedPlacement)
+        val placements = placementConfigs.associate { placementConfig ->
+            val mappedPlacement = creds["placement.${placementConfig.placementId}"]
+                ?: creds["placement_id"]
+                ?: placementConfig.placementId
+            placementConfig.placementId to mappedPlacement
+        }
         return RuntimeAdapterConfig(
             partner = networkId,
             credentials = RuntimeAdapterCredentials(
@@ -1158,25 +1528,9 @@ class MediationSDK private constructor(
         @Suppress("UNUSED_PARAMETER") placement: String,
         placementConfig: PlacementConfig
     ): RuntimeRequestMeta {
-        val consent = buildRuntimeConsentState()
-        val device = RuntimeDeviceMeta(
-            os = "android",
-            osVersion = Build.VERSION.RELEASE ?: "",
-            model = Build.MODEL ?: ""
-        )
-        val user = RuntimeUserMeta(
-            ageRestricted = consent.coppa,
-            consent = consent,
-            advertisingId = consent.advertisingId?.takeIf { !consent.limitAdTracking },
-            appSetId = consent.appSetId
-        )
-        val net = RuntimeNetworkMeta(
-            ipPrefixed = "",
-            uaNormalized = "",
-            connType = RuntimeConnectionType.OTHER
-        )
+        val template = runtimeRequestTemplate()
         val contextMeta = RuntimeContextMeta(
-            orientation = determineOrientation(),
+            orientation = template.orientation,
             sessionDepth = sessionDepth.incrementAndGet()
         )
         val floorMicros = placementConfig.floorPrice
@@ -1188,15 +1542,49 @@ class MediationSDK private constructor(
             sellersJsonOk = null
         )
         return RuntimeRequestMeta(
-            requestId = java.util.UUID.randomUUID().toString(),
-            device = device,
-            user = user,
-            net = net,
+            requestId = RequestIds.traceId(),
+            device = template.device,
+            user = template.user,
+            net = template.net,
             context = contextMeta,
             auction = auction
         )
     }
 
+    private fun runtimeRequestTemplate(): RuntimeRequestTemplate {
+        val snapshot = RequestContext.current()
+        val state = consentState
+        runtimeRequestTemplate?.let { if (it.snapshot === snapshot && it.consentSource === state) return it }
+        val consent = ConsentManager.toRuntimeConsent(state)
+        val template = RuntimeRequestTemplate(
+            snapshot = snapshot,
+            consentSource = state,
+            device = RuntimeDeviceMeta(
+                os = "android",
+                osVersion = snapshot.osVersion,
+                model = snapshot.model
+            ),
+            user = RuntimeUserMeta(
+                ageRestricted = consent.coppa,
+                consent = consent,
+                advertisingId = consent.advertisingId?.takeIf { !consent.limitAdTracking },
+                appSetId = consent.appSetId
+            ),
+            net = RuntimeNetworkMeta(
+                ipPrefixed = "",
+                uaNormalized = "",
+                connType = when (snapshot.connectionType) {
+                    "wifi" -> RuntimeConnectionType.WIFI
+                    "cellular" -> RuntimeConnectionType.CELL
+                    else -> RuntimeConnectionType.OTHER
+                }
+            ),
+            orientation = determineOrientation()
+        )
+        runtimeRequestTemplate = template
+        return template
+    }
+
     private fun determineOrientation(): RuntimeOrientation {
         val orientation = context.resources?.configuration?.orientation
         return if (orientation == Configuration.ORIENTATION_LANDSCAPE) {
@@ -1297,21 +1685,35 @@ class MediationSDK private constructor(
         return meta
     }
 
+    /**
+     * Span metadata: the session-scoped part (strategy, mode flags, consent summary) is cached per
+     * strategy and sanitized once; only [extra] is added per span.
+     */
     private fun runtimeTelemetryMetadata(strategy: LoadStrategy, extra: Map<String, Any> = emptyMap()): Map<String, Any> {
         if (!config.observabilityEnabled) return emptyMap()
-        val meta = LinkedHashMap<String, Any>()
-        meta["strategy"] = strategy.tag
-        meta["sdk_mode"] = config.sdkMode.name.lowercase()
-        meta["test_mode"] = if (isTestModeEffective()) "1" else "0"
-        if (config.validationModeEnabled) meta["validation_mode"] = "1"
+        val base = spanMetadataBase().byStrategy.getValue(strategy)
+        return if (extra.isEmpty()) base else base + extra
+    }
+
+    private fun spanMetadataBase(): SpanMetadataBase {
+        val state = consentState
+        val testMode = isTestModeEffective()
+        spanMetadataBase?.let { if (it.consentSource === state && it.testMode == testMode) return it }
         // Attach redacted consent snapshot for adapter/runtime telemetry (no IDs or full strings).
-        ConsentManager.debugSummary(consentState).forEach { (k, v) ->
-            meta["consent_$k"] = v ?: "null"
+        val consent = LinkedHashMap<String, Any>()
+        ConsentManager.debugSummary(state).forEach { (k, v) ->
+            consent["consent_$k"] = v ?: "null"
         }
-        for ((k, v) in extra) {
-            meta[k] = v
+        val byStrategy = LoadStrategy.values().associateWith { strategy ->
+            val meta = LinkedHashMap<String, Any>()
+            meta["strategy"] = strategy.tag
+            meta["sdk_mode"] = config.sdkMode.name.lowercase()
+            meta["test_mode"] = if (testMode) "1" else "0"
+            if (config.validationModeEnabled) meta["validation_mode"] = "1"
+            meta.putAll(consent)
+            java.util.Collections.unmodifiableMap(TelemetryRedactor.sanitizeMetadata(meta))
         }
-        return meta
+        return SpanMetadataBase(state, testMode, byStrategy).also { spanMetadataBase = it }
     }
 
     private fun mapAuctionReasonToAdError(reason: String?): AdError {
@@ -1339,17 +1741,13 @@ class MediationSDK private constructor(
      * Shutdown SDK and cleanup resources
      */
     fun getCachedAd(placement: String): Ad? {
-        synchronized(adCache) {
-            pruneExpiredLocked()
-            return adCache[placement]?.ad
-        }
+        return adCache.peek(placement)
     }
 
     fun consumeCachedAd(placement: String): Ad? {
-        synchronized(adCache) {
-            pruneExpiredLocked()
-            return adCache.remove(placement)?.ad
-        }
+        val ad = adCache.poll(placement)
+        if (ad != null) maybeRefillInventory(placement)
+        return ad
     }
 
     /**
@@ -1381,6 +1779,11 @@ class MediationSDK private constructor(
     }
 
     fun shutdown() {
+        watchedMonitor?.removeListener(connectivityListener)
+        watchedMonitor = null
+        try { context.unregisterComponentCallbacks(configurationCallbacks) } catch (_: Throwable) {}
+        loadScope.cancel()
+        adapterScope.cancel()
         backgroundExecutor.execute {
             telemetry.stop()
             adapterRegistry.shutdown()
@@ -1426,6 +1829,17 @@ data class SDKConfig @JvmOverloads constructor(
     // Default to full sampling for telemetry (hosts can lower if needed).
     val observabilitySampleRate: Double = 1.0,
     val observabilityMaxQueue: Int = 500,
+    // What the telemetry queue drops once observabilityMaxQueue events are waiting.
+    val telemetryDropPolicy: TelemetryDropPolicy = TelemetryDropPolicy.DROP_OLDEST,
+    // Journal queued telemetry to disk so events survive a process kill between flushes.
+    val telemetryJournalEnabled: Boolean = true,
+    // Stop waiting for slower adapters once a bid clears the placement floor by this fraction
+    // (0.2 = floor * 1.2). Null disables early exit; placements without a floor never exit early.
+    val bidEarlyExitMargin: Double? = null,
+    // Ads kept ready per placement. Above 1, consumed or soon-to-expire slots are refilled in the background.
+    val adInventorySlots: Int = 1,
+    // Concurrent loads of one placement join the running load; TOP_UP may start another while slots are free.
+    val loadJoinPolicy: LoadJoinPolicy = LoadJoinPolicy.JOIN,
 ) {
     class Builder {
         private var appId: String = ""
@@ -1448,6 +1862,11 @@ data class SDKConfig @JvmOverloads constructor(
         private var observabilityEnabled: Boolean = true
         private var observabilitySampleRate: Double = 1.0
         private var observabilityMaxQueue: Int = 500
+        private var telemetryDropPolicy: TelemetryDropPolicy = TelemetryDropPolicy.DROP_OLDEST
+        private var telemetryJournalEnabled: Boolean = true
+        private var bidEarlyExitMargin: Double? = null
+        private var adInventorySlots: Int = 1
+        private var loadJoinPolicy: LoadJoinPolicy = LoadJoinPolicy.JOIN
         
         fun appId(id: String) = apply { this.appId = id }
         fun testMode(enabled: Boolean) = apply { this.testMode = enabled }
@@ -1470,6 +1889,11 @@ data class SDKConfig @JvmOverloads constructor(
         fun observabilityEnabled(enabled: Boolean) = apply { this.observabilityEnabled = enabled }
         fun observabilitySampleRate(rate: Double) = apply { this.observabilitySampleRate = rate }
         fun observabilityMaxQueue(max: Int) = apply { this.observabilityMaxQueue = max }
+        fun telemetryDropPolicy(policy: TelemetryDropPolicy) = apply { this.telemetryDropPolicy = policy }
+        fun telemetryJournalEnabled(enabled: Boolean) = apply { this.telemetryJournalEnabled = enabled }
+        fun bidEarlyExitMargin(margin: Double?) = apply { this.bidEarlyExitMargin = margin }
+        fun adInventorySlots(slots: Int) = apply { this.adInventorySlots = slots }
+        fun loadJoinPolicy(policy: LoadJoinPolicy) = apply { this.loadJoinPolicy = policy }
 
         fun build() = SDKConfig(
             appId = appId,
@@ -1492,6 +1916,11 @@ data class SDKConfig @JvmOverloads constructor(
             observabilityEnabled = observabilityEnabled,
             observabilitySampleRate = observabilitySampleRate,
             observabilityMaxQueue = observabilityMaxQueue,
+            telemetryDropPolicy = telemetryDropPolicy,
+            telemetryJournalEnabled = telemetryJournalEnabled,
+            bidEarlyExitMargin = bidEarlyExitMargin,
+            adInventorySlots = adInventorySlots,
+            loadJoinPolicy = loadJoinPolicy,
         )
 
         private fun strictModeEnvEnabled(): Boolean {
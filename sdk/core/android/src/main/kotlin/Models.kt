@@ -90,9 +90,29 @@ data class PlacementConfig(
     val maxWaitMs: Long = 5000,
     val floorPrice: Double = 0.0,
     val refreshInterval: Int? = null,
-    val targeting: Targeting = Targeting()
+    val targeting: Targeting = Targeting(),
+    // Null (the default) disables latency hedging for the placement.
+    val hedging: HedgePolicy? = null
 )
 
+/**
+ * Latency hedging for a placement: once a source has been outstanding for longer than its own
+ * p95 latency, a second request is fired and the first success wins.
+ */
+data class HedgePolicy(
+    val mode: HedgeMode = HedgeMode.OFF,
+    // Hedges allowed as a percentage of the placement's hedge-eligible requests.
+    val budgetPercent: Double = 5.0
+)
+
+enum class HedgeMode {
+    OFF,
+    // Re-issue the slow request to the same client adapter.
+    RETRY,
+    // Start the client adapter fan-out while a slow S2S auction is still outstanding.
+    NEXT_BEST
+}
+
 /**
  * Targeting parameters
  */
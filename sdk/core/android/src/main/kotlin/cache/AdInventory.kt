@@ -0,0 +1,198 @@
+package com.rivalapexmediation.sdk.cache
+
+import com.rivalapexmediation.sdk.models.Ad
+import com.rivalapexmediation.sdk.util.Clock
+import com.rivalapexmediation.sdk.util.ClockProvider
+import java.util.PriorityQueue
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * AdInventory - Per-placement multi-slot ad cache.
+ *
+ * Each placement holds up to [slotsPerPlacement] ads ordered best-first by eCPM, then by
+ * earliest expiry so that equally priced ads are used before they lapse. Expiry is tracked on
+ * the monotonic clock.
+ *
+ * A slot is "fresh" until [AdCacheTTL.shouldPrefetch] fires for it. [needsRefill] reports when
+ * fewer than [slotsPerPlacement] fresh slots remain, which the SDK uses to top up the
+ * inventory in the background. When a placement overflows, stale slots are evicted before
+ * fresh ones, then the lowest eCPM / oldest slot. The ad being put is never the victim: the
+ * caller delivers it right away, so with one slot the latest load always replaces the cached ad.
+ *
+ * Concurrency:
+ * - Each placement's slots are an immutable list behind a volatile field, so [peek], [count]
+ *   and [needsRefill] (polled from the UI thread via isAdReady) never take a lock.
+ * - Writers lock only their own placement.
+ * - Expiry is driven by a min-heap on expiryAtMs. Reads compare against a volatile
+ *   next-expiry watermark and only touch the heap once something is due, so pruning costs
+ *   O(expired log n) instead of a scan of every placement. Slots consumed or evicted before
+ *   they expire stay in the heap and are skipped when they surface (lazy deletion).
+ */
+class AdInventory(
+    val slotsPerPlacement: Int,
+    private val clockSource: () -> Clock = { ClockProvider.clock },
+    private val onEvicted: (Ad) -> Unit = {}
+) {
+    /**
+     * A cached ad and the timing needed to expire and prefetch it.
+     */
+    data class Slot(
+        val ad: Ad,
+        val expiryAtMs: Long,
+        val cachedAtMs: Long,
+        val refreshIntervalMs: Long,
+        val sequence: Long
+    ) {
+        fun isExpired(nowMs: Long): Boolean = nowMs >= expiryAtMs
+
+        fun isStale(nowMs: Long): Boolean =
+            isExpired(nowMs) || AdCacheTTL.shouldPrefetch(cachedAtMs, expiryAtMs - cachedAtMs, refreshIntervalMs, nowMs)
+    }
+
+    private class Shelf {
+        // Sorted best-first; replaced wholesale under synchronized(this).
+        @Volatile var slots: List<Slot> = emptyList()
+    }
+
+    private class ExpiryEntry(val placement: String, val slot: Slot)
+
+    private val shelves = ConcurrentHashMap<String, Shelf>()
+    private val sequence = AtomicLong(0)
+    private val indexLock = Any()
+    private val expiryIndex = PriorityQueue<ExpiryEntry>(16, compareBy { it.slot.expiryAtMs })
+    @Volatile private var nextExpiryAtMs = Long.MAX_VALUE
+
+    init {
+        require(slotsPerPlacement >= 1) { "slotsPerPlacement must be >= 1" }
+    }
+
+    /**
+     * Adds an ad to the placement's inventory, evicting one slot if the placement is full.
+     */
+    fun put(placement: String, ad: Ad, expiryAtMs: Long, refreshIntervalMs: Long) {
+        val now = clockSource().monotonicNow()
+        pruneIfDue(now)
+        val slot = Slot(ad, expiryAtMs, now, refreshIntervalMs, sequence.incrementAndGet())
+        val evicted = mutableListOf<Ad>()
+        val shelf = shelves.getOrPut(placement) { Shelf() }
+        synchronized(shelf) {
+            val next = ArrayList<Slot>(shelf.slots.size + 1)
+            // Expired slots dropped here stay in the index, which skips them by identity later.
+            shelf.slots.forEach { if (it.isExpired(now)) evicted += it.ad else next += it }
+            next += slot
+            while (next.size > slotsPerPlacement) {
+                val victim = next.filter { it !== slot }.minWithOrNull(evictionOrder(now)) ?: break
+                next.remove(victim)
+                evicted += victim.ad
+            }
+            next.sortWith(SHOW_ORDER)
+            shelf.slots = next
+        }
+        synchronized(indexLock) {
+            expiryIndex.add(ExpiryEntry(placement, slot))
+            nextExpiryAtMs = expiryIndex.peek()?.slot?.expiryAtMs ?: Long.MAX_VALUE
+        }
+        evicted.forEach(onEvicted)
+    }
+
+    /**
+     * Returns the best unexpired ad for the placement without removing it.
+     */
+    fun peek(placement: String): Ad? {
+        val now = clockSource().monotonicNow()
+        pruneIfDue(now)
+        return shelves[placement]?.slots?.firstOrNull { !it.isExpired(now) }?.ad
+    }
+
+    /**
+     * Removes and returns the best unexpired ad for the placement.
+     */
+    fun poll(placement: String): Ad? {
+        val now = clockSource().monotonicNow()
+        pruneIfDue(now)
+        val shelf = shelves[placement] ?: return null
+        synchronized(shelf) {
+            val slot = shelf.slots.firstOrNull { !it.isExpired(now) } ?: return null
+            shelf.slots = shelf.slots.filter { it !== slot }
+            return slot.ad
+        }
+    }
+
+    /**
+     * Number of unexpired ads held for the placement.
+     */
+    fun count(placement: String): Int {
+        val now = clockSource().monotonicNow()
+        pruneIfDue(now)
+        return shelves[placement]?.slots?.count { !it.isExpired(now) } ?: 0
+    }
+
+    /**
+     * True when the placement has fewer fresh (not yet in their prefetch window) slots than capacity.
+     */
+    fun needsRefill(placement: String): Boolean {
+        val now = clockSource().monotonicNow()
+        pruneIfDue(now)
+        val fresh = shelves[placement]?.slots?.count { !it.isStale(now) } ?: 0
+        return fresh < slotsPerPlacement
+    }
+
+    /**
+     * Drops expired ads across all placements.
+     */
+    fun pruneExpired() {
+        pruneIfDue(clockSource().monotonicNow())
+    }
+
+    /**
+     * Drops every cached ad without invoking the eviction callback.
+     */
+    fun clear() {
+        shelves.clear()
+        synchronized(indexLock) {
+            expiryIndex.clear()
+            nextExpiryAtMs = Long.MAX_VALUE
+        }
+    }
+
+    private fun pruneIfDue(now: Long) {
+        // Fast path: a single volatile read while nothing is due.
+        if (now < nextExpiryAtMs) return
+        val due = ArrayList<ExpiryEntry>()
+        synchronized(indexLock) {
+            while (true) {
+                val head = expiryIndex.peek() ?: break
+                if (head.slot.expiryAtMs > now) break
+                due += expiryIndex.poll()
+            }
+            nextExpiryAtMs = expiryIndex.peek()?.slot?.expiryAtMs ?: Long.MAX_VALUE
+        }
+        if (due.isEmpty()) return
+        val evicted = ArrayList<Ad>(due.size)
+        due.forEach { entry ->
+            val shelf = shelves[entry.placement] ?: return@forEach
+            synchronized(shelf) {
+                // Skip slots already consumed or evicted since they were indexed.
+                if (shelf.slots.any { it === entry.slot }) {
+                    shelf.slots = shelf.slots.filter { it !== entry.slot }
+                    evicted += entry.slot.ad
+                }
+            }
+        }
+        evicted.forEach(onEvicted)
+    }
+
+    private fun evictionOrder(now: Long): Comparator<Slot> =
+        compareByDescending<Slot> { it.isStale(now) }
+            .thenBy { it.ad.ecpm }
+            .thenBy { it.expiryAtMs }
+            .thenBy { it.sequence }
+
+    private companion object {
+        val SHOW_ORDER: Comparator<Slot> =
+            compareByDescending<Slot> { it.ad.ecpm }
+                .thenBy { it.expiryAtMs }
+                .thenBy { it.sequence }
+    }
+}
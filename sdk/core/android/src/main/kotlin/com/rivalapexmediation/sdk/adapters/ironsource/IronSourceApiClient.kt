@@ -3,29 +3,40 @@ package com.rivalapexmediation.sdk.adapters.ironsource
 import com.google.gson.Gson
 import com.rivalapexmediation.sdk.contract.AdapterError
 import com.rivalapexmediation.sdk.contract.ErrorCode
+import com.rivalapexmediation.sdk.network.HttpClientRegistry
 import okhttp3.HttpUrl
 import okhttp3.MediaType.Companion.toMediaType
 import okhttp3.OkHttpClient
 import okhttp3.Request
 import okhttp3.RequestBody.Companion.toRequestBody
 import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.TimeUnit
 
 internal class IronSourceApiClient(
     private val baseUrl: HttpUrl,
     private val secret: String,
     private val gson: Gson = Gson(),
-    private val httpClient: OkHttpClient = OkHttpClient.Builder()
-        .retryOnConnectionFailure(false)
-        .build()
+    private val httpClient: OkHttpClient? = null
 ) {
+    private val boundedClients = ConcurrentHashMap<Int, OkHttpClient>()
+
+    private fun clientFor(timeoutMs: Int): OkHttpClient {
+        val custom = httpClient ?: return HttpClientRegistry.client(
+            HttpClientRegistry.Profile.uniform(timeoutMs.toLong()).copy(followRedirects = true)
+        )
+        return boundedClients.getOrPut(timeoutMs) {
+            custom.newBuilder()
+                .callTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
+                .connectTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
+                .readTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
+                .writeTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
+                .build()
+        }
+    }
+
     fun loadBid(request: IronSourceBidRequest, timeoutMs: Int): IronSourceBidResponse {
-        val boundedClient = httpClient.newBuilder()
-            .callTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
-            .connectTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
-            .readTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
-            .writeTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
-            .build()
+        val boundedClient = clientFor(timeoutMs)
 
         val json = gson.toJson(request)
         val httpRequest = Request.Builder()
@@ -6,13 +6,13 @@ import com.rivalapexmediation.sdk.BuildConfig
 import com.rivalapexmediation.sdk.SDKConfig
 import com.rivalapexmediation.sdk.models.*
 import com.google.gson.Gson
+import com.rivalapexmediation.sdk.network.HttpClientRegistry
 import okhttp3.OkHttpClient
 import okhttp3.Request
 import com.rivalapexmediation.sdk.util.Clock
 import com.rivalapexmediation.sdk.util.ClockProvider
 import java.io.IOException
 import java.security.MessageDigest
-import java.util.concurrent.TimeUnit
 
 /**
  * Manages SDK configuration with caching and validation
@@ -35,10 +35,16 @@ class ConfigManager(
         Context.MODE_PRIVATE
     )
     
-    private val httpClient: OkHttpClient = client ?: OkHttpClient.Builder()
-        .connectTimeout(10, TimeUnit.SECONDS)
-        .readTimeout(10, TimeUnit.SECONDS)
-        .build()
+    private val httpClient: OkHttpClient = client ?: HttpClientRegistry.client(
+        HttpClientRegistry.Profile(
+            connectTimeoutMs = 10_000,
+            readTimeoutMs = 10_000,
+            writeTimeoutMs = 10_000,
+            callTimeoutMs = 0,
+            retryOnConnectionFailure = true,
+            followRedirects = true,
+        )
+    )
     
     private val gson = Gson()
     
@@ -0,0 +1,147 @@
+package com.rivalapex.sdk.mediation
+
+import com.rivalapexmediation.sdk.util.ClockProvider
+import java.util.concurrent.ConcurrentHashMap
+import kotlin.math.exp
+import kotlin.math.ln
+
+/**
+ * Composite key for fill-rate tracking. A null field means "any": `FillKey(adUnit, null)` is the
+ * ad unit across all sources. Hashing the fields avoids building an `"adUnit:source"` string per
+ * event.
+ */
+internal data class FillKey(val adUnitId: String?, val sourceId: String?)
+
+/**
+ * Sliding-window, time-decayed fill rates per [FillKey].
+ *
+ * Each key owns a fixed ring of [slices] buckets of [sliceMs] each, so the exact request/fill
+ * counts of the last `slices * sliceMs` are kept in constant memory; buckets are recycled as time
+ * advances instead of evicting individual events. Alongside, every key keeps exponentially
+ * decayed fill and request totals with half-life [halfLifeMs]; their ratio is kept current on
+ * every record, so [currentFillRate] is a map lookup and a volatile read. The number of keys is
+ * capped at [maxKeys]; the least recently updated key is dropped beyond that.
+ */
+internal class FillRateEngine(
+    private val sliceMs: Long = 60_000L,
+    private val slices: Int = 60,
+    private val halfLifeMs: Long = 10 * 60_000L,
+    private val maxKeys: Int = 1_000,
+    private val clock: () -> Long = { ClockProvider.clock.monotonicNow() }
+) {
+    /** Exact counts over the ring window plus the decayed rate. */
+    data class Snapshot(
+        val requests: Int,
+        val fills: Int,
+        val decayedFillRate: Float?
+    )
+
+    private val decayPerMs = ln(2.0) / halfLifeMs
+    private val windows = ConcurrentHashMap<FillKey, Window>()
+
+    fun record(key: FillKey, filled: Boolean) {
+        val window = windows.getOrPut(key) { Window() }
+        window.record(clock(), filled)
+        if (windows.size > maxKeys) evictStalest()
+    }
+
+    /**
+     * Decayed fill rate for [key], or null when the key is unknown or has been quiet for several
+     * half-lives.
+     */
+    fun currentFillRate(key: FillKey): Float? = windows[key]?.decayedRate()
+
+    fun snapshot(key: FillKey): Snapshot? = windows[key]?.snapshot(clock())
+
+    fun clear() {
+        windows.clear()
+    }
+
+    private fun evictStalest() {
+        val stalest = windows.entries.minByOrNull { it.value.lastUpdateMs } ?: return
+        windows.remove(stalest.key, stalest.value)
+    }
+
+    private inner class Window {
+        private val requests = IntArray(slices)
+        private val fills = IntArray(slices)
+        private var headSlice = Long.MIN_VALUE
+        private var windowRequests = 0
+        private var windowFills = 0
+        private var decayedRequests = 0.0
+        private var decayedFills = 0.0
+
+        @Volatile var lastUpdateMs = Long.MIN_VALUE
+            private set
+
+        // Written under the monitor, read without it by currentFillRate.
+        @Volatile private var rate: Float? = null
+
+        @Synchronized
+        fun record(now: Long, filled: Boolean) {
+            advance(now)
+            val slot = slotOf(headSlice)
+            requests[slot]++
+            windowRequests++
+            if (filled) {
+                fills[slot]++
+                windowFills++
+            }
+
+            // Concurrent callers may pass slightly out-of-order times; never grow the totals.
+            val factor = when {
+                lastUpdateMs == Long.MIN_VALUE -> 0.0
+                now > lastUpdateMs -> exp(-(now - lastUpdateMs) * decayPerMs)
+                else -> 1.0
+            }
+            decayedRequests = decayedRequests * factor + 1.0
+            decayedFills = decayedFills * factor + if (filled) 1.0 else 0.0
+            lastUpdateMs = maxOf(lastUpdateMs, now)
+            rate = (decayedFills / decayedRequests).toFloat()
+        }
+
+        // Both totals decay by the same factor, so the ratio only changes when events arrive;
+        // staleness is judged from the idle time instead.
+        fun decayedRate(): Float? {
+            val r = rate ?: return null
+            return if (clock() - lastUpdateMs > halfLifeMs * STALE_HALF_LIVES) null else r
+        }
+
+        @Synchronized
+        fun snapshot(now: Long): Snapshot {
+            advance(now)
+            return Snapshot(windowRequests, windowFills, decayedRate())
+        }
+
+        // Recycles the buckets that fell out of the window; at most [slices] steps per call.
+        private fun advance(now: Long) {
+            val slice = floorDiv(now, sliceMs)
+            if (headSlice == Long.MIN_VALUE || slice - headSlice >= slices) {
+                requests.fill(0)
+                fills.fill(0)
+                windowRequests = 0
+                windowFills = 0
+                headSlice = slice
+                return
+            }
+            while (headSlice < slice) {
+                headSlice++
+                val slot = slotOf(headSlice)
+                windowRequests -= requests[slot]
+                windowFills -= fills[slot]
+                requests[slot] = 0
+                fills[slot] = 0
+            }
+        }
+
+        private fun slotOf(slice: Long): Int = (((slice % slices) + slices) % slices).toInt()
+    }
+
+    private companion object {
+        // A key is reported as unknown once its newest event is this many half-lives old.
+        const val STALE_HALF_LIVES = 6
+
+        // Math.floorDiv needs API 24; monotonic time may be negative.
+        fun floorDiv(x: Long, y: Long): Long = if (x >= 0) x / y else -((-x + y - 1) / y)
+    }
+}
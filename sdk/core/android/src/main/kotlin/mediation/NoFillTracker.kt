@@ -1,7 +1,9 @@
 package com.rivalapex.sdk.mediation
 
+import com.rivalapexmediation.sdk.util.ClockProvider
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicIntegerArray
 import java.util.concurrent.atomic.AtomicLong
 
 /**
@@ -12,7 +14,7 @@ import java.util.concurrent.atomic.AtomicLong
  * - Fill rate calculation
  * - No-fill reason categorization
  * - Time-based analytics (hourly/daily patterns)
- * - Real-time fill rate monitoring
+ * - Real-time fill rate monitoring: time-decayed, O(1) [currentFillRate] over a sliding window
  */
 object NoFillTracker {
     
@@ -78,11 +80,20 @@ object NoFillTracker {
     
     private val adUnitStats = ConcurrentHashMap<String, FillStats>()
     private val sourceStats = ConcurrentHashMap<String, FillStats>()
-    private val combinedStats = ConcurrentHashMap<String, FillStats>() // "adUnit:source"
+    private val combinedStats = ConcurrentHashMap<FillKey, FillStats>()
     
-    private val hourlyBuckets = ConcurrentHashMap<Int, HourlyBucket>()
-    private val recentEvents = mutableListOf<NoFillEvent>()
+    // Recent outcomes per ad unit, per source and per pair; bounded in keys and time.
+    private val fillRates = FillRateEngine()
+    
+    // Requests and fills by UTC hour of day.
+    private val hourlyRequests = AtomicIntegerArray(24)
+    private val hourlyFills = AtomicIntegerArray(24)
+    
+    // Fixed ring of the latest no-fills, guarded by itself: the oldest is overwritten in place.
     private const val MAX_RECENT_EVENTS = 100
+    private val recentEvents = arrayOfNulls<NoFillEvent>(MAX_RECENT_EVENTS)
+    private var recentNext = 0
+    private var recentCount = 0
     
     private val listeners = mutableListOf<(NoFillEvent) -> Unit>()
     
@@ -118,15 +129,14 @@ object NoFillTracker {
             .getOrPut(reason) { AtomicInteger(0) }.incrementAndGet()
         getOrCreateStats(sourceStats, sourceId).reasonCounts
             .getOrPut(reason) { AtomicInteger(0) }.incrementAndGet()
-        getOrCreateStats(combinedStats, "$adUnitId:$sourceId").reasonCounts
+        combinedStats.getOrPut(FillKey(adUnitId, sourceId)) { FillStats() }.reasonCounts
             .getOrPut(reason) { AtomicInteger(0) }.incrementAndGet()
         
         // Store recent event
         synchronized(recentEvents) {
-            recentEvents.add(event)
-            if (recentEvents.size > MAX_RECENT_EVENTS) {
-                recentEvents.removeAt(0)
-            }
+            recentEvents[recentNext] = event
+            recentNext = (recentNext + 1) % MAX_RECENT_EVENTS
+            if (recentCount < MAX_RECENT_EVENTS) recentCount++
         }
         
         // Notify listeners
@@ -139,7 +149,7 @@ object NoFillTracker {
         latencyMs: Long,
         filled: Boolean
     ) {
-        val currentHour = (System.currentTimeMillis() / 3600000 % 24).toInt()
+        val currentHour = (ClockProvider.clock.now() / 3_600_000L % 24).toInt()
         
         // Update ad unit stats
         val adStats = getOrCreateStats(adUnitStats, adUnitId)
@@ -154,15 +164,19 @@ object NoFillTracker {
         if (filled) srcStats.fills.incrementAndGet() else srcStats.noFills.incrementAndGet()
         
         // Update combined stats
-        val combStats = getOrCreateStats(combinedStats, "$adUnitId:$sourceId")
+        val combStats = combinedStats.getOrPut(FillKey(adUnitId, sourceId)) { FillStats() }
         combStats.requests.incrementAndGet()
         combStats.totalLatencyMs.addAndGet(latencyMs)
         if (filled) combStats.fills.incrementAndGet() else combStats.noFills.incrementAndGet()
         
         // Update hourly bucket
-        val bucket = hourlyBuckets.getOrPut(currentHour) { HourlyBucket(currentHour) }
-        bucket.requests.incrementAndGet()
-        if (filled) bucket.fills.incrementAndGet()
+        hourlyRequests.incrementAndGet(currentHour)
+        if (filled) hourlyFills.incrementAndGet(currentHour)
+        
+        // Update recent fill rates
+        fillRates.record(FillKey(adUnitId, null), filled)
+        fillRates.record(FillKey(null, sourceId), filled)
+        fillRates.record(FillKey(adUnitId, sourceId), filled)
     }
     
     private fun getOrCreateStats(map: ConcurrentHashMap<String, FillStats>, key: String): FillStats =
@@ -182,7 +196,17 @@ object NoFillTracker {
      * Gets fill statistics for an ad unit and source combination.
      */
     fun getCombinedStats(adUnitId: String, sourceId: String): FillStats? =
-        combinedStats["$adUnitId:$sourceId"]
+        combinedStats[FillKey(adUnitId, sourceId)]
+    
+    /**
+     * Recent fill rate for an ad unit, a source, or the pair, in O(1). Outcomes are weighted by
+     * age (half-life of ten minutes), so this follows current demand rather than the session
+     * average in [FillStats.fillRate]. Null when nothing was recorded for the key recently.
+     */
+    fun currentFillRate(adUnitId: String? = null, sourceId: String? = null): Float? {
+        if (adUnitId == null && sourceId == null) return null
+        return fillRates.currentFillRate(FillKey(adUnitId, sourceId))
+    }
     
     /**
      * Gets overall fill rate across all ad units.
@@ -196,7 +220,11 @@ object NoFillTracker {
     /**
      * Gets fill rate for a specific hour (0-23).
      */
-    fun getHourlyFillRate(hour: Int): Float = hourlyBuckets[hour]?.fillRate ?: 0f
+    fun getHourlyFillRate(hour: Int): Float {
+        if (hour !in 0..23) return 0f
+        val requests = hourlyRequests.get(hour)
+        return if (requests > 0) hourlyFills.get(hour).toFloat() / requests else 0f
+    }
     
     /**
      * Gets hourly fill rate pattern for all hours.
@@ -225,7 +253,10 @@ object NoFillTracker {
      */
     fun getRecentNoFills(limit: Int = 10): List<NoFillEvent> =
         synchronized(recentEvents) {
-            recentEvents.takeLast(limit)
+            val n = minOf(limit, recentCount).coerceAtLeast(0)
+            List(n) { i ->
+                recentEvents[(recentNext - n + i + MAX_RECENT_EVENTS) % MAX_RECENT_EVENTS]!!
+            }
         }
     
     /**
@@ -263,9 +294,15 @@ object NoFillTracker {
         adUnitStats.clear()
         sourceStats.clear()
         combinedStats.clear()
-        hourlyBuckets.clear()
+        fillRates.clear()
+        for (hour in 0 until 24) {
+            hourlyRequests.set(hour, 0)
+            hourlyFills.set(hour, 0)
+        }
         synchronized(recentEvents) {
-            recentEvents.clear()
+            recentEvents.fill(null)
+            recentNext = 0
+            recentCount = 0
         }
     }
 }
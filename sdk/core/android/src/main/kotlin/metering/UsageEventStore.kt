@@ -0,0 +1,308 @@
+package com.rivalapexmediation.sdk.metering
+
+import java.io.BufferedOutputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.util.TreeMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.zip.CRC32
+
+/**
+ * Compact on-disk log of usage events that have not been reported yet, so metering survives a
+ * process kill.
+ *
+ * Every event is stored under the metering period it was counted in. Files are named
+ * `m-<generation>-<part>.bin`, where the generation is the period id offset past anything already
+ * on disk. A successful report [commit]s its period by deleting every file of that generation and
+ * older, so an event is never both reported and replayed. Records are length-prefixed binary
+ * (about 30 bytes plus dimension names) with a CRC32, so a torn tail from a crash is detected and
+ * skipped. Metadata maps are not persisted.
+ *
+ * [append] only enqueues. A low-priority thread writes whatever has accumulated every
+ * [writeDelayMs] and fsyncs once per batch. Past [maxBytes] the oldest files are dropped.
+ */
+internal class UsageEventStore(
+    private val directory: File,
+    private val segmentBytes: Long = DEFAULT_SEGMENT_BYTES,
+    private val maxBytes: Long = DEFAULT_MAX_BYTES,
+    private val writeDelayMs: Long = DEFAULT_WRITE_DELAY_MS,
+) {
+    companion object {
+        private const val DEFAULT_SEGMENT_BYTES = 64L * 1024
+        private const val DEFAULT_MAX_BYTES = 512L * 1024
+        private const val DEFAULT_WRITE_DELAY_MS = 500L
+        private const val MAX_RECORD_BYTES = 64 * 1024
+        private val FILE_NAME = Regex("^m-(\\d+)-(\\d+)\\.bin$")
+
+        private const val HAS_PLACEMENT = 1
+        private const val HAS_ADAPTER = 2
+        private const val HAS_FORMAT = 4
+        private const val HAS_REVENUE = 8
+        private const val HAS_LATENCY = 16
+
+        internal fun encode(event: UsageEvent): ByteArray {
+            val bytes = ByteArrayOutputStream(48)
+            DataOutputStream(bytes).use { out ->
+                var flags = 0
+                if (event.placementId != null) flags = flags or HAS_PLACEMENT
+                if (event.adapterId != null) flags = flags or HAS_ADAPTER
+                if (event.adFormat != null) flags = flags or HAS_FORMAT
+                if (event.revenueAmount != null) flags = flags or HAS_REVENUE
+                if (event.latencyMs != null) flags = flags or HAS_LATENCY
+                out.writeByte(event.type.ordinal)
+                out.writeByte(flags)
+                out.writeLong(event.timestamp)
+                event.placementId?.let { out.writeUTF(it) }
+                event.adapterId?.let { out.writeUTF(it) }
+                event.adFormat?.let { out.writeUTF(it) }
+                event.revenueAmount?.let { out.writeDouble(it) }
+                event.latencyMs?.let { out.writeLong(it) }
+            }
+            return bytes.toByteArray()
+        }
+
+        internal fun decode(record: ByteArray): UsageEvent? {
+            val input = DataInputStream(record.inputStream())
+            val type = UsageEventType.values().getOrNull(input.readUnsignedByte()) ?: return null
+            val flags = input.readUnsignedByte()
+            val timestamp = input.readLong()
+            return UsageEvent(
+                type = type,
+                timestamp = timestamp,
+                placementId = if (flags and HAS_PLACEMENT != 0) input.readUTF() else null,
+                adapterId = if (flags and HAS_ADAPTER != 0) input.readUTF() else null,
+                adFormat = if (flags and HAS_FORMAT != 0) input.readUTF() else null,
+                revenueAmount = if (flags and HAS_REVENUE != 0) input.readDouble() else null,
+                latencyMs = if (flags and HAS_LATENCY != 0) input.readLong() else null,
+            )
+        }
+    }
+
+    private data class SegmentId(val generation: Long, val part: Int) : Comparable<SegmentId> {
+        override fun compareTo(other: SegmentId): Int =
+            compareValuesBy(this, other, { it.generation }, { it.part })
+    }
+
+    private class Pending(val period: Long, val event: UsageEvent)
+
+    private val pending = ConcurrentLinkedQueue<Pending>()
+    private val writeScheduled = AtomicBoolean(false)
+    private val writer = Executors.newSingleThreadScheduledExecutor { r ->
+        Thread(r, "RivalApexMediation-UsageStore").apply {
+            priority = Thread.MIN_PRIORITY
+        }
+    }
+
+    // Only touched on the writer thread.
+    private val segments = TreeMap<SegmentId, Long>() // segment -> bytes on disk
+    private var base = 0L // generation of period 0 in this process
+    private var current: SegmentId? = null
+    private var currentOut: BufferedOutputStream? = null
+    private var currentFile: FileOutputStream? = null
+    private var opened = false
+
+    @Volatile private var closed = false
+
+    /**
+     * Replays stored events on the writer thread. [onRecovered] records them into the live
+     * period and returns that period's id; their files are then re-filed under it, so they are
+     * committed with the report that includes them.
+     */
+    fun open(onRecovered: (List<UsageEvent>) -> Long) {
+        submit {
+            if (!directory.isDirectory && !directory.mkdirs()) {
+                closed = true
+                pending.clear()
+                return@submit
+            }
+            directory.listFiles()?.forEach { file ->
+                val match = FILE_NAME.matchEntire(file.name) ?: return@forEach
+                val generation = match.groupValues[1].toLongOrNull() ?: return@forEach
+                val part = match.groupValues[2].toIntOrNull() ?: return@forEach
+                segments[SegmentId(generation, part)] = file.length()
+            }
+            base = (segments.lastEntry()?.key?.generation ?: -1L) + 1
+            if (segments.isNotEmpty()) {
+                val recovered = ArrayList<UsageEvent>()
+                segments.keys.forEach { readSegment(it, recovered) }
+                val period = if (recovered.isNotEmpty()) onRecovered(recovered) else null
+                if (period == null) {
+                    segments.keys.toList().forEach { deleteSegment(it) }
+                } else {
+                    refile(base + period)
+                }
+            }
+            opened = true
+            writePending()
+        }
+    }
+
+    /** Stores [event] as counted in metering period [period]. */
+    fun append(period: Long, event: UsageEvent) {
+        if (closed) return
+        pending.add(Pending(period, event))
+        if (writeScheduled.compareAndSet(false, true)) {
+            try {
+                writer.schedule({ writePending() }, writeDelayMs, TimeUnit.MILLISECONDS)
+            } catch (_: RejectedExecutionException) {
+                writeScheduled.set(false)
+            }
+        }
+    }
+
+    /** Deletes everything counted in [period] or earlier, once it was reported or discarded. */
+    fun commit(period: Long) {
+        submit {
+            if (!opened) return@submit
+            // Write first, so no record of this period is still queued when its files go.
+            writePending()
+            val cutoff = SegmentId(base + period, Int.MAX_VALUE)
+            segments.headMap(cutoff, true).keys.toList().forEach { deleteSegment(it) }
+        }
+    }
+
+    /** Writes what is pending now and waits for it to reach disk (bounded by [timeoutMs]). */
+    fun sync(timeoutMs: Long = 2_000) {
+        try {
+            writer.submit { writePending() }.get(timeoutMs, TimeUnit.MILLISECONDS)
+        } catch (_: Exception) {
+        }
+    }
+
+    /** Writes what is pending and stops the writer thread. */
+    fun close() {
+        closed = true
+        submit {
+            writePending()
+            closeCurrent()
+        }
+        writer.shutdown()
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS)
+        } catch (_: InterruptedException) {
+            writer.shutdownNow()
+        }
+    }
+
+    private fun submit(task: () -> Unit) {
+        try {
+            writer.execute(task)
+        } catch (_: RejectedExecutionException) {
+        }
+    }
+
+    private fun writePending() {
+        writeScheduled.set(false)
+        if (!opened || pending.isEmpty()) return
+        try {
+            while (true) {
+                val next = pending.poll() ?: break
+                val payload = encode(next.event)
+                val crc = CRC32().apply { update(payload) }
+                val size = 4L + payload.size + 4
+                val out = streamFor(base + next.period, size)
+                DataOutputStream(out).apply {
+                    writeInt(payload.size)
+                    write(payload)
+                    writeInt(crc.value.toInt())
+                }
+                val id = checkNotNull(current)
+                segments[id] = (segments[id] ?: 0L) + size
+            }
+            currentOut?.flush()
+            currentFile?.fd?.sync()
+        } catch (_: IOException) {
+            // Best effort: drop the broken stream; the next batch opens a new part.
+            closeCurrent()
+        }
+        enforceCap()
+    }
+
+    // Events of a period go to that generation's newest part; a new part starts when the
+    // generation changes (a swap raced this batch) or the part is full.
+    private fun streamFor(generation: Long, recordBytes: Long): BufferedOutputStream {
+        val open = current
+        val out = currentOut
+        if (open != null && out != null && open.generation == generation &&
+            (segments[open] ?: 0L) + recordBytes <= segmentBytes
+        ) {
+            return out
+        }
+        closeCurrent()
+        val last = segments.floorKey(SegmentId(generation, Int.MAX_VALUE))
+        val part = if (last != null && last.generation == generation) last.part + 1 else 0
+        val id = SegmentId(generation, part)
+        val file = FileOutputStream(segmentFile(id), true)
+        current = id
+        currentFile = file
+        segments[id] = 0L
+        return BufferedOutputStream(file).also { currentOut = it }
+    }
+
+    private fun closeCurrent() {
+        try {
+            currentOut?.flush()
+            currentFile?.fd?.sync()
+            currentOut?.close()
+        } catch (_: IOException) {
+        }
+        current = null
+        currentOut = null
+        currentFile = null
+    }
+
+    // Renames are atomic, so after a crash each record exists under exactly one name.
+    private fun refile(generation: Long) {
+        var part = 0
+        segments.keys.toList().forEach { id ->
+            val target = SegmentId(generation, part++)
+            val bytes = segments.remove(id) ?: 0L
+            if (segmentFile(id).renameTo(segmentFile(target))) segments[target] = bytes
+        }
+    }
+
+    private fun enforceCap() {
+        var total = segments.values.sum()
+        while (total > maxBytes && segments.size > 1) {
+            val oldest = segments.firstKey()
+            if (oldest == current) break
+            total -= segments[oldest] ?: 0L
+            deleteSegment(oldest)
+        }
+    }
+
+    private fun readSegment(id: SegmentId, into: MutableList<UsageEvent>) {
+        try {
+            DataInputStream(segmentFile(id).inputStream().buffered()).use { input ->
+                while (true) {
+                    val length = try { input.readInt() } catch (_: EOFException) { break }
+                    if (length <= 0 || length > MAX_RECORD_BYTES) break
+                    val payload = ByteArray(length)
+                    input.readFully(payload)
+                    val crc = input.readInt()
+                    if (CRC32().apply { update(payload) }.value.toInt() != crc) break
+                    decode(payload)?.let { into.add(it) }
+                }
+            }
+        } catch (_: IOException) {
+            // Torn tail: keep what was read before it.
+        }
+    }
+
+    private fun deleteSegment(id: SegmentId) {
+        if (id == current) closeCurrent()
+        segmentFile(id).delete()
+        segments.remove(id)
+    }
+
+    private fun segmentFile(id: SegmentId) = File(directory, "m-${id.generation}-${id.part}.bin")
+}
@@ -1,6 +1,11 @@
 package com.rivalapexmediation.sdk.metering
 
+import com.rivalapexmediation.sdk.util.EpochSwap
+import com.rivalapexmediation.sdk.util.LatencyHistogram
+import com.rivalapexmediation.sdk.util.StripedLong
+import com.rivalapexmediation.sdk.util.StripedMoney
 import kotlinx.coroutines.*
+import java.io.File
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.atomic.AtomicLong
 import kotlin.math.max
@@ -31,7 +36,8 @@ data class UsageEvent(
     val adapterId: String? = null,
     val adFormat: String? = null,
     val revenueAmount: Double? = null,
-    val metadata: Map<String, Any>? = null
+    val metadata: Map<String, Any>? = null,
+    val latencyMs: Long? = null
 )
 
 /**
@@ -49,7 +55,9 @@ data class UsageMetrics(
     val cacheMisses: Long,
     val errors: Long,
     val periodStart: Long,
-    val periodEnd: Long
+    val periodEnd: Long,
+    // p50/p95/p99 of request latency recorded in the period; empty without samples.
+    val latencyPercentilesMs: Map<String, Long> = emptyMap()
 )
 
 /**
@@ -69,7 +77,10 @@ data class MeteringConfig(
     val maxEventsBeforeFlush: Int = 1000,
     val enableLocalStorage: Boolean = true,
     val enableRemoteReporting: Boolean = true,
-    val samplingRate: Double = 1.0
+    val samplingRate: Double = 1.0,
+    // Where unreported events are persisted across process restarts (with enableLocalStorage);
+    // e.g. a directory under Context.getNoBackupFilesDir(). Null keeps them in memory only.
+    val storageDirectory: File? = null
 )
 
 /**
@@ -79,28 +90,6 @@ interface MeteringReporter {
     suspend fun report(metrics: UsageMetrics, breakdown: UsageBreakdown): Boolean
 }
 
-/**
- * Counter with atomic operations
- */
-private class AtomicDoubleCounter {
-    private val bits = AtomicLong(0)
-    
-    fun add(value: Double) {
-        while (true) {
-            val current = bits.get()
-            val currentVal = java.lang.Double.longBitsToDouble(current)
-            val next = java.lang.Double.doubleToRawLongBits(currentVal + value)
-            if (bits.compareAndSet(current, next)) break
-        }
-    }
-    
-    fun get(): Double = java.lang.Double.longBitsToDouble(bits.get())
-    
-    fun reset() {
-        bits.set(0)
-    }
-}
-
 /**
  * Usage metering for tracking billable events and generating reports
  */
@@ -109,30 +98,18 @@ class UsageMeter(
     private val reporter: MeteringReporter? = null,
     private val scope: CoroutineScope = CoroutineScope(Dispatchers.Default + SupervisorJob())
 ) {
-    // Global counters
-    private val adRequests = AtomicLong(0)
-    private val adImpressions = AtomicLong(0)
-    private val adClicks = AtomicLong(0)
-    private val videoStarts = AtomicLong(0)
-    private val videoCompletes = AtomicLong(0)
-    private val totalRevenue = AtomicDoubleCounter()
-    private val apiCalls = AtomicLong(0)
-    private val cacheHits = AtomicLong(0)
-    private val cacheMisses = AtomicLong(0)
-    private val errors = AtomicLong(0)
-    
-    // Dimensional breakdowns
-    private val placementMetrics = ConcurrentHashMap<String, DimensionMetrics>()
-    private val adapterMetrics = ConcurrentHashMap<String, DimensionMetrics>()
-    private val formatMetrics = ConcurrentHashMap<String, DimensionMetrics>()
+    // Counters for the current period. Recording threads write through the epoch gate, so a
+    // reset swaps the whole period out without losing or double-counting concurrent events.
+    private val periodIds = AtomicLong(0)
+    private val periods = EpochSwap { Period(periodIds.getAndIncrement(), System.currentTimeMillis()) }
+    // Request latency over all completed periods; the current one is merged in on read.
+    private val sessionLatency = LatencyHistogram()
     
     // Pending events
     private val pendingEvents = mutableListOf<UsageEvent>()
     private val eventsLock = Object()
-    
-    // Period tracking
-    @Volatile
-    private var periodStart = System.currentTimeMillis()
+    private val store: UsageEventStore? =
+        config.storageDirectory?.takeIf { config.enableLocalStorage }?.let { UsageEventStore(it) }
     
     // Flush job
     private var flushJob: Job? = null
@@ -142,43 +119,105 @@ class UsageMeter(
      * Dimension-specific metrics
      */
     private class DimensionMetrics {
-        val adRequests = AtomicLong(0)
-        val adImpressions = AtomicLong(0)
-        val adClicks = AtomicLong(0)
-        val videoStarts = AtomicLong(0)
-        val videoCompletes = AtomicLong(0)
-        val totalRevenue = AtomicDoubleCounter()
-        val apiCalls = AtomicLong(0)
-        val cacheHits = AtomicLong(0)
-        val cacheMisses = AtomicLong(0)
-        val errors = AtomicLong(0)
+        val adRequests = StripedLong()
+        val adImpressions = StripedLong()
+        val adClicks = StripedLong()
+        val videoStarts = StripedLong()
+        val videoCompletes = StripedLong()
+        val totalRevenue = StripedMoney()
+        val apiCalls = StripedLong()
+        val cacheHits = StripedLong()
+        val cacheMisses = StripedLong()
+        val errors = StripedLong()
+        val latency = LatencyHistogram()
+        
+        fun update(event: UsageEvent) {
+            when (event.type) {
+                UsageEventType.AD_REQUEST -> adRequests.increment()
+                UsageEventType.AD_IMPRESSION -> adImpressions.increment()
+                UsageEventType.AD_CLICK -> adClicks.increment()
+                UsageEventType.AD_VIDEO_START -> videoStarts.increment()
+                UsageEventType.AD_VIDEO_COMPLETE -> videoCompletes.increment()
+                UsageEventType.AD_REVENUE -> event.revenueAmount?.let { totalRevenue.add(it) }
+                UsageEventType.API_CALL -> apiCalls.increment()
+                UsageEventType.CACHE_HIT -> cacheHits.increment()
+                UsageEventType.CACHE_MISS -> cacheMisses.increment()
+                UsageEventType.ERROR -> errors.increment()
+            }
+            event.latencyMs?.let { latency.record(it) }
+        }
+        
+        /** Adds everything in [other], which must no longer be written to. */
+        fun absorb(other: DimensionMetrics) {
+            adRequests.add(other.adRequests.sum())
+            adImpressions.add(other.adImpressions.sum())
+            adClicks.add(other.adClicks.sum())
+            videoStarts.add(other.videoStarts.sum())
+            videoCompletes.add(other.videoCompletes.sum())
+            totalRevenue.addMicros(other.totalRevenue.sumMicros())
+            apiCalls.add(other.apiCalls.sum())
+            cacheHits.add(other.cacheHits.sum())
+            cacheMisses.add(other.cacheMisses.sum())
+            errors.add(other.errors.sum())
+            latency.merge(other.latency.snapshot())
+        }
         
         fun toMetrics(periodStart: Long, periodEnd: Long) = UsageMetrics(
-            adRequests = adRequests.get(),
-            adImpressions = adImpressions.get(),
-            adClicks = adClicks.get(),
-            videoStarts = videoStarts.get(),
-            videoCompletes = videoCompletes.get(),
-            totalRevenue = totalRevenue.get(),
-            apiCalls = apiCalls.get(),
-            cacheHits = cacheHits.get(),
-            cacheMisses = cacheMisses.get(),
-            errors = errors.get(),
+            adRequests = adRequests.sum(),
+            adImpressions = adImpressions.sum(),
+            adClicks = adClicks.sum(),
+            videoStarts = videoStarts.sum(),
+            videoCompletes = videoCompletes.sum(),
+            totalRevenue = totalRevenue.sum(),
+            apiCalls = apiCalls.sum(),
+            cacheHits = cacheHits.sum(),
+            cacheMisses = cacheMisses.sum(),
+            errors = errors.sum(),
             periodStart = periodStart,
-            periodEnd = periodEnd
+            periodEnd = periodEnd,
+            latencyPercentilesMs = latency.snapshot().percentileMap()
         )
+    }
+    
+    /**
+     * Everything recorded between two resets
+     */
+    private class Period(val id: Long, @Volatile var start: Long) {
+        val totals = DimensionMetrics()
+        val byPlacement = ConcurrentHashMap<String, DimensionMetrics>()
+        val byAdapter = ConcurrentHashMap<String, DimensionMetrics>()
+        val byFormat = ConcurrentHashMap<String, DimensionMetrics>()
         
-        fun reset() {
-            adRequests.set(0)
-            adImpressions.set(0)
-            adClicks.set(0)
-            videoStarts.set(0)
-            videoCompletes.set(0)
-            totalRevenue.reset()
-            apiCalls.set(0)
-            cacheHits.set(0)
-            cacheMisses.set(0)
-            errors.set(0)
+        fun record(event: UsageEvent) {
+            totals.update(event)
+            event.placementId?.let { byPlacement.getOrPut(it) { DimensionMetrics() }.update(event) }
+            event.adapterId?.let { byAdapter.getOrPut(it) { DimensionMetrics() }.update(event) }
+            event.adFormat?.let { byFormat.getOrPut(it) { DimensionMetrics() }.update(event) }
+        }
+        
+        /** Folds an unreported earlier period back in; the merged period starts at the older start. */
+        fun absorb(other: Period) {
+            start = minOf(start, other.start)
+            totals.absorb(other.totals)
+            other.byPlacement.forEach { (k, v) -> byPlacement.getOrPut(k) { DimensionMetrics() }.absorb(v) }
+            other.byAdapter.forEach { (k, v) -> byAdapter.getOrPut(k) { DimensionMetrics() }.absorb(v) }
+            other.byFormat.forEach { (k, v) -> byFormat.getOrPut(k) { DimensionMetrics() }.absorb(v) }
+        }
+        
+        fun breakdown(periodEnd: Long) = UsageBreakdown(
+            byPlacement = byPlacement.mapValues { it.value.toMetrics(start, periodEnd) },
+            byAdapter = byAdapter.mapValues { it.value.toMetrics(start, periodEnd) },
+            byAdFormat = byFormat.mapValues { it.value.toMetrics(start, periodEnd) }
+        )
+    }
+    
+    init {
+        // Events left unreported by a previous process count towards the current period.
+        store?.open { recovered ->
+            periods.record { period ->
+                recovered.forEach { period.record(it) }
+                period.id
+            }
         }
     }
     
@@ -188,7 +227,7 @@ class UsageMeter(
     fun start() {
         if (isRunning) return
         isRunning = true
-        periodStart = System.currentTimeMillis()
+        periods.peek().start = System.currentTimeMillis()
         
         flushJob = scope.launch {
             while (isActive && isRunning) {
@@ -207,6 +246,15 @@ class UsageMeter(
         flushJob = null
     }
     
+    /**
+     * Stop the service and write unreported events to disk; blocks briefly, so call it off the
+     * main thread. The meter must not be used afterwards.
+     */
+    fun close() {
+        stop()
+        store?.close()
+    }
+    
     /**
      * Record a usage event
      */
@@ -216,23 +264,9 @@ class UsageMeter(
             return
         }
         
-        // Update global counters
-        updateCounters(event)
-        
-        // Update dimensional breakdowns
-        event.placementId?.let { placementId ->
-            val metrics = placementMetrics.getOrPut(placementId) { DimensionMetrics() }
-            updateDimensionMetrics(metrics, event)
-        }
-        
-        event.adapterId?.let { adapterId ->
-            val metrics = adapterMetrics.getOrPut(adapterId) { DimensionMetrics() }
-            updateDimensionMetrics(metrics, event)
-        }
-        
-        event.adFormat?.let { format ->
-            val metrics = formatMetrics.getOrPut(format) { DimensionMetrics() }
-            updateDimensionMetrics(metrics, event)
+        periods.record { period ->
+            period.record(event)
+            store?.append(period.id, event)
         }
         
         // Queue event for detailed storage
@@ -246,51 +280,16 @@ class UsageMeter(
         }
     }
     
-    /**
-     * Update global counters
-     */
-    private fun updateCounters(event: UsageEvent) {
-        when (event.type) {
-            UsageEventType.AD_REQUEST -> adRequests.incrementAndGet()
-            UsageEventType.AD_IMPRESSION -> adImpressions.incrementAndGet()
-            UsageEventType.AD_CLICK -> adClicks.incrementAndGet()
-            UsageEventType.AD_VIDEO_START -> videoStarts.incrementAndGet()
-            UsageEventType.AD_VIDEO_COMPLETE -> videoCompletes.incrementAndGet()
-            UsageEventType.AD_REVENUE -> event.revenueAmount?.let { totalRevenue.add(it) }
-            UsageEventType.API_CALL -> apiCalls.incrementAndGet()
-            UsageEventType.CACHE_HIT -> cacheHits.incrementAndGet()
-            UsageEventType.CACHE_MISS -> cacheMisses.incrementAndGet()
-            UsageEventType.ERROR -> errors.incrementAndGet()
-        }
-    }
-    
-    /**
-     * Update dimension-specific metrics
-     */
-    private fun updateDimensionMetrics(metrics: DimensionMetrics, event: UsageEvent) {
-        when (event.type) {
-            UsageEventType.AD_REQUEST -> metrics.adRequests.incrementAndGet()
-            UsageEventType.AD_IMPRESSION -> metrics.adImpressions.incrementAndGet()
-            UsageEventType.AD_CLICK -> metrics.adClicks.incrementAndGet()
-            UsageEventType.AD_VIDEO_START -> metrics.videoStarts.incrementAndGet()
-            UsageEventType.AD_VIDEO_COMPLETE -> metrics.videoCompletes.incrementAndGet()
-            UsageEventType.AD_REVENUE -> event.revenueAmount?.let { metrics.totalRevenue.add(it) }
-            UsageEventType.API_CALL -> metrics.apiCalls.incrementAndGet()
-            UsageEventType.CACHE_HIT -> metrics.cacheHits.incrementAndGet()
-            UsageEventType.CACHE_MISS -> metrics.cacheMisses.incrementAndGet()
-            UsageEventType.ERROR -> metrics.errors.incrementAndGet()
-        }
-    }
-    
     /**
      * Convenience methods for recording events
      */
-    fun recordRequest(placementId: String, adapterId: String? = null, adFormat: String? = null) {
+    fun recordRequest(placementId: String, adapterId: String? = null, adFormat: String? = null, latencyMs: Long? = null) {
         record(UsageEvent(
             type = UsageEventType.AD_REQUEST,
             placementId = placementId,
             adapterId = adapterId,
-            adFormat = adFormat
+            adFormat = adFormat,
+            latencyMs = latencyMs
         ))
     }
     
@@ -365,125 +364,122 @@ class UsageMeter(
      * Get current metrics snapshot
      */
     fun getMetrics(): UsageMetrics {
-        val now = System.currentTimeMillis()
-        return UsageMetrics(
-            adRequests = adRequests.get(),
-            adImpressions = adImpressions.get(),
-            adClicks = adClicks.get(),
-            videoStarts = videoStarts.get(),
-            videoCompletes = videoCompletes.get(),
-            totalRevenue = totalRevenue.get(),
-            apiCalls = apiCalls.get(),
-            cacheHits = cacheHits.get(),
-            cacheMisses = cacheMisses.get(),
-            errors = errors.get(),
-            periodStart = periodStart,
-            periodEnd = now
-        )
+        val period = periods.peek()
+        return period.totals.toMetrics(period.start, System.currentTimeMillis())
     }
+
+    /**
+     * Request latency percentiles over the whole session (all periods, including the current one).
+     */
+    fun getSessionLatencyPercentiles(): Map<String, Long> =
+        sessionLatency.snapshot().merge(periods.peek().totals.latency.snapshot()).percentileMap()
     
     /**
      * Get breakdown by dimensions
      */
-    fun getBreakdown(): UsageBreakdown {
-        val now = System.currentTimeMillis()
-        
-        return UsageBreakdown(
-            byPlacement = placementMetrics.mapValues { it.value.toMetrics(periodStart, now) },
-            byAdapter = adapterMetrics.mapValues { it.value.toMetrics(periodStart, now) },
-            byAdFormat = formatMetrics.mapValues { it.value.toMetrics(periodStart, now) }
-        )
-    }
+    fun getBreakdown(): UsageBreakdown = periods.peek().breakdown(System.currentTimeMillis())
     
     /**
      * Get click-through rate
      */
     fun getCTR(): Double {
-        val impressions = adImpressions.get()
+        val totals = periods.peek().totals
+        val impressions = totals.adImpressions.sum()
         if (impressions == 0L) return 0.0
-        return adClicks.get().toDouble() / impressions.toDouble()
+        return totals.adClicks.sum().toDouble() / impressions.toDouble()
     }
     
     /**
      * Get fill rate
      */
     fun getFillRate(): Double {
-        val requests = adRequests.get()
+        val totals = periods.peek().totals
+        val requests = totals.adRequests.sum()
         if (requests == 0L) return 0.0
-        return adImpressions.get().toDouble() / requests.toDouble()
+        return totals.adImpressions.sum().toDouble() / requests.toDouble()
     }
     
     /**
      * Get video completion rate
      */
     fun getVideoCompletionRate(): Double {
-        val starts = videoStarts.get()
+        val totals = periods.peek().totals
+        val starts = totals.videoStarts.sum()
         if (starts == 0L) return 0.0
-        return videoCompletes.get().toDouble() / starts.toDouble()
+        return totals.videoCompletes.sum().toDouble() / starts.toDouble()
     }
     
     /**
      * Get cache hit rate
      */
     fun getCacheHitRate(): Double {
-        val total = cacheHits.get() + cacheMisses.get()
+        val totals = periods.peek().totals
+        val hits = totals.cacheHits.sum()
+        val total = hits + totals.cacheMisses.sum()
         if (total == 0L) return 0.0
-        return cacheHits.get().toDouble() / total.toDouble()
+        return hits.toDouble() / total.toDouble()
     }
     
     /**
      * Get effective CPM
      */
     fun getEffectiveCPM(): Double {
-        val impressions = adImpressions.get()
+        val totals = periods.peek().totals
+        val impressions = totals.adImpressions.sum()
         if (impressions == 0L) return 0.0
-        return (totalRevenue.get() / impressions.toDouble()) * 1000.0
+        return (totals.totalRevenue.sum() / impressions.toDouble()) * 1000.0
     }
     
     /**
-     * Flush metrics to reporter
+     * Flush metrics to reporter.
+     *
+     * The current period is swapped out first and reported as a delta, so events recorded while
+     * the report is in flight count towards the next one. A failed report is merged back into
+     * the live period and retried with the next flush.
      */
     suspend fun flush(): Boolean {
         if (!config.enableRemoteReporting || reporter == null) return true
         
-        val metrics = getMetrics()
-        val breakdown = getBreakdown()
+        val completed: Period
+        val flushedEvents: Int
+        synchronized(eventsLock) {
+            completed = periods.swap()
+            flushedEvents = pendingEvents.size
+        }
+        val now = System.currentTimeMillis()
         
-        return try {
-            val success = reporter.report(metrics, breakdown)
-            if (success) {
-                reset()
-            }
-            success
+        val success = try {
+            reporter.report(completed.totals.toMetrics(completed.start, now), completed.breakdown(now))
+        } catch (e: CancellationException) {
+            periods.record { it.absorb(completed) }
+            throw e
         } catch (e: Exception) {
             false
         }
+        if (success) {
+            sessionLatency.merge(completed.totals.latency.snapshot())
+            store?.commit(completed.id)
+            synchronized(eventsLock) {
+                pendingEvents.subList(0, minOf(flushedEvents, pendingEvents.size)).clear()
+            }
+        } else {
+            periods.record { it.absorb(completed) }
+        }
+        return success
     }
     
     /**
      * Reset all counters
      */
     fun reset() {
-        adRequests.set(0)
-        adImpressions.set(0)
-        adClicks.set(0)
-        videoStarts.set(0)
-        videoCompletes.set(0)
-        totalRevenue.reset()
-        apiCalls.set(0)
-        cacheHits.set(0)
-        cacheMisses.set(0)
-        errors.set(0)
-        
-        placementMetrics.values.forEach { it.reset() }
-        adapterMetrics.values.forEach { it.reset() }
-        formatMetrics.values.forEach { it.reset() }
+        // The swapped-out period is quiescent, so its latency merges into the session exactly once.
+        val completed = periods.swap()
+        sessionLatency.merge(completed.totals.latency.snapshot())
+        store?.commit(completed.id)
         
         synchronized(eventsLock) {
             pendingEvents.clear()
         }
-        
-        periodStart = System.currentTimeMillis()
     }
     
     /**
@@ -559,6 +555,10 @@ class UsageMeterBuilder {
         config = config.copy(enableRemoteReporting = enabled)
     }
     
+    fun storageDirectory(directory: File?) = apply {
+        config = config.copy(storageDirectory = directory)
+    }
+    
     fun build(): UsageMeter {
         return UsageMeter(
             config = config,
@@ -6,19 +6,33 @@ import com.google.gson.Gson
 import com.rivalapexmediation.sdk.threading.CircuitBreaker
 import com.rivalapexmediation.sdk.util.Clock
 import com.rivalapexmediation.sdk.util.ClockProvider
-import okhttp3.ConnectionPool
+import com.rivalapexmediation.sdk.util.RequestIds
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.suspendCancellableCoroutine
+import okhttp3.Call
+import okhttp3.Callback
+import okhttp3.HttpUrl.Companion.toHttpUrlOrNull
 import okhttp3.MediaType.Companion.toMediaType
 import okhttp3.OkHttpClient
 import okhttp3.Protocol
 import okhttp3.Request
 import okhttp3.RequestBody.Companion.toRequestBody
+import okhttp3.Response
+import java.io.IOException
 import java.io.InterruptedIOException
+import java.io.Reader
+import java.io.StringReader
 import java.net.SocketTimeoutException
-import java.text.SimpleDateFormat
 import java.util.Locale
-import java.util.TimeZone
 import java.util.concurrent.CancellationException
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
 import kotlin.math.min
 
 /**
@@ -37,23 +51,32 @@ class AuctionClient(
     },
     private val clock: Clock = ClockProvider.clock,
     private val latencyRecorder: ((Long, String) -> Unit)? = null,
+    private val certificatePins: Map<String, List<String>> = emptyMap(),
+    // Invoked once, for this client's first auction: (reused pooled connection, protocol).
+    private val firstConnectionRecorder: ((Boolean, String) -> Unit)? = null,
+    // Link round trip (ms) measured on the HEAD /health warm-up: request sent to response
+    // headers. Auctions are never sampled, since their time to headers includes the server's
+    // auction, which is bounded by the timeout_ms that this sample helps choose.
+    private val rttRecorder: ((Long) -> Unit)? = null,
 ) {
     private val gson = Gson()
     private val base = baseUrl.trimEnd('/')
-    private val client: OkHttpClient = (httpClient ?: OkHttpClient()).newBuilder()
-        .connectionPool(ConnectionPool(5, 5, TimeUnit.MINUTES))
-        .connectTimeout(2, TimeUnit.SECONDS)
-        .readTimeout(5, TimeUnit.SECONDS)
-        .writeTimeout(5, TimeUnit.SECONDS)
-        .callTimeout(6, TimeUnit.SECONDS)
-        .retryOnConnectionFailure(false)
-        .followRedirects(false)
-        .followSslRedirects(false)
-        .protocols(listOf(Protocol.HTTP_2, Protocol.HTTP_1_1))
-        .build()
+    // Injected clients (tests, hosts with their own stack) keep their pool; otherwise every
+    // per-timeout client comes from the SDK-wide registry and shares its pool and DNS cache.
+    private val customClient: OkHttpClient? = httpClient?.newBuilder()
+        ?.retryOnConnectionFailure(false)
+        ?.followRedirects(false)
+        ?.followSslRedirects(false)
+        ?.protocols(listOf(Protocol.HTTP_2, Protocol.HTTP_1_1))
+        ?.build()
+    private val customClientsByTimeout = ConcurrentHashMap<Int, OkHttpClient>()
+    private val firstAuctionProbed = AtomicBoolean(false)
     private val circuitBreaker = circuitBreakerFactory()
     private val maxAttempts = 3
     private val initialBackoffMs = 120L
+    // A retry is only worth sending if at least this much of the deadline remains.
+    private val minAttemptMs = 50L
+    private val hostKey: String = base.toHttpUrlOrNull()?.let { "${it.host}:${it.port}" } ?: base
 
     private fun buildUserAgent(): String {
     val sdkVersion = try { com.rivalapexmediation.sdk.BuildConfig.SDK_VERSION } catch (_: Throwable) { "0.0.0" }
@@ -93,32 +116,122 @@ class AuctionClient(
         val currency: String,
         val creativeId: String?,
         val adMarkup: String?,
+        @Deprecated("Always null: auction responses are decoded straight into the typed fields above.")
         val raw: Map<String, Any?>? = null,
     )
 
+    /**
+     * One placement within a batched auction request.
+     */
+    data class BatchPlacement(
+        val placementId: String,
+        val adType: String = "interstitial",
+        val floorCpm: Double? = null,
+        val adapters: List<String>? = null,
+        val metadata: Map<String, String> = emptyMap(),
+    )
+
+    data class BatchOptions(
+        val publisherId: String,
+        val placements: List<BatchPlacement>,
+        val metadata: Map<String, String> = emptyMap(),
+        val timeoutMs: Int = 800,
+        val auctionType: String = "header_bidding",
+    )
+
+    /**
+     * Per-placement result of a batched auction: exactly one of [result] or [error] is set.
+     */
+    data class BatchOutcome(
+        val placementId: String,
+        val result: InterstitialResult? = null,
+        val error: AuctionException? = null,
+    ) {
+        val isSuccess: Boolean
+            get() = result != null
+    }
+
     class AuctionException(val reason: String, override val message: String? = null): Exception(message ?: reason)
 
     /**
      * Requests an interstitial auction synchronously. Throws AuctionException on no-bid or errors.
-     * Timeouts are enforced per-call using OkHttp callTimeout/readTimeout based on options.timeoutMs.
+     * Blocks the caller until [awaitInterstitial] completes; prefer that from coroutines.
      */
     fun requestInterstitial(opts: InterstitialOptions, consent: ConsentOptions? = null): InterstitialResult {
-        val startMs = clock.monotonicNow()
         if (isOnMainThread()) {
             throw AuctionException("main_thread", "AuctionClient called from main thread")
         }
+        return runBlocking { awaitInterstitial(opts, consent) }
+    }
+
+    /**
+     * Suspending form of [requestInterstitial]. No thread is held while a request is in flight or
+     * between retries, and all attempts together stay within options.timeoutMs.
+     */
+    suspend fun awaitInterstitial(opts: InterstitialOptions, consent: ConsentOptions? = null): InterstitialResult {
+        val startMs = clock.monotonicNow()
         if (opts.publisherId.isBlank() || opts.placementId.isBlank()) {
             throw AuctionException("invalid_placement", "publisherId/placementId required")
         }
-        val outcome = circuitBreaker.execute(
+        checkHostCooldown()
+        return executeGuarded(startMs) { performRequestWithRetries(opts, consent) }
+    }
+
+    /**
+     * Runs several placement auctions in one round trip and demultiplexes the response.
+     *
+     * Request-level failures (timeout, network_error, status_XXX, rate_limited, circuit_open) are
+     * thrown as AuctionException, exactly as for [requestInterstitial], and count once against
+     * the circuit breaker. Per-placement failures such as no_fill are reported in the returned
+     * map and do not trip the breaker. Every requested placement has an entry in the result.
+     */
+    fun requestBatch(opts: BatchOptions, consent: ConsentOptions? = null): Map<String, BatchOutcome> {
+        if (isOnMainThread()) {
+            throw AuctionException("main_thread", "AuctionClient called from main thread")
+        }
+        return runBlocking { awaitBatch(opts, consent) }
+    }
+
+    /**
+     * Suspending form of [requestBatch]; same threading and deadline rules as [awaitInterstitial].
+     */
+    suspend fun awaitBatch(opts: BatchOptions, consent: ConsentOptions? = null): Map<String, BatchOutcome> {
+        val startMs = clock.monotonicNow()
+        val placements = opts.placements.distinctBy { it.placementId }
+        if (opts.publisherId.isBlank() || placements.isEmpty() || placements.any { it.placementId.isBlank() }) {
+            throw AuctionException("invalid_placement", "publisherId and placementIds required")
+        }
+        checkHostCooldown()
+        val outcomes = try {
+            executeGuarded(startMs) { performBatchRequestWithRetries(opts, placements, consent) }
+        } catch (ae: AuctionException) {
+            if (ae.reason != "no_fill") throw ae
+            emptyMap()
+        }
+        return placements.associate { placement ->
+            placement.placementId to (outcomes[placement.placementId]
+                ?: BatchOutcome(placement.placementId, error = AuctionException("no_fill")))
+        }
+    }
+
+    // Fail fast, without touching the network or the breaker, while the host's Retry-After runs.
+    private fun checkHostCooldown() {
+        val remaining = HostCooldowns.remainingMs(hostKey, clock.monotonicNow())
+        if (remaining > 0) {
+            throw AuctionException("rate_limited", "host cooling down; retry_after_ms=$remaining")
+        }
+    }
+
+    private suspend fun <T : Any> executeGuarded(startMs: Long, action: suspend () -> T): T {
+        val outcome = circuitBreaker.executeSuspend(
             action = {
                 try {
-                    RequestOutcome.Success(performRequestWithRetries(opts, consent))
+                    RequestOutcome.Success(action())
                 } catch (ae: AuctionException) {
                     if (shouldTripCircuit(ae.reason)) {
                         throw ae
                     }
-                    RequestOutcome.Error(ae)
+                    RequestOutcome.Error<T>(ae)
                 }
             },
             classifySuccess = { result ->
@@ -138,82 +251,165 @@ class AuctionClient(
         return result
     }
 
-    private fun performRequestWithRetries(
+    private suspend fun performRequestWithRetries(
         opts: InterstitialOptions,
         consent: ConsentOptions?
     ): InterstitialResult {
-        val timeout = opts.timeoutMs.coerceAtLeast(100)
-        val callClient = client.newBuilder()
-            .callTimeout(timeout.toLong(), TimeUnit.MILLISECONDS)
-            .connectTimeout(timeout.toLong(), TimeUnit.MILLISECONDS)
-            .readTimeout(timeout.toLong(), TimeUnit.MILLISECONDS)
-            .writeTimeout(timeout.toLong(), TimeUnit.MILLISECONDS)
-            .build()
+        val req = buildPostRequest("$base/v1/auction", buildRequestBody(opts, consent))
+        return executeWithRetries(req, opts.timeoutMs) { body ->
+            val winner = AuctionResponseDecoder.decodeWinner(body)
+                ?: throw AuctionException("no_fill")
+            toInterstitialResult(winner)
+        }
+    }
 
-        val requestBody = buildRequestBody(opts, consent)
-        val json = gson.toJson(requestBody)
-        val req = Request.Builder()
-            .url("$base/v1/auction")
+    private suspend fun performBatchRequestWithRetries(
+        opts: BatchOptions,
+        placements: List<BatchPlacement>,
+        consent: ConsentOptions?
+    ): Map<String, BatchOutcome> {
+        val req = buildPostRequest("$base/v1/auction/batch", buildBatchRequestBody(opts, placements, consent))
+        return executeWithRetries(req, opts.timeoutMs) { body ->
+            val entries = AuctionResponseDecoder.decodeBatch(body)
+            val outcomes = LinkedHashMap<String, BatchOutcome>(entries.size)
+            entries.forEach { entry ->
+                val placementId = entry.placementId ?: return@forEach
+                outcomes[placementId] = when {
+                    entry.winner != null -> try {
+                        BatchOutcome(placementId, result = toInterstitialResult(entry.winner))
+                    } catch (ae: AuctionException) {
+                        BatchOutcome(placementId, error = ae)
+                    }
+                    !entry.error.isNullOrBlank() -> BatchOutcome(placementId, error = AuctionException(entry.error))
+                    else -> BatchOutcome(placementId, error = AuctionException("no_fill"))
+                }
+            }
+            outcomes
+        }
+    }
+
+    private fun toInterstitialResult(winner: AuctionWinner): InterstitialResult {
+        val adapter = winner.adapterName
+        val ecpm = winner.cpm
+        if (adapter.isNullOrBlank() || ecpm == null) {
+            throw AuctionException("no_fill")
+        }
+        return InterstitialResult(
+            adapter = adapter,
+            ecpm = ecpm,
+            currency = winner.currency ?: "USD",
+            creativeId = winner.creativeId,
+            adMarkup = winner.adMarkup,
+        )
+    }
+
+    private fun buildPostRequest(url: String, body: Map<String, Any?>): Request {
+        val json = gson.toJson(body)
+        return Request.Builder()
+            .url(url)
             .post(json.toRequestBody("application/json".toMediaType()))
             .addHeader("Content-Type", "application/json")
             .addHeader("Accept", "application/json")
             .addHeader("User-Agent", buildUserAgent())
             .addHeader("X-Api-Key", apiKey)
             .build()
+    }
+
+    /**
+     * Opens (or keeps alive) a pooled connection to the auction host with a HEAD /health on the
+     * same client profile auctions use, so the next auction skips DNS, TCP and TLS. Blocking and
+     * best-effort: returns true when the server answered, whatever the status.
+     */
+    fun warmUp(timeoutMs: Int = 2_000): Boolean {
+        // Only registry clients carry the listener that fills the probe.
+        val probe = if (rttRecorder != null && customClient == null) HttpClientRegistry.ConnectionProbe() else null
+        val req = Request.Builder()
+            .url("$base/health")
+            .head()
+            .addHeader("User-Agent", buildUserAgent())
+            .apply { if (probe != null) tag(HttpClientRegistry.ConnectionProbe::class.java, probe) }
+            .build()
+        return try {
+            clientFor(timeoutMs.coerceAtLeast(100)).newCall(req).execute().use { true }
+                .also { probe?.requestToHeadersMs?.let { rtt -> rttRecorder?.invoke(rtt) } }
+        } catch (_: Exception) {
+            false
+        }
+    }
+
+    private fun clientFor(timeoutMs: Int): OkHttpClient {
+        val custom = customClient
+            ?: return HttpClientRegistry.client(HttpClientRegistry.Profile.uniform(timeoutMs.toLong(), certificatePins))
+        return customClientsByTimeout.getOrPut(timeoutMs) {
+            custom.newBuilder()
+                .callTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
+                .connectTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
+                .readTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
+                .writeTimeout(timeoutMs.toLong(), TimeUnit.MILLISECONDS)
+                .build()
+        }
+    }
+
+    // [payload] is the parsed body of a 2xx other than 204 (or the failure reading it); null otherwise.
+    private class HttpReply<T>(val code: Int, val retryAfter: String?, val payload: Result<T>?)
+
+    /**
+     * Runs up to [maxAttempts] attempts within a single [timeoutMs] budget. Each attempt's call
+     * timeout is the time remaining; backoff waits are coroutine delays, so no thread is parked
+     * between attempts. A Retry-After hint on 429/503 starts a cooldown shared by every request
+     * to the host and stretches the next backoff; a retry that cannot fit before the deadline is
+     * not attempted.
+     */
+    private suspend fun <T> executeWithRetries(req: Request, timeoutMs: Int, parse: (Reader) -> T): T {
+        val timeout = timeoutMs.coerceAtLeast(100)
+        val callClient = clientFor(timeout)
+        val deadlineMs = clock.monotonicNow() + timeout
+        // Probe the first attempt of this client's first auction: did warm-up leave a connection
+        // in the pool for it? Only registry clients carry the listener that fills the probe.
+        val probe = if (
+            firstConnectionRecorder != null && customClient == null && firstAuctionProbed.compareAndSet(false, true)
+        ) {
+            HttpClientRegistry.ConnectionProbe()
+        } else {
+            null
+        }
+        var probeReported = false
 
         var attempt = 1
         var lastErr: AuctionException? = null
         var sawTimeout = false
         while (attempt <= maxAttempts) {
-            val call = callClient.newCall(req)
+            val attemptReq = if (probe != null && attempt == 1) {
+                req.newBuilder().tag(HttpClientRegistry.ConnectionProbe::class.java, probe).build()
+            } else {
+                req
+            }
+            val call = callClient.newCall(attemptReq)
+            val remainingMs = (deadlineMs - clock.monotonicNow()).coerceAtLeast(minAttemptMs)
+            call.timeout().timeout(remainingMs, TimeUnit.MILLISECONDS)
+            var retryAfterMs: Long? = null
             try {
-                call.execute().use { resp ->
-                    val code = resp.code
-                    if (code == 204) {
-                        throw AuctionException("no_fill")
-                    }
-                    if (code == 429) {
-                        val retryAfter = parseRetryAfterMillis(resp)
-                        val msg = retryAfter?.let { "rate limited; retry_after_ms=$it" } ?: "rate limited"
-                        throw AuctionException("rate_limited", msg)
-                    }
-                    if (!resp.isSuccessful) {
-                        val reason = "status_" + code
-                        throw AuctionException(reason)
-                    }
-                    val bodyStr = resp.body?.string() ?: "{}"
-                    @Suppress("UNCHECKED_CAST")
-                    val root = gson.fromJson(bodyStr, MutableMap::class.java) as MutableMap<String, Any?>
-                    @Suppress("UNCHECKED_CAST")
-                    val winner = (root["winner"] as? Map<String, Any?>)
-                    if (winner == null) {
-                        throw AuctionException("no_fill")
-                    }
-                    val adapter = (winner["adapter_name"] as? String)
-                        ?: (winner["AdapterName"] as? String)
-                    val ecpmNum = (winner["cpm"] as? Number)
-                        ?: (winner["CPM"] as? Number)
-                    if (adapter.isNullOrBlank() || ecpmNum == null) {
-                        throw AuctionException("no_fill")
-                    }
-                    val ecpm = ecpmNum.toDouble()
-                    val currency = (winner["currency"] as? String)
-                        ?: (winner["Currency"] as? String) ?: "USD"
-                    val creativeId = (winner["creative_id"] as? String)
-                        ?: (winner["CreativeID"] as? String)
-                    val adMarkup = (winner["ad_markup"] as? String)
-                        ?: (winner["AdMarkup"] as? String)
-                    @Suppress("UNCHECKED_CAST")
-                    return InterstitialResult(
-                        adapter = adapter,
-                        ecpm = ecpm,
-                        currency = currency,
-                        creativeId = creativeId,
-                        adMarkup = adMarkup,
-                        raw = root as? Map<String, Any?>
-                    )
+                val reply = awaitReply(call, parse)
+                val code = reply.code
+                if (code == 204) {
+                    throw AuctionException("no_fill")
+                }
+                if (code == 429 || code == 503) {
+                    retryAfterMs = RetryAfter.parseDelayMs(reply.retryAfter, clock.now())
+                    retryAfterMs?.let { HostCooldowns.extend(hostKey, clock.monotonicNow() + it) }
                 }
+                if (code == 429) {
+                    val msg = retryAfterMs?.let { "rate limited; retry_after_ms=$it" } ?: "rate limited"
+                    throw AuctionException("rate_limited", msg)
+                }
+                if (code !in 200..299) {
+                    val reason = "status_" + code
+                    throw AuctionException(reason)
+                }
+                return (reply.payload ?: Result.success(parse(StringReader("{}")))).getOrThrow()
             } catch (e: Exception) {
+                // Our own cancellation propagates; anything else (incl. OkHttp "Canceled") is mapped.
+                currentCoroutineContext().ensureActive()
                 val reason = mapExceptionToReason(e)
                 if (reason == "timeout") {
                     sawTimeout = true
@@ -223,9 +419,18 @@ class AuctionClient(
                 if (!shouldRetry(reason) || attempt == maxAttempts) {
                     break
                 }
-                safeSleep(computeBackoffDelay(attempt))
+                val backoffMs = maxOf(computeBackoffDelay(attempt), retryAfterMs ?: 0L)
+                if (clock.monotonicNow() + backoffMs + minAttemptMs > deadlineMs) {
+                    break
+                }
+                delay(backoffMs)
                 attempt++
                 continue
+            } finally {
+                if (probe != null && !probeReported) {
+                    probeReported = true
+                    firstConnectionRecorder?.invoke(probe.reusedConnection, probe.protocol?.toString() ?: "none")
+                }
             }
         }
         if (sawTimeout && (lastErr == null || lastErr.reason != "timeout")) {
@@ -237,6 +442,46 @@ class AuctionClient(
         throw finalErr
     }
 
+    // Runs the call on OkHttp's dispatcher and decodes a successful body there, streaming it into
+    // [parse] instead of buffering it as a String, so the caller's thread is free until the reply
+    // is complete. Cancelling the coroutine cancels the call.
+    private suspend fun <T> awaitReply(call: Call, parse: (Reader) -> T): HttpReply<T> = suspendCancellableCoroutine { cont ->
+        cont.invokeOnCancellation { call.cancel() }
+        call.enqueue(object : Callback {
+            override fun onFailure(call: Call, e: IOException) {
+                cont.resumeWithException(e)
+            }
+
+            override fun onResponse(call: Call, response: Response) {
+                val reply = try {
+                    response.use { resp ->
+                        val body = resp.body
+                        // Decode failures travel in the reply, so status handling still sees
+                        // this attempt.
+                        val payload = if (resp.isSuccessful && resp.code != 204 && body != null) {
+                            try {
+                                Result.success(parse(body.charStream()))
+                            } catch (e: Exception) {
+                                Result.failure(e)
+                            }
+                        } else {
+                            null
+                        }
+                        HttpReply(
+                            code = resp.code,
+                            retryAfter = resp.header("Retry-After"),
+                            payload = payload
+                        )
+                    }
+                } catch (e: IOException) {
+                    cont.resumeWithException(e)
+                    return
+                }
+                cont.resume(reply)
+            }
+        })
+    }
+
     private fun shouldRetry(reason: String): Boolean {
         return reason == "timeout" || reason == "network_error" || reason.startsWith("status_5")
     }
@@ -311,35 +556,13 @@ class AuctionClient(
         return min(delay, 1000L)
     }
 
-    private fun safeSleep(durationMs: Long) {
-        if (durationMs <= 0) return
-        try {
-            Thread.sleep(durationMs)
-        } catch (_: InterruptedException) {
-            Thread.currentThread().interrupt()
-        }
-    }
-
-    private fun parseRetryAfterMillis(resp: okhttp3.Response): Long? {
-        val header = resp.header("Retry-After")?.trim() ?: return null
-        header.toLongOrNull()?.let { return (it * 1000L).coerceAtLeast(0) }
-        return try {
-            val sdf = SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US)
-            sdf.timeZone = TimeZone.getTimeZone("GMT")
-            val date = sdf.parse(header)
-            date?.time?.let { (it - clock.now()).coerceAtLeast(0) }
-        } catch (_: Exception) {
-            null
-        }
-    }
-
-    private data class RequestOutcome(
-        val result: InterstitialResult? = null,
+    private data class RequestOutcome<T>(
+        val result: T? = null,
         val error: AuctionException? = null,
     ) {
         companion object {
-            fun Success(result: InterstitialResult) = RequestOutcome(result = result)
-            fun Error(ex: AuctionException) = RequestOutcome(error = ex)
+            fun <T> Success(result: T) = RequestOutcome(result = result)
+            fun <T> Error(ex: AuctionException) = RequestOutcome<T>(error = ex)
         }
     }
 
@@ -356,22 +579,71 @@ class AuctionClient(
     }
 
     private fun buildRequestBody(opts: InterstitialOptions, consent: ConsentOptions?): Map<String, Any?> {
-        val now = clock.now()
-        val rand = (0..999_999).random()
-        val reqId = "android-$now-$rand"
-        val deviceInfo = mapOf(
-            "os" to "android",
-            "os_version" to (Build.VERSION.RELEASE ?: ""),
-            "make" to (Build.MANUFACTURER ?: ""),
-            "model" to (Build.MODEL ?: ""),
-            "screen_width" to 0,
-            "screen_height" to 0,
-            "language" to Locale.getDefault().language,
-            "timezone" to java.util.TimeZone.getDefault().id,
-            "connection_type" to "unknown",
-            "ip" to "",
-            "user_agent" to "",
+        val baseMeta = opts.metadata.toMutableMap()
+        baseMeta.putAll(consentMeta(consent))
+
+        return mapOf(
+            "request_id" to newRequestId(),
+            "app_id" to opts.publisherId,
+            "placement_id" to opts.placementId,
+            "ad_type" to "interstitial",
+            "device_info" to buildDeviceInfo(),
+            "user_info" to buildUserInfo(consent),
+            "floor_cpm" to (opts.floorCpm ?: 0.0),
+            "timeout_ms" to opts.timeoutMs,
+            "auction_type" to opts.auctionType,
+            "adapters" to adaptersOrDefault(opts.adapters),
+            "metadata" to baseMeta,
+        )
+    }
+
+    private fun buildBatchRequestBody(
+        opts: BatchOptions,
+        placements: List<BatchPlacement>,
+        consent: ConsentOptions?
+    ): Map<String, Any?> {
+        val baseMeta = opts.metadata.toMutableMap()
+        baseMeta.putAll(consentMeta(consent))
+
+        val requests = placements.map { placement ->
+            mapOf(
+                "placement_id" to placement.placementId,
+                "ad_type" to placement.adType,
+                "floor_cpm" to (placement.floorCpm ?: 0.0),
+                "adapters" to adaptersOrDefault(placement.adapters),
+                "metadata" to placement.metadata,
+            )
+        }
+        return mapOf(
+            "request_id" to newRequestId(),
+            "app_id" to opts.publisherId,
+            "device_info" to buildDeviceInfo(),
+            "user_info" to buildUserInfo(consent),
+            "timeout_ms" to opts.timeoutMs,
+            "auction_type" to opts.auctionType,
+            "metadata" to baseMeta,
+            "requests" to requests,
         )
+    }
+
+    private fun newRequestId(): String = RequestIds.auctionRequestId(clock.now())
+
+    private fun adaptersOrDefault(adapters: List<String>?): List<String> =
+        if (adapters != null && adapters.isNotEmpty()) adapters
+        else listOf("admob", "meta", "unity", "applovin", "ironsource")
+
+    private fun buildDeviceInfo(): Map<String, Any?> = RequestContext.current().auctionDeviceInfo
+
+    // Consent rarely changes between auctions; reuse the last user_info until it does.
+    private class UserInfoEntry(val consent: ConsentOptions?, val userInfo: Map<String, Any?>)
+    @Volatile private var lastUserInfo: UserInfoEntry? = null
+
+    private fun buildUserInfo(consent: ConsentOptions?): Map<String, Any?> {
+        lastUserInfo?.let { if (it.consent == consent) return it.userInfo }
+        return computeUserInfo(consent).also { lastUserInfo = UserInfoEntry(consent, it) }
+    }
+
+    private fun computeUserInfo(consent: ConsentOptions?): Map<String, Any?> {
         val limitAdTracking = consent?.limitAdTracking == true
         val userInfo = mutableMapOf<String, Any?>(
             "limit_ad_tracking" to limitAdTracking
@@ -388,26 +660,7 @@ class AuctionClient(
         } else if (!appSetId.isNullOrBlank()) {
             userInfo["app_set_id"] = appSetId
         }
-
-        val baseMeta = opts.metadata.toMutableMap()
-        baseMeta.putAll(consentMeta(consent))
-
-        val adapters = if (opts.adapters != null && opts.adapters.isNotEmpty()) opts.adapters
-        else listOf("admob", "meta", "unity", "applovin", "ironsource")
-
-        return mapOf(
-            "request_id" to reqId,
-            "app_id" to opts.publisherId,
-            "placement_id" to opts.placementId,
-            "ad_type" to "interstitial",
-            "device_info" to deviceInfo,
-            "user_info" to userInfo,
-            "floor_cpm" to (opts.floorCpm ?: 0.0),
-            "timeout_ms" to opts.timeoutMs,
-            "auction_type" to opts.auctionType,
-            "adapters" to adapters,
-            "metadata" to baseMeta,
-        )
+        return userInfo
     }
 
     private fun isOnMainThread(): Boolean {
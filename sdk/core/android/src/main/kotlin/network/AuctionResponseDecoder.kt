@@ -0,0 +1,186 @@
+package com.rivalapexmediation.sdk.network
+
+import com.google.gson.JsonSyntaxException
+import com.google.gson.stream.JsonReader
+import com.google.gson.stream.JsonToken
+import java.io.IOException
+import java.io.Reader
+
+/**
+ * Winning bid as returned by the auction service. Fields are null when absent or of the wrong
+ * JSON type; callers decide what is mandatory.
+ */
+internal data class AuctionWinner(
+    val adapterName: String?,
+    val cpm: Double?,
+    val currency: String?,
+    val creativeId: String?,
+    val adMarkup: String?,
+)
+
+/**
+ * One placement's entry in a batched auction response.
+ */
+internal data class AuctionBatchEntry(
+    val placementId: String?,
+    val winner: AuctionWinner?,
+    val error: String?,
+)
+
+/**
+ * Streaming decoder for S2S auction responses.
+ *
+ * Reads straight into the DTOs above with a [JsonReader] instead of materializing the body as
+ * nested Gson maps: unknown fields are skipped without being built, and numbers are read as
+ * primitives. Accepts both snake_case and PascalCase keys (snake_case wins when both appear),
+ * matching the backend variants seen in the field.
+ *
+ * Malformed JSON surfaces as [JsonSyntaxException], as Gson.fromJson would, so callers map it
+ * to a generic error rather than a network failure.
+ */
+internal object AuctionResponseDecoder {
+
+    /**
+     * Decodes a single-placement response `{"winner": {...}}`; returns null when there is no winner.
+     */
+    fun decodeWinner(reader: Reader): AuctionWinner? = decode(reader) { json ->
+        var winner: AuctionWinner? = null
+        json.beginObject()
+        while (json.hasNext()) {
+            when (json.nextName()) {
+                "winner" -> winner = readWinner(json)
+                else -> json.skipValue()
+            }
+        }
+        json.endObject()
+        winner
+    }
+
+    /**
+     * Decodes a batch response `{"results": [{"placement_id": ..., "winner": {...} | "error": ...}]}`.
+     */
+    fun decodeBatch(reader: Reader): List<AuctionBatchEntry> = decode(reader) { json ->
+        var results: List<AuctionBatchEntry> = emptyList()
+        json.beginObject()
+        while (json.hasNext()) {
+            when (json.nextName()) {
+                "results" -> results = readBatchEntries(json)
+                else -> json.skipValue()
+            }
+        }
+        json.endObject()
+        results
+    }
+
+    private inline fun <T> decode(reader: Reader, block: (JsonReader) -> T): T {
+        return try {
+            JsonReader(reader).use { json ->
+                json.isLenient = true
+                if (json.peek() != JsonToken.BEGIN_OBJECT) {
+                    throw JsonSyntaxException("Expected a JSON object but was ${json.peek()}")
+                }
+                block(json)
+            }
+        } catch (e: IllegalStateException) {
+            throw JsonSyntaxException(e)
+        } catch (e: IOException) {
+            throw JsonSyntaxException(e)
+        }
+    }
+
+    private fun readBatchEntries(json: JsonReader): List<AuctionBatchEntry> {
+        if (json.peek() != JsonToken.BEGIN_ARRAY) {
+            json.skipValue()
+            return emptyList()
+        }
+        val entries = ArrayList<AuctionBatchEntry>()
+        json.beginArray()
+        while (json.hasNext()) {
+            if (json.peek() != JsonToken.BEGIN_OBJECT) {
+                json.skipValue()
+                continue
+            }
+            var placementSnake: String? = null
+            var placementPascal: String? = null
+            var winner: AuctionWinner? = null
+            var errorSnake: String? = null
+            var errorPascal: String? = null
+            json.beginObject()
+            while (json.hasNext()) {
+                when (json.nextName()) {
+                    "placement_id" -> placementSnake = readString(json)
+                    "PlacementID" -> placementPascal = readString(json)
+                    "winner" -> winner = readWinner(json)
+                    "error" -> errorSnake = readString(json)
+                    "Error" -> errorPascal = readString(json)
+                    else -> json.skipValue()
+                }
+            }
+            json.endObject()
+            entries += AuctionBatchEntry(
+                placementId = placementSnake ?: placementPascal,
+                winner = winner,
+                error = errorSnake ?: errorPascal,
+            )
+        }
+        json.endArray()
+        return entries
+    }
+
+    private fun readWinner(json: JsonReader): AuctionWinner? {
+        if (json.peek() != JsonToken.BEGIN_OBJECT) {
+            json.skipValue()
+            return null
+        }
+        var adapterSnake: String? = null
+        var adapterPascal: String? = null
+        var cpmSnake: Double? = null
+        var cpmPascal: Double? = null
+        var currencySnake: String? = null
+        var currencyPascal: String? = null
+        var creativeSnake: String? = null
+        var creativePascal: String? = null
+        var markupSnake: String? = null
+        var markupPascal: String? = null
+        json.beginObject()
+        while (json.hasNext()) {
+            when (json.nextName()) {
+                "adapter_name" -> adapterSnake = readString(json)
+                "AdapterName" -> adapterPascal = readString(json)
+                "cpm" -> cpmSnake = readNumber(json)
+                "CPM" -> cpmPascal = readNumber(json)
+                "currency" -> currencySnake = readString(json)
+                "Currency" -> currencyPascal = readString(json)
+                "creative_id" -> creativeSnake = readString(json)
+                "CreativeID" -> creativePascal = readString(json)
+                "ad_markup" -> markupSnake = readString(json)
+                "AdMarkup" -> markupPascal = readString(json)
+                else -> json.skipValue()
+            }
+        }
+        json.endObject()
+        return AuctionWinner(
+            adapterName = adapterSnake ?: adapterPascal,
+            cpm = cpmSnake ?: cpmPascal,
+            currency = currencySnake ?: currencyPascal,
+            creativeId = creativeSnake ?: creativePascal,
+            adMarkup = markupSnake ?: markupPascal,
+        )
+    }
+
+    private fun readString(json: JsonReader): String? = when (json.peek()) {
+        JsonToken.STRING -> json.nextString()
+        else -> {
+            json.skipValue()
+            null
+        }
+    }
+
+    private fun readNumber(json: JsonReader): Double? = when (json.peek()) {
+        JsonToken.NUMBER -> json.nextDouble()
+        else -> {
+            json.skipValue()
+            null
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.rivalapexmediation.sdk.network
+
+import okhttp3.Call
+import okhttp3.CertificatePinner
+import okhttp3.Connection
+import okhttp3.ConnectionPool
+import okhttp3.Dispatcher
+import okhttp3.Dns
+import okhttp3.EventListener
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import okhttp3.Request
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.Proxy
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * HttpClientRegistry - Single OkHttp stack shared by every SDK HTTP caller.
+ *
+ * All clients are derived from one base client, so they share a [ConnectionPool], a
+ * [Dispatcher] and a DNS cache: a connection opened by config fetch or warmup is reused by the
+ * next auction instead of paying TCP + TLS again. Derived clients are immutable and cached per
+ * [Profile] (timeouts, pinning, retry/redirect policy), so hot paths no longer call
+ * `newBuilder()` per request.
+ *
+ * Pinned and unpinned profiles still share the pool; OkHttp only reuses a connection for an
+ * identical address, which includes the certificate pinner.
+ *
+ * Usage:
+ * ```kotlin
+ * val client = HttpClientRegistry.client(HttpClientRegistry.Profile.uniform(timeoutMs = 800))
+ * ```
+ */
+object HttpClientRegistry {
+
+    /**
+     * Shape of a derived client. Equal profiles resolve to the same cached instance.
+     */
+    data class Profile(
+        val connectTimeoutMs: Long,
+        val readTimeoutMs: Long,
+        val writeTimeoutMs: Long,
+        val callTimeoutMs: Long,
+        val certificatePins: Map<String, List<String>> = emptyMap(),
+        val retryOnConnectionFailure: Boolean = false,
+        val followRedirects: Boolean = false,
+    ) {
+        companion object {
+            /** Auction defaults: tight connect, bounded call, no silent retries or redirects. */
+            val AUCTION = Profile(
+                connectTimeoutMs = 2_000,
+                readTimeoutMs = 5_000,
+                writeTimeoutMs = 5_000,
+                callTimeoutMs = 6_000,
+            )
+
+            /** Applies one deadline to connect, read, write and the whole call. */
+            fun uniform(timeoutMs: Long, certificatePins: Map<String, List<String>> = emptyMap()) = Profile(
+                connectTimeoutMs = timeoutMs,
+                readTimeoutMs = timeoutMs,
+                writeTimeoutMs = timeoutMs,
+                callTimeoutMs = timeoutMs,
+                certificatePins = certificatePins,
+            )
+        }
+    }
+
+    /**
+     * Connection reuse counters since process start (or the last [resetStats]).
+     *
+     * @property reuseRate share of connection acquisitions served by an existing connection
+     */
+    data class PoolStats(
+        val callsStarted: Long,
+        val connectionsAcquired: Long,
+        val newConnections: Long,
+        val reuseRate: Double,
+        val idleConnections: Int,
+        val totalConnections: Int,
+        val derivedClients: Int,
+    )
+
+    /**
+     * Per-call connection report. Tag a request with
+     * `tag(ConnectionProbe::class.java, probe)` and the shared event listener records whether
+     * the call had to open a new connection, which protocol it ran on, and when the request was
+     * fully sent and the response headers started.
+     */
+    class ConnectionProbe {
+        @Volatile var newConnection: Boolean = false
+            internal set
+        @Volatile var protocol: Protocol? = null
+            internal set
+        @Volatile internal var requestSentAtNs: Long = 0L
+        @Volatile internal var responseHeadersAtNs: Long = 0L
+
+        /** True once the call has run over a connection that already existed in the pool. */
+        val reusedConnection: Boolean get() = protocol != null && !newConnection
+
+        /**
+         * Request sent to response headers, in ms; null until both happened. Excludes dispatcher
+         * queueing and connection setup, but includes the server's time to answer.
+         */
+        val requestToHeadersMs: Long?
+            get() {
+                val sent = requestSentAtNs
+                val headers = responseHeadersAtNs
+                if (sent == 0L || headers < sent) return null
+                return TimeUnit.NANOSECONDS.toMillis(headers - sent)
+            }
+    }
+
+    /**
+     * Notified when an SDK request starts, i.e. when the radio is (about to be) awake anyway.
+     * Deferrable uploads use it to ride along instead of waking the radio themselves.
+     */
+    fun interface ActivityListener {
+        fun onNetworkActivity()
+    }
+
+    /**
+     * Request tag for deferrable background uploads: such calls do not notify
+     * [ActivityListener]s, so uploads cannot trigger one another.
+     */
+    object BackgroundTraffic
+
+    private const val DNS_TTL_MS = 5 * 60_000L
+
+    // Profiles come from a handful of placement timeouts; this only guards against a config that
+    // hands out a distinct timeout per request.
+    private const val MAX_CACHED_CLIENTS = 32
+
+    private class CachedLookup(val addresses: List<InetAddress>, val resolvedAtMs: Long)
+
+    // Never below OkHttp's default of 5: every SDK caller now parks its idle sockets here.
+    private val connectionPool = ConnectionPool(
+        maxIdleConnections = Runtime.getRuntime().availableProcessors().coerceIn(5, 8),
+        keepAliveDuration = 5,
+        timeUnit = TimeUnit.MINUTES
+    )
+    private val dispatcher = Dispatcher().apply { maxRequestsPerHost = 8 }
+    private val dnsCache = ConcurrentHashMap<String, CachedLookup>()
+    private val clients = ConcurrentHashMap<Profile, OkHttpClient>() // at most MAX_CACHED_CLIENTS
+
+    private val callsStarted = AtomicLong(0)
+    private val connectionsAcquired = AtomicLong(0)
+    private val newConnections = AtomicLong(0)
+    private val activityListeners = CopyOnWriteArrayList<ActivityListener>()
+
+    private val cachingDns = object : Dns {
+        override fun lookup(hostname: String): List<InetAddress> {
+            val now = System.currentTimeMillis()
+            dnsCache[hostname]?.let { if (now - it.resolvedAtMs < DNS_TTL_MS) return it.addresses }
+            val resolved = Dns.SYSTEM.lookup(hostname)
+            if (resolved.isNotEmpty()) dnsCache[hostname] = CachedLookup(resolved, now)
+            return resolved
+        }
+    }
+
+    // Stateless apart from the shared counters and per-request probes, so one instance serves every call.
+    private val reuseListener = object : EventListener() {
+        override fun callStart(call: Call) {
+            callsStarted.incrementAndGet()
+            if (activityListeners.isNotEmpty() && call.request().tag(BackgroundTraffic::class.java) == null) {
+                activityListeners.forEach { it.onNetworkActivity() }
+            }
+        }
+
+        override fun connectStart(call: Call, inetSocketAddress: InetSocketAddress, proxy: Proxy) {
+            newConnections.incrementAndGet()
+            call.request().tag(ConnectionProbe::class.java)?.newConnection = true
+        }
+
+        override fun connectionAcquired(call: Call, connection: Connection) {
+            connectionsAcquired.incrementAndGet()
+            call.request().tag(ConnectionProbe::class.java)?.protocol = connection.protocol()
+        }
+
+        // A request with a body is sent at requestBodyEnd, which overwrites this.
+        override fun requestHeadersEnd(call: Call, request: Request) {
+            call.request().tag(ConnectionProbe::class.java)?.requestSentAtNs = System.nanoTime()
+        }
+
+        override fun requestBodyEnd(call: Call, byteCount: Long) {
+            call.request().tag(ConnectionProbe::class.java)?.requestSentAtNs = System.nanoTime()
+        }
+
+        override fun responseHeadersStart(call: Call) {
+            call.request().tag(ConnectionProbe::class.java)?.responseHeadersAtNs = System.nanoTime()
+        }
+    }
+
+    private val base: OkHttpClient by lazy {
+        OkHttpClient.Builder()
+            .connectionPool(connectionPool)
+            .dispatcher(dispatcher)
+            .dns(cachingDns)
+            .eventListenerFactory { reuseListener }
+            .protocols(listOf(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .build()
+    }
+
+    /**
+     * Returns the shared client for [profile], building it on first use. Once
+     * [MAX_CACHED_CLIENTS] profiles are cached, new ones get an uncached client that still shares
+     * the pool, dispatcher and DNS cache.
+     */
+    fun client(profile: Profile): OkHttpClient {
+        clients[profile]?.let { return it }
+        if (clients.size >= MAX_CACHED_CLIENTS) return build(profile)
+        // getOrPut rather than computeIfAbsent: ConcurrentHashMap only has the latter from API 24.
+        return clients.getOrPut(profile) { build(profile) }
+    }
+
+    /**
+     * Resolves [hostname] through the shared DNS cache so later connects skip the lookup.
+     */
+    fun prefetchDns(hostname: String): List<InetAddress> = cachingDns.lookup(hostname)
+
+    /**
+     * Cached addresses for [hostname], or null when absent or past the TTL.
+     */
+    fun cachedDns(hostname: String): List<InetAddress>? {
+        val cached = dnsCache[hostname] ?: return null
+        return if (System.currentTimeMillis() - cached.resolvedAtMs < DNS_TTL_MS) cached.addresses else null
+    }
+
+    fun addActivityListener(listener: ActivityListener) {
+        activityListeners.addIfAbsent(listener)
+    }
+
+    fun removeActivityListener(listener: ActivityListener) {
+        activityListeners.remove(listener)
+    }
+
+    fun dnsCacheSize(): Int = dnsCache.size
+
+    fun cachedHosts(): List<String> = dnsCache.keys.toList()
+
+    fun stats(): PoolStats {
+        val acquired = connectionsAcquired.get()
+        val created = newConnections.get()
+        val reuseRate = if (acquired == 0L) 0.0 else ((acquired - created).coerceAtLeast(0).toDouble() / acquired)
+        return PoolStats(
+            callsStarted = callsStarted.get(),
+            connectionsAcquired = acquired,
+            newConnections = created,
+            reuseRate = reuseRate,
+            idleConnections = connectionPool.idleConnectionCount(),
+            totalConnections = connectionPool.connectionCount(),
+            derivedClients = clients.size,
+        )
+    }
+
+    /**
+     * Zeroes the reuse counters. Primarily for testing.
+     */
+    fun resetStats() {
+        callsStarted.set(0)
+        connectionsAcquired.set(0)
+        newConnections.set(0)
+    }
+
+    /**
+     * Closes idle pooled connections and forgets cached DNS entries. Primarily for testing and
+     * for connectivity changes, where pooled sockets are bound to the old network.
+     */
+    fun evictAll() {
+        connectionPool.evictAll()
+        dnsCache.clear()
+    }
+
+    private fun build(profile: Profile): OkHttpClient {
+        val builder = base.newBuilder()
+            .connectTimeout(profile.connectTimeoutMs, TimeUnit.MILLISECONDS)
+            .readTimeout(profile.readTimeoutMs, TimeUnit.MILLISECONDS)
+            .writeTimeout(profile.writeTimeoutMs, TimeUnit.MILLISECONDS)
+            .callTimeout(profile.callTimeoutMs, TimeUnit.MILLISECONDS)
+            .retryOnConnectionFailure(profile.retryOnConnectionFailure)
+            .followRedirects(profile.followRedirects)
+            .followSslRedirects(profile.followRedirects)
+        if (profile.certificatePins.isNotEmpty()) {
+            val pinner = CertificatePinner.Builder()
+            for ((host, pins) in profile.certificatePins) {
+                if (host.isBlank()) continue
+                pins.filter { it.isNotBlank() }.forEach { pinner.add(host, it) }
+            }
+            builder.certificatePinner(pinner.build())
+        }
+        return builder.build()
+    }
+}
@@ -35,6 +35,51 @@ class NetworkMonitor private constructor(context: Context) {
         
         /** Normal network timeout (milliseconds) */
         const val NORMAL_TIMEOUT_MS = 10_000L
+        
+        /** Smallest deadline [scaleTimeout] will hand out (milliseconds) */
+        const val MIN_SCALED_TIMEOUT_MS = 100L
+        
+        /** Weight of the newest sample in the smoothed RTT */
+        private const val RTT_EWMA_ALPHA = 0.2
+        
+        /** Scaled deadlines are rounded up to this step so per-timeout HTTP clients stay few */
+        private const val TIMEOUT_STEP_MS = 50L
+        
+        /**
+         * Classifies a link from the measured round trip when available, else from the
+         * transport and the platform's bandwidth estimate.
+         */
+        internal fun classify(state: NetworkState, smoothedRttMs: Double?): LinkClass {
+            if (!state.isConnected) return LinkClass.OFFLINE
+            if (smoothedRttMs != null) {
+                return when {
+                    smoothedRttMs < 150 -> LinkClass.EXCELLENT
+                    smoothedRttMs < 350 -> LinkClass.GOOD
+                    smoothedRttMs < 800 -> LinkClass.MODERATE
+                    else -> LinkClass.POOR
+                }
+            }
+            return when (state.connectionType) {
+                ConnectionType.CELLULAR -> when {
+                    state.downstreamKbps >= 5_000 -> LinkClass.GOOD
+                    state.downstreamKbps in 1..999 -> LinkClass.POOR
+                    else -> LinkClass.MODERATE
+                }
+                else -> LinkClass.GOOD
+            }
+        }
+        
+        /**
+         * Scales a configured deadline to the link class. Never below three smoothed round trips,
+         * never above [NORMAL_TIMEOUT_MS], rounded up to [TIMEOUT_STEP_MS].
+         */
+        internal fun scale(baseMs: Long, linkClass: LinkClass, smoothedRttMs: Double?): Long {
+            if (linkClass == LinkClass.OFFLINE) return OFFLINE_FAST_FAIL_TIMEOUT_MS
+            val scaled = (baseMs * linkClass.timeoutFactor).toLong()
+            val rttFloor = smoothedRttMs?.let { (it * 3).toLong() } ?: 0L
+            val bounded = maxOf(scaled, rttFloor, MIN_SCALED_TIMEOUT_MS).coerceAtMost(maxOf(baseMs, NORMAL_TIMEOUT_MS))
+            return ((bounded + TIMEOUT_STEP_MS - 1) / TIMEOUT_STEP_MS) * TIMEOUT_STEP_MS
+        }
     }
     
     /**
@@ -45,7 +90,9 @@ class NetworkMonitor private constructor(context: Context) {
         val connectionType: ConnectionType,
         val isMetered: Boolean,
         val hasInternetCapability: Boolean,
-        val timestamp: Long
+        val timestamp: Long,
+        /** Platform downstream bandwidth estimate; 0 when unknown */
+        val downstreamKbps: Int = 0
     ) {
         companion object {
             val OFFLINE = NetworkState(
@@ -70,6 +117,19 @@ class NetworkMonitor private constructor(context: Context) {
         OTHER
     }
     
+    /**
+     * Coarse link quality used to size request deadlines.
+     *
+     * @property timeoutFactor multiplier applied to configured deadlines on this link
+     */
+    enum class LinkClass(val timeoutFactor: Double) {
+        OFFLINE(0.0),
+        POOR(1.5),
+        MODERATE(1.25),
+        GOOD(1.0),
+        EXCELLENT(0.75)
+    }
+    
     /**
      * Result of a pre-flight check before network operations.
      */
@@ -94,6 +154,8 @@ class NetworkMonitor private constructor(context: Context) {
     private val currentState = AtomicReference(NetworkState.OFFLINE)
     private val isMonitoring = AtomicBoolean(false)
     private val listeners = CopyOnWriteArrayList<NetworkStateListener>()
+    private val rttLock = Any()
+    @Volatile private var smoothedRttMs: Double? = null
     
     private val networkCallback = object : ConnectivityManager.NetworkCallback() {
         override fun onAvailable(network: Network) {
@@ -190,6 +252,38 @@ class NetworkMonitor private constructor(context: Context) {
         }
     }
     
+    /**
+     * Feeds a measured request round trip (milliseconds) into the smoothed RTT that drives
+     * [getLinkClass]. Samples are reset whenever the active transport changes.
+     */
+    fun recordRtt(rttMs: Long) {
+        if (rttMs < 0) return
+        synchronized(rttLock) {
+            val previous = smoothedRttMs
+            smoothedRttMs = if (previous == null) rttMs.toDouble() else previous + RTT_EWMA_ALPHA * (rttMs - previous)
+        }
+    }
+    
+    /**
+     * Smoothed round trip of recent requests, or null before the first sample on this link.
+     */
+    fun getSmoothedRttMs(): Double? = smoothedRttMs
+    
+    /**
+     * Current link class from cached state and the smoothed RTT.
+     */
+    fun getLinkClass(): LinkClass = classify(currentState.get(), smoothedRttMs)
+    
+    /**
+     * Scales a configured request deadline to the current link: shorter on fast links so a
+     * stalled call gives up sooner, longer on slow ones so a healthy but slow link can still
+     * answer. Returns [OFFLINE_FAST_FAIL_TIMEOUT_MS] when offline.
+     */
+    fun scaleTimeout(baseMs: Long): Long {
+        val rtt = smoothedRttMs
+        return scale(baseMs, classify(currentState.get(), rtt), rtt)
+    }
+    
     /**
      * Adds a listener for network state changes.
      */
@@ -216,6 +310,8 @@ class NetworkMonitor private constructor(context: Context) {
             "connectionType" to state.connectionType.name,
             "isMetered" to state.isMetered,
             "suggestedTimeout" to getEffectiveTimeout(),
+            "linkClass" to getLinkClass().name,
+            "smoothedRttMs" to (smoothedRttMs ?: -1.0),
             "shouldReduceQuality" to (state.connectionType == ConnectionType.CELLULAR && state.isMetered)
         )
     }
@@ -231,6 +327,16 @@ class NetworkMonitor private constructor(context: Context) {
                 isMetered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED),
                 hasInternetCapability = capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET) &&
                         capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED),
+                timestamp = System.currentTimeMillis(),
+                downstreamKbps = capabilities.linkDownstreamBandwidthKbps
+            )
+        } else if (network != null) {
+            // Capabilities can lag the active network briefly; an active network is not "offline".
+            NetworkState(
+                isConnected = true,
+                connectionType = ConnectionType.OTHER,
+                isMetered = connectivityManager.isActiveNetworkMetered,
+                hasInternetCapability = false,
                 timestamp = System.currentTimeMillis()
             )
         } else {
@@ -239,6 +345,11 @@ class NetworkMonitor private constructor(context: Context) {
         
         val previousState = currentState.getAndSet(newState)
         
+        // RTT measured on the old link says nothing about the new one.
+        if (previousState.connectionType != newState.connectionType) {
+            synchronized(rttLock) { smoothedRttMs = null }
+        }
+        
         // Notify listeners if state changed
         if (previousState.isConnected != newState.isConnected ||
             previousState.connectionType != newState.connectionType) {
@@ -5,15 +5,10 @@ import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.SupervisorJob
 import kotlinx.coroutines.launch
-import okhttp3.ConnectionPool
-import okhttp3.Dns
 import okhttp3.OkHttpClient
-import okhttp3.Protocol
 import okhttp3.Request
 import java.net.InetAddress
 import java.net.URL
-import java.util.concurrent.ConcurrentHashMap
-import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
 
 /**
@@ -39,35 +34,12 @@ object NetworkWarmer {
     
     private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
     private val isWarmedUp = AtomicBoolean(false)
-    private val dnsCache = ConcurrentHashMap<String, List<InetAddress>>()
     private var warmedEndpoints = mutableSetOf<String>()
     
-    // Shared client with optimal connection pooling
-    private val sharedClient: OkHttpClient by lazy {
-        OkHttpClient.Builder()
-            .connectionPool(ConnectionPool(
-                maxIdleConnections = Runtime.getRuntime().availableProcessors().coerceIn(2, 8),
-                keepAliveDuration = 5,
-                timeUnit = TimeUnit.MINUTES
-            ))
-            .connectTimeout(2, TimeUnit.SECONDS)
-            .readTimeout(5, TimeUnit.SECONDS)
-            .writeTimeout(5, TimeUnit.SECONDS)
-            .callTimeout(6, TimeUnit.SECONDS)
-            .retryOnConnectionFailure(false)
-            .followRedirects(false)
-            .followSslRedirects(false)
-            .protocols(listOf(Protocol.HTTP_2, Protocol.HTTP_1_1))
-            // DNS cache integration
-            .dns(object : Dns {
-                override fun lookup(hostname: String): List<InetAddress> {
-                    return dnsCache[hostname] ?: InetAddress.getAllByName(hostname).toList().also {
-                        dnsCache[hostname] = it
-                    }
-                }
-            })
-            .build()
-    }
+    // Warmed connections and DNS entries live in the SDK-wide registry, so the auction client
+    // reuses them instead of a private pool only this object could see.
+    private val sharedClient: OkHttpClient
+        get() = HttpClientRegistry.client(HttpClientRegistry.Profile.AUCTION)
     
     /**
      * Warm up connections to the specified endpoint.
@@ -105,13 +77,10 @@ object NetworkWarmer {
      * Prefetch DNS for a hostname, caching the result.
      */
     private suspend fun prefetchDns(hostname: String) {
-        if (dnsCache.containsKey(hostname)) return
+        if (HttpClientRegistry.cachedDns(hostname) != null) return
         
         try {
-            val addresses = InetAddress.getAllByName(hostname).toList()
-            if (addresses.isNotEmpty()) {
-                dnsCache[hostname] = addresses
-            }
+            HttpClientRegistry.prefetchDns(hostname)
         } catch (e: Exception) {
             // DNS resolution failed; will retry on actual request
         }
@@ -129,9 +98,7 @@ object NetworkWarmer {
                 .build()
             
             // Execute synchronously but with short timeout
-            sharedClient.newBuilder()
-                .callTimeout(2, TimeUnit.SECONDS)
-                .build()
+            HttpClientRegistry.client(HttpClientRegistry.Profile.AUCTION.copy(callTimeoutMs = 2_000))
                 .newCall(request)
                 .execute()
                 .close()
@@ -154,14 +121,14 @@ object NetworkWarmer {
     /**
      * Get cached DNS entries for a hostname, if available.
      */
-    fun getCachedDns(hostname: String): List<InetAddress>? = dnsCache[hostname]
+    fun getCachedDns(hostname: String): List<InetAddress>? = HttpClientRegistry.cachedDns(hostname)
     
     /**
      * Clear all cached DNS entries and warmed endpoints.
      * Primarily for testing.
      */
     fun reset() {
-        dnsCache.clear()
+        HttpClientRegistry.evictAll()
         warmedEndpoints.clear()
         isWarmedUp.set(false)
     }
@@ -172,9 +139,9 @@ object NetworkWarmer {
     fun getDiagnostics(): Map<String, Any> = mapOf(
         "isWarmedUp" to isWarmedUp.get(),
         "warmedEndpoints" to warmedEndpoints.toList(),
-        "dnsCacheSize" to dnsCache.size,
-        "cachedHosts" to dnsCache.keys.toList(),
-        "connectionPoolSize" to Runtime.getRuntime().availableProcessors().coerceIn(2, 8),
+        "dnsCacheSize" to HttpClientRegistry.dnsCacheSize(),
+        "cachedHosts" to HttpClientRegistry.cachedHosts(),
+        "connectionPoolSize" to HttpClientRegistry.stats().totalConnections,
         "sdkVersion" to (try { com.rivalapexmediation.sdk.BuildConfig.SDK_VERSION } catch (_: Throwable) { "unknown" })
     )
 }
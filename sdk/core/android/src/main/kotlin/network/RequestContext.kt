@@ -0,0 +1,67 @@
+package com.rivalapexmediation.sdk.network
+
+import android.os.Build
+import java.util.Locale
+import java.util.TimeZone
+
+/**
+ * RequestContext - Immutable snapshot of the device fields every ad request carries.
+ *
+ * Build properties, locale, time zone and connection type are the same for every request
+ * until something actually changes, so request builders share one snapshot (and its prebuilt
+ * S2S `device_info` map) instead of re-reading and re-allocating them per auction. The SDK
+ * calls [invalidate] on configuration changes (orientation, locale) and
+ * [onConnectivityChanged] on transport changes; the next [current] call captures a fresh
+ * snapshot. Snapshot identity changes on every rebuild, so dependent caches can compare by
+ * reference.
+ */
+class RequestContext private constructor(
+    val osVersion: String,
+    val make: String,
+    val model: String,
+    val language: String,
+    val timezone: String,
+    // Lower-case transport name: wifi, cellular, ethernet, ... or "unknown" until observed.
+    val connectionType: String,
+) {
+    /** S2S `device_info`; shared across requests and never mutated. */
+    val auctionDeviceInfo: Map<String, Any?> = mapOf(
+        "os" to "android",
+        "os_version" to osVersion,
+        "make" to make,
+        "model" to model,
+        "screen_width" to 0,
+        "screen_height" to 0,
+        "language" to language,
+        "timezone" to timezone,
+        "connection_type" to connectionType,
+        "ip" to "",
+        "user_agent" to "",
+    )
+
+    companion object {
+        @Volatile private var snapshot: RequestContext? = null
+        @Volatile private var connectionType: String = "unknown"
+
+        fun current(): RequestContext = snapshot ?: capture().also { snapshot = it }
+
+        fun invalidate() {
+            snapshot = null
+        }
+
+        fun onConnectivityChanged(type: String) {
+            if (type == connectionType) return
+            connectionType = type
+            invalidate()
+        }
+
+        private fun capture(): RequestContext = RequestContext(
+            osVersion = Build.VERSION.RELEASE ?: "",
+            make = Build.MANUFACTURER ?: "",
+            model = Build.MODEL ?: "",
+            language = Locale.getDefault().language,
+            timezone = TimeZone.getDefault().id,
+            connectionType = connectionType,
+        )
+    }
+}
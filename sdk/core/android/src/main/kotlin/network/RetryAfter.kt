@@ -0,0 +1,115 @@
+package com.rivalapexmediation.sdk.network
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * HostCooldowns - Process-wide Retry-After bookkeeping for S2S hosts.
+ *
+ * When a server answers with a Retry-After hint, every request to that host backs off until the
+ * hint expires, instead of each auction client (they are recreated on API-key changes, and batch
+ * and single auctions share a host) rediscovering the limit on its own. Deadlines are on the
+ * monotonic clock.
+ */
+internal object HostCooldowns {
+    private val until = ConcurrentHashMap<String, Long>()
+
+    /**
+     * Milliseconds left on [host]'s cooldown, or 0 when it may be called.
+     */
+    fun remainingMs(host: String, nowMs: Long): Long {
+        val deadline = until[host] ?: return 0L
+        val remaining = deadline - nowMs
+        if (remaining <= 0) {
+            until.remove(host, deadline)
+            return 0L
+        }
+        return remaining
+    }
+
+    /**
+     * Extends [host]'s cooldown to [untilMs]; an existing later deadline wins.
+     */
+    fun extend(host: String, untilMs: Long) {
+        while (true) {
+            val current = until[host]
+            if (current == null) {
+                if (until.putIfAbsent(host, untilMs) == null) return
+            } else if (current >= untilMs || until.replace(host, current, untilMs)) {
+                return
+            }
+        }
+    }
+
+    /**
+     * Forgets every cooldown. Primarily for testing.
+     */
+    fun clear() {
+        until.clear()
+    }
+}
+
+/**
+ * Retry-After parsing without SimpleDateFormat (slow, and unsafe to share across threads).
+ *
+ * Accepts delta-seconds or an IMF-fixdate (`Sun, 06 Nov 1994 08:49:37 GMT`), the only date
+ * format HTTP senders are allowed to generate; anything else is treated as absent. Delays are
+ * capped at five minutes.
+ */
+internal object RetryAfter {
+    // Cooldowns are process-wide, so a single bad or hostile hint must not stall S2S for long.
+    private const val MAX_DELAY_MS = 5L * 60 * 1000
+    private val MONTHS = arrayOf("Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec")
+
+    /**
+     * Milliseconds to wait as of [nowEpochMs], or null when [header] is absent or malformed.
+     */
+    fun parseDelayMs(header: String?, nowEpochMs: Long): Long? {
+        val value = header?.trim().orEmpty()
+        if (value.isEmpty()) return null
+        value.toLongOrNull()?.let { seconds ->
+            if (seconds < 0) return null
+            return (seconds.coerceAtMost(MAX_DELAY_MS / 1000)) * 1000L
+        }
+        val dateMs = parseImfFixdate(value) ?: return null
+        return (dateMs - nowEpochMs).coerceIn(0L, MAX_DELAY_MS)
+    }
+
+    /**
+     * Epoch milliseconds of an IMF-fixdate, or null when [value] is not one.
+     */
+    fun parseImfFixdate(value: String): Long? {
+        // Fixed 29-char layout: "Sun, 06 Nov 1994 08:49:37 GMT"
+        if (value.length != 29 || !value.endsWith(" GMT")) return null
+        if (value[3] != ',' || value[4] != ' ' || value[7] != ' ' || value[11] != ' ' || value[16] != ' ') return null
+        if (value[19] != ':' || value[22] != ':') return null
+        val day = digits(value, 5, 2) ?: return null
+        val month = MONTHS.indexOf(value.substring(8, 11)) + 1
+        val year = digits(value, 12, 4) ?: return null
+        val hour = digits(value, 17, 2) ?: return null
+        val minute = digits(value, 20, 2) ?: return null
+        val second = digits(value, 23, 2) ?: return null
+        if (month == 0 || day !in 1..31 || hour > 23 || minute > 59 || second > 60) return null
+        val days = daysFromCivil(year, month, day)
+        return (((days * 24 + hour) * 60 + minute) * 60 + second) * 1000L
+    }
+
+    private fun digits(s: String, start: Int, length: Int): Int? {
+        var value = 0
+        for (i in start until start + length) {
+            val c = s[i]
+            if (c !in '0'..'9') return null
+            value = value * 10 + (c - '0')
+        }
+        return value
+    }
+
+    // Days since 1970-01-01 for a proleptic Gregorian date (H. Hinnant's days_from_civil).
+    private fun daysFromCivil(year: Int, month: Int, day: Int): Long {
+        val y = if (month <= 2) year - 1 else year
+        val era = (if (y >= 0) y else y - 399) / 400
+        val yearOfEra = y - era * 400
+        val dayOfYear = (153 * (month + if (month > 2) -3 else 9) + 2) / 5 + day - 1
+        val dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear
+        return era * 146_097L + dayOfEra - 719_468L
+    }
+}
@@ -4,7 +4,9 @@ import android.os.Handler
 import android.os.Looper
 import com.rivalapexmediation.sdk.contract.*
 import com.rivalapexmediation.sdk.util.ClockProvider
+import com.rivalapexmediation.sdk.util.LogBuckets
 import kotlinx.coroutines.*
+import kotlinx.coroutines.selects.select
 import java.util.concurrent.*
 import java.util.concurrent.atomic.AtomicInteger
 import java.util.concurrent.atomic.AtomicLong
@@ -87,6 +89,9 @@ class TimeoutEnforcer(private val scope: CoroutineScope) {
             }
         } catch (e: TimeoutCancellationException) {
             Result.failure(AdapterError.Recoverable(ErrorCode.TIMEOUT, "Operation exceeded ${timeoutMs}ms"))
+        } catch (e: kotlin.coroutines.cancellation.CancellationException) {
+            // Caller cancelled (e.g. the auction already has a winner); not an adapter failure.
+            throw e
         } catch (e: Exception) {
             Result.failure(e)
         }
@@ -125,21 +130,44 @@ class HedgeManager {
         return percentile.getPercentile(0.95)?.toLong()
     }
     
+    /**
+     * Sliding-window percentile over the last [windowSize] samples in constant time.
+     *
+     * Samples live in a ring buffer (for eviction) and a fixed histogram over [LogBuckets], the
+     * layout LatencyHistogram uses: values below 128 are exact and a reported percentile is
+     * within ~6% above the exact one. [add] touches two buckets and [getPercentile] walks at
+     * most [LogBuckets.COUNT] counters, independent of the window size.
+     */
     class MovingPercentile(private val windowSize: Int) {
-        private val values = ConcurrentLinkedQueue<Long>()
+        private val ring = LongArray(windowSize.coerceAtLeast(1))
+        private val counts = IntArray(LogBuckets.COUNT)
+        private var next = 0
+        private var size = 0
         
+        @Synchronized
         fun add(value: Long) {
-            values.add(value)
-            while (values.size > windowSize) {
-                values.poll()
+            val v = value.coerceAtLeast(0L)
+            if (size == ring.size) {
+                counts[LogBuckets.bucketOf(ring[next])]--
+            } else {
+                size++
             }
+            ring[next] = v
+            counts[LogBuckets.bucketOf(v)]++
+            next = (next + 1) % ring.size
         }
         
+        /** The bucket bound of the sample at index floor(p * (n - 1)), as [LogBuckets.rank]. */
+        @Synchronized
         fun getPercentile(p: Double): Double? {
-            if (values.isEmpty()) return null
-            val sorted = values.sorted()
-            val index = (sorted.size * p).toInt().coerceIn(0, sorted.size - 1)
-            return sorted[index].toDouble()
+            if (size == 0) return null
+            val rank = LogBuckets.rank(p, size.toLong())
+            var seen = 0
+            for (i in 0 until LogBuckets.COUNT) {
+                seen += counts[i]
+                if (seen > rank) return LogBuckets.upperBound(i).toDouble()
+            }
+            return LogBuckets.upperBound(LogBuckets.COUNT - 1).toDouble()
         }
     }
 }
@@ -149,7 +177,9 @@ class HedgeManager {
 class AdapterRuntimeWrapper(
     private val adapter: AdNetworkAdapterV2,
     private val partnerId: String,
-    private val scope: CoroutineScope = CoroutineScope(Dispatchers.Default + SupervisorJob())
+    private val scope: CoroutineScope = CoroutineScope(Dispatchers.Default + SupervisorJob()),
+    // Dispatcher that absorbs the adapter's blocking load call; bounded by the caller.
+    private val loadDispatcher: CoroutineDispatcher = Dispatchers.IO
 ) {
     private val circuitBreakers = ConcurrentHashMap<String, CircuitBreaker>()
     private val hedgeManager = HedgeManager()
@@ -185,8 +215,8 @@ class AdapterRuntimeWrapper(
             
             try {
                 val result = timeoutEnforcer.withTimeout(timeoutMs) {
-                    // Ensure no blocking on main thread
-                    withContext(Dispatchers.IO) {
+                    // Ensure no blocking on main thread; interruptible so cancelled loads free the thread
+                    runInterruptible(loadDispatcher) {
                         adapter.loadInterstitial(placement, meta, timeoutMs)
                     }
                 }
@@ -226,12 +256,16 @@ class AdapterRuntimeWrapper(
     }
     
     /**
-     * Load with hedging: start second request at p95 latency
+     * Load with hedging: once the primary request has been outstanding for this adapter's p95
+     * latency, a second request races it and the first success wins. [acquireHedge] gates the
+     * hedge (budget); [onHedgeSettled] reports whether a fired hedge produced the result.
      */
     suspend fun loadWithHedging(
         placement: String,
         meta: RequestMeta,
-        timeoutMs: Int
+        timeoutMs: Int,
+        acquireHedge: () -> Boolean = { true },
+        onHedgeSettled: (hedgeWon: Boolean) -> Unit = {}
     ): LoadResult = coroutineScope {
         val hedgeDelay = hedgeManager.getHedgeDelayMs("$partnerId:$placement")
         
@@ -240,25 +274,31 @@ class AdapterRuntimeWrapper(
             return@coroutineScope loadInterstitialWithEnforcement(placement, meta, timeoutMs)
         }
         
-        // Start primary
-        val primary = async { loadInterstitialWithEnforcement(placement, meta, timeoutMs) }
-        
-        // Start hedge after delay
-        val hedge = async {
-            delay(hedgeDelay)
-            loadInterstitialWithEnforcement(placement, meta, timeoutMs - hedgeDelay.toInt())
+        // Failures are captured so one racer failing does not cancel the other.
+        val primary = async { runCatching { loadInterstitialWithEnforcement(placement, meta, timeoutMs) } }
+        val early = withTimeoutOrNull(hedgeDelay) { primary.await() }
+        if (early != null || !acquireHedge()) {
+            return@coroutineScope (early ?: primary.await()).getOrThrow()
         }
         
-        // Return first success (race)
-        try {
-            withTimeout(timeoutMs.toLong()) {
-                val primaryResult = primary.await()
-                hedge.cancel()
-                primaryResult
+        val hedge = async { runCatching { loadInterstitialWithEnforcement(placement, meta, timeoutMs - hedgeDelay.toInt()) } }
+        var pending = listOf(primary, hedge)
+        var firstError: Throwable? = null
+        while (pending.isNotEmpty()) {
+            val (winner, outcome) = select<Pair<Deferred<Result<LoadResult>>, Result<LoadResult>>> {
+                pending.forEach { racer -> racer.onAwait { racer to it } }
             }
-        } catch (e: TimeoutCancellationException) {
-            hedge.await()
+            pending = pending - winner
+            val result = outcome.getOrNull()
+            if (result != null) {
+                pending.forEach { it.cancel() }
+                onHedgeSettled(winner === hedge)
+                return@coroutineScope result
+            }
+            if (firstError == null) firstError = outcome.exceptionOrNull()
         }
+        onHedgeSettled(false)
+        throw firstError ?: AdapterError.Fatal(ErrorCode.ERROR, "Hedged load failed")
     }
     
     /**
@@ -0,0 +1,66 @@
+package com.rivalapexmediation.sdk.runtime
+
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.withTimeoutOrNull
+import java.util.concurrent.TimeUnit
+
+/**
+ * Drains concurrent adapter calls in completion order against one deadline.
+ *
+ * Results are taken as they land rather than in submission order, so a slow adapter early in the
+ * list cannot hide fast bids behind it. Collection stops once every call has finished, the
+ * deadline passes, or a result satisfies [isDecisive]; calls that already finished by then are
+ * still collected, and the rest are cancelled.
+ */
+internal object BidCollector {
+
+    /**
+     * Returns the results of [calls] collected within [timeoutMs]. [onFailure] receives calls
+     * that failed with an exception; [onStraggler] is invoked for each call cancelled at the
+     * deadline, but not for calls cancelled after a decisive result.
+     */
+    suspend fun <T> collect(
+        calls: List<Deferred<T>>,
+        timeoutMs: Long,
+        isDecisive: (T) -> Boolean = { false },
+        onFailure: (Exception) -> Unit = {},
+        onStraggler: () -> Unit = {},
+    ): List<T> {
+        val deadlineNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs)
+        val completions = Channel<Deferred<T>>(Channel.UNLIMITED)
+        calls.forEach { call -> call.invokeOnCompletion { completions.trySend(call) } }
+
+        val results = ArrayList<T>(calls.size)
+        var pending = calls.size
+        var decided = false
+        while (pending > 0) {
+            val remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNs - System.nanoTime())
+            // Once decided or past the deadline, only take what has already completed; a call
+            // that finished right at the deadline may be queued without receive() seeing it.
+            val next = if (!decided && remainingMs > 0) {
+                withTimeoutOrNull(remainingMs) { completions.receive() } ?: completions.tryReceive().getOrNull()
+            } else {
+                completions.tryReceive().getOrNull()
+            }
+            if (next == null) break
+            pending--
+            try {
+                val result = next.await()
+                results += result
+                if (isDecisive(result)) decided = true
+            } catch (e: CancellationException) {
+                // Cancelled elsewhere; nothing to collect.
+            } catch (e: Exception) {
+                onFailure(e)
+            }
+        }
+
+        calls.filter { !it.isCompleted }.forEach { call ->
+            call.cancel()
+            if (!decided) onStraggler()
+        }
+        return results
+    }
+}
@@ -0,0 +1,68 @@
+package com.rivalapexmediation.sdk.runtime
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Per-placement accounting for hedged requests.
+ *
+ * Every hedge-eligible request is counted with [recordRequest]; [tryAcquire] grants a hedge
+ * only while hedges stay within the placement's budget (a percentage of those requests), so
+ * a slow network can never double the load it generates. [recordOutcome] tracks how often the
+ * hedge, rather than the original request, produced the result.
+ */
+class HedgeBudget {
+    data class Stats(
+        val requests: Long,
+        val hedges: Long,
+        val hedgeWins: Long
+    ) {
+        /** Extra requests caused by hedging, as a fraction of eligible requests. */
+        val extraLoad: Double get() = if (requests == 0L) 0.0 else hedges.toDouble() / requests
+
+        /** Fraction of fired hedges that beat the original request. */
+        val winRate: Double get() = if (hedges == 0L) 0.0 else hedgeWins.toDouble() / hedges
+    }
+
+    private class Counters {
+        val requests = AtomicLong(0)
+        val hedges = AtomicLong(0)
+        val wins = AtomicLong(0)
+    }
+
+    private val byPlacement = ConcurrentHashMap<String, Counters>()
+
+    fun recordRequest(placement: String) {
+        counters(placement).requests.incrementAndGet()
+    }
+
+    /**
+     * Reserves one hedge for [placement] if the budget allows it.
+     */
+    fun tryAcquire(placement: String, budgetPercent: Double): Boolean {
+        if (budgetPercent <= 0.0) return false
+        val c = counters(placement)
+        val cap = (c.requests.get() * budgetPercent / 100.0).toLong()
+        while (true) {
+            val used = c.hedges.get()
+            if (used >= cap) return false
+            if (c.hedges.compareAndSet(used, used + 1)) return true
+        }
+    }
+
+    fun recordOutcome(placement: String, hedgeWon: Boolean) {
+        if (hedgeWon) counters(placement).wins.incrementAndGet()
+    }
+
+    fun stats(placement: String): Stats {
+        val c = byPlacement[placement] ?: return Stats(0, 0, 0)
+        return Stats(c.requests.get(), c.hedges.get(), c.wins.get())
+    }
+
+    fun clear() {
+        byPlacement.clear()
+    }
+
+    // getOrPut, not computeIfAbsent: ConcurrentHashMap only has the latter from API 24.
+    private fun counters(placement: String): Counters = byPlacement.getOrPut(placement) { Counters() }
+}
@@ -0,0 +1,96 @@
+package com.rivalapexmediation.sdk.runtime
+
+/**
+ * What a load request does when the same placement already has a load in flight.
+ */
+enum class LoadJoinPolicy {
+    /** Attach to the running load; every caller receives its result. */
+    JOIN,
+
+    /**
+     * Start an additional load while the placement's multi-slot inventory has room for another
+     * ad (cached plus in-flight below capacity); otherwise join like [JOIN].
+     */
+    TOP_UP,
+}
+
+/**
+ * Single-flight bookkeeping for per-placement ad loads.
+ *
+ * [begin] either hands back a new [Flight] (the caller must run the load and later [complete]
+ * it) or attaches the caller's waiter to a running flight and returns null. A flight stays
+ * joinable until it is [release]d, which the loader does as soon as its work is done, even if
+ * result delivery is still queued; waiters attached before that are returned by [complete].
+ *
+ * Loads are user-driven and infrequent, so a single lock keeps this simple.
+ */
+class LoadCoalescer<W>(private val policy: LoadJoinPolicy = LoadJoinPolicy.JOIN) {
+
+    class Flight<W> internal constructor(val placement: String, first: W) {
+        internal val waiters = mutableListOf(first)
+        internal var completed = false
+    }
+
+    private val lock = Any()
+    private val flights = HashMap<String, MutableList<Flight<W>>>()
+
+    /**
+     * Registers [waiter] for [placement]. Returns a flight the caller must run, or null when the
+     * waiter joined a running load. [canTopUp] receives the number of loads in flight and is
+     * only consulted under [LoadJoinPolicy.TOP_UP].
+     */
+    fun begin(placement: String, waiter: W, canTopUp: (inFlight: Int) -> Boolean = { false }): Flight<W>? {
+        synchronized(lock) {
+            val running = flights[placement]
+            if (running.isNullOrEmpty()) {
+                return Flight(placement, waiter).also { flights[placement] = mutableListOf(it) }
+            }
+            if (policy == LoadJoinPolicy.TOP_UP && canTopUp(running.size)) {
+                return Flight(placement, waiter).also { running += it }
+            }
+            // Join the oldest load: it is the closest to delivering.
+            running.first().waiters += waiter
+            return null
+        }
+    }
+
+    /**
+     * Stops [flight] from accepting new waiters. Idempotent.
+     */
+    fun release(flight: Flight<W>) {
+        synchronized(lock) {
+            val running = flights[flight.placement] ?: return
+            running.remove(flight)
+            if (running.isEmpty()) flights.remove(flight.placement)
+        }
+    }
+
+    /**
+     * Releases [flight] and returns its waiters for result delivery. Returns an empty list if
+     * the flight was already completed, so each waiter is notified at most once.
+     */
+    fun complete(flight: Flight<W>): List<W> {
+        synchronized(lock) {
+            val running = flights[flight.placement]
+            if (running != null) {
+                running.remove(flight)
+                if (running.isEmpty()) flights.remove(flight.placement)
+            }
+            if (flight.completed) return emptyList()
+            flight.completed = true
+            return flight.waiters.toList()
+        }
+    }
+
+    /**
+     * Number of loads currently joinable for [placement].
+     */
+    fun inFlight(placement: String): Int = synchronized(lock) { flights[placement]?.size ?: 0 }
+
+    /**
+     * Forgets every flight without notifying waiters (shutdown).
+     */
+    fun clear() {
+        synchronized(lock) { flights.clear() }
+    }
+}
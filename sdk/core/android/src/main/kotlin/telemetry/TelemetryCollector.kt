@@ -6,7 +6,10 @@ import com.rivalapexmediation.sdk.SDKConfig
 import com.rivalapexmediation.sdk.models.EventType
 import com.rivalapexmediation.sdk.models.TelemetryEvent
 import com.google.gson.Gson
+import com.rivalapexmediation.sdk.network.HttpClientRegistry
 import com.rivalapexmediation.sdk.util.ClockProvider
+import com.rivalapexmediation.sdk.util.LatencyHistogram
+import com.rivalapexmediation.sdk.util.StripedLong
 import okhttp3.MediaType.Companion.toMediaType
 import okhttp3.OkHttpClient
 import okhttp3.Request
@@ -29,8 +32,15 @@ class TelemetryCollector(
     private val context: Context,
     private val config: SDKConfig
 ) {
-    private val eventQueue = mutableListOf<TelemetryEvent>()
-    private val queueLock = Any()
+    // Producers (main thread, adapter threads) enqueue lock-free; only flushes take flushLock.
+    private val eventQueue = TelemetryRing<TelemetryEvent>(
+        capacity = (if (config.observabilityMaxQueue > 0) config.observabilityMaxQueue else 500).coerceAtLeast(100),
+        policy = config.telemetryDropPolicy
+    )
+    private val flushLock = Any()
+    private val flushPending = java.util.concurrent.atomic.AtomicBoolean(false)
+    // Events from a failed upload, resent ahead of newer ones (guarded by flushLock).
+    private var retryBatch: List<TelemetryEvent> = emptyList()
     
     private val executor = Executors.newSingleThreadScheduledExecutor { r ->
         Thread(r, "RivalApexMediation-Telemetry").apply {
@@ -38,15 +48,42 @@ class TelemetryCollector(
         }
     }
     
-    private val httpClient = OkHttpClient.Builder()
-        .connectTimeout(5, TimeUnit.SECONDS)
-        .readTimeout(10, TimeUnit.SECONDS)
-        .build()
+    private val httpClient: OkHttpClient = HttpClientRegistry.client(
+        HttpClientRegistry.Profile(
+            connectTimeoutMs = 5_000,
+            readTimeoutMs = 10_000,
+            writeTimeoutMs = 10_000,
+            callTimeoutMs = 0,
+            retryOnConnectionFailure = true,
+            followRedirects = true,
+        )
+    )
     
     private val gson = Gson()
+
+    // Crash-safe copy of queued events; replayed into the queue on start.
+    private val journal: TelemetryJournal? =
+        if (config.telemetryEnabled && config.telemetryJournalEnabled) TelemetryJournal.create(context, gson) else null
     
-    private val batchSize = 10
-    private val flushInterval = 30000L // 30 seconds
+    // Batch size and periodic interval adapt to queue depth and upload failures.
+    private val uploadPolicy = TelemetryUploadPolicy()
+    // Minimum spacing between uploads piggybacked on other SDK requests.
+    private val piggybackMinIntervalMs = 10_000L
+    @Volatile private var lastUploadAtMs: Long? = null
+    private val uploads = java.util.concurrent.atomic.AtomicLong(0)
+    private val uploadFailures = java.util.concurrent.atomic.AtomicLong(0)
+    private val bytesOnWire = java.util.concurrent.atomic.AtomicLong(0)
+    private val bytesRaw = java.util.concurrent.atomic.AtomicLong(0)
+
+    // The radio is already up for another SDK request: flush now rather than wake it later.
+    private val networkActivityListener = HttpClientRegistry.ActivityListener {
+        val now = ClockProvider.clock.monotonicNow()
+        val last = lastUploadAtMs
+        val spaced = last == null || now - last >= piggybackMinIntervalMs
+        if (spaced && eventQueue.size() > 0 && uploadPolicy.canUpload(now)) {
+            requestFlush()
+        }
+    }
     private val random = java.util.Random()
     
     @Volatile
@@ -54,18 +91,19 @@ class TelemetryCollector(
     private val sampleRate: Double get() = config.observabilitySampleRate.coerceIn(0.0, 1.0)
 
     // --- P1.9: Lightweight in-memory observability metrics (privacy-clean) ---
-    // We track per {placement, adapter} rolling latencies and outcome counters in-memory
-    // for quick developer diagnostics. Bounded memory via small reservoirs per key.
+    // We track per {placement, adapter} latencies and outcome counters in-memory for quick
+    // developer diagnostics. Latencies go into fixed-size log-bucket histograms covering the
+    // whole session.
     private data class Key(val placement: String, val adapter: String)
-    private data class Counters(
-        var fills: Long = 0,
-        var noFills: Long = 0,
-        var timeouts: Long = 0,
-        var errors: Long = 0,
-    )
+    // Striped: adapter threads finishing in parallel increment the same key.
+    private class Counters {
+        val fills = StripedLong()
+        val noFills = StripedLong()
+        val timeouts = StripedLong()
+        val errors = StripedLong()
+    }
     private val counters = java.util.concurrent.ConcurrentHashMap<Key, Counters>()
-    private val latencyReservoirs = java.util.concurrent.ConcurrentHashMap<Key, ArrayDeque<Long>>()
-    private val reservoirMax = 200 // up to 200 recent latencies per key
+    private val latencyHistograms = java.util.concurrent.ConcurrentHashMap<Key, LatencyHistogram>()
 
     private fun getOrCreateCounters(key: Key): Counters {
         var c = counters[key]
@@ -75,11 +113,11 @@ class TelemetryCollector(
         return prev ?: created
     }
 
-    private fun getOrCreateReservoir(key: Key): ArrayDeque<Long> {
-        var dq = latencyReservoirs[key]
-        if (dq != null) return dq
-        val created = ArrayDeque<Long>()
-        val prev = latencyReservoirs.putIfAbsent(key, created)
+    private fun getOrCreateHistogram(key: Key): LatencyHistogram {
+        val existing = latencyHistograms[key]
+        if (existing != null) return existing
+        val created = LatencyHistogram()
+        val prev = latencyHistograms.putIfAbsent(key, created)
         return prev ?: created
     }
 
@@ -90,45 +128,43 @@ class TelemetryCollector(
         // Update counters
         val c = getOrCreateCounters(key)
         when (outcome) {
-            "fill" -> c.fills++
-            "no_fill" -> c.noFills++
-            "timeout" -> c.timeouts++
-            "error" -> c.errors++
+            "fill" -> c.fills.increment()
+            "no_fill" -> c.noFills.increment()
+            "timeout" -> c.timeouts.increment()
+            "error" -> c.errors.increment()
         }
-        // Update latency reservoir
+        // Update latency histogram
         if (latencyMs != null && latencyMs >= 0) {
-            val dq = getOrCreateReservoir(key)
-            dq.addLast(latencyMs)
-            while (dq.size > reservoirMax) dq.removeFirst()
+            getOrCreateHistogram(key).record(latencyMs)
         }
     }
 
-    // Percentiles computed over the local reservoir (best-effort, dev-only diagnostics)
-    fun getLocalPercentiles(placement: String, adapter: String): Map<String, Long> {
-        val key = Key(placement, adapter)
-        val arr = latencyReservoirs[key]?.toLongArray() ?: LongArray(0)
-        if (arr.isEmpty()) return emptyMap()
-        java.util.Arrays.sort(arr)
-        fun pct(p: Double): Long {
-            if (arr.isEmpty()) return 0L
-            val idx = kotlin.math.min(arr.size - 1, kotlin.math.max(0, kotlin.math.floor(p * (arr.size - 1)).toInt()))
-            return arr[idx]
+    // Session percentiles (best-effort, dev-only diagnostics); exact below 128ms, within 6.25% above.
+    fun getLocalPercentiles(placement: String, adapter: String): Map<String, Long> =
+        percentilesOf(latencyHistograms[Key(placement, adapter)]?.snapshot())
+
+    /** Percentiles for [placement] across all of its adapters (merged histograms). */
+    fun getLocalPercentiles(placement: String): Map<String, Long> {
+        var merged: LatencyHistogram.Snapshot? = null
+        for ((key, histogram) in latencyHistograms) {
+            if (key.placement != placement) continue
+            val snap = histogram.snapshot()
+            merged = merged?.merge(snap) ?: snap
         }
-        return mapOf(
-            "p50" to pct(0.50),
-            "p95" to pct(0.95),
-            "p99" to pct(0.99),
-        )
+        return percentilesOf(merged)
     }
 
+    private fun percentilesOf(snapshot: LatencyHistogram.Snapshot?): Map<String, Long> =
+        snapshot?.percentileMap() ?: emptyMap()
+
     fun getLocalCounters(placement: String, adapter: String): Map<String, Long> {
         val key = Key(placement, adapter)
         val c = counters[key] ?: return emptyMap()
         return mapOf(
-            "fills" to c.fills,
-            "no_fills" to c.noFills,
-            "timeouts" to c.timeouts,
-            "errors" to c.errors,
+            "fills" to c.fills.sum(),
+            "no_fills" to c.noFills.sum(),
+            "timeouts" to c.timeouts.sum(),
+            "errors" to c.errors.sum(),
         )
     }
     
@@ -141,14 +177,26 @@ class TelemetryCollector(
         }
         
         isRunning = true
+
+        journal?.open { recovered ->
+            // Already journaled: enqueue directly instead of through recordEvent.
+            recovered.forEach { eventQueue.offer(it) }
+            requestFlush()
+        }
         
-        // Schedule periodic flush
-        executor.scheduleWithFixedDelay(
-            { flushEvents() },
-            flushInterval,
-            flushInterval,
-            TimeUnit.MILLISECONDS
-        )
+        HttpClientRegistry.addActivityListener(networkActivityListener)
+        schedulePeriodicFlush()
+    }
+
+    // Re-armed after every run so the delay follows the upload policy's backoff.
+    private fun schedulePeriodicFlush() {
+        try {
+            executor.schedule({
+                if (uploadPolicy.canUpload(ClockProvider.clock.monotonicNow())) flushEvents()
+                if (isRunning) schedulePeriodicFlush()
+            }, uploadPolicy.intervalMs, TimeUnit.MILLISECONDS)
+        } catch (_: java.util.concurrent.RejectedExecutionException) {
+        }
     }
     
     /**
@@ -156,6 +204,7 @@ class TelemetryCollector(
      */
     fun stop() {
         isRunning = false
+        HttpClientRegistry.removeActivityListener(networkActivityListener)
         
         // Flush remaining events
         flushEvents()
@@ -166,6 +215,7 @@ class TelemetryCollector(
         } catch (e: InterruptedException) {
             executor.shutdownNow()
         }
+        journal?.close()
     }
     
     /**
@@ -321,7 +371,7 @@ class TelemetryCollector(
 
     /** Auction client network latency recorder (dev/observability). Outcome: success | timeout | network_error | status_XXX | error. */
     fun recordAuctionClientLatency(outcome: String, latencyMs: Long) {
-        // Reuse local metrics reservoirs under a dedicated key
+        // Reuse local metrics histograms under a dedicated key
         recordOutcomeSampled("auction", "client", outcome, latencyMs)
         if (!config.observabilityEnabled || !shouldSample()) return
         val meta = HashMap<String, Any>()
@@ -339,6 +389,48 @@ class TelemetryCollector(
         )
     }
 
+    /**
+     * Whether the session's first S2S auction ran over a connection pre-established by warm-up
+     * (reused) or had to open its own. Once per auction client, so not sampled.
+     */
+    fun recordFirstAuctionConnection(reused: Boolean, protocol: String) {
+        if (!config.observabilityEnabled) return
+        recordEvent(
+            TelemetryEvent(
+                eventType = EventType.ADAPTER_SPAN_FINISH,
+                placement = "auction",
+                networkName = "connection",
+                metadata = mapOf(
+                    "phase" to "first_auction",
+                    "connection_reused" to reused,
+                    "protocol" to protocol
+                )
+            )
+        )
+    }
+
+    /**
+     * A fired latency hedge settled. Carries the placement's running hedge win rate and extra
+     * load so dashboards can weigh tail-latency gains against the added requests.
+     */
+    fun recordHedgeOutcome(placement: String, source: String, hedgeWon: Boolean, winRate: Double, extraLoad: Double) {
+        if (!config.observabilityEnabled) return
+        recordEvent(
+            TelemetryEvent(
+                eventType = EventType.ADAPTER_SPAN_FINISH,
+                placement = placement,
+                networkName = "hedge",
+                metadata = mapOf(
+                    "phase" to "hedge",
+                    "source" to source,
+                    "hedge_won" to hedgeWon,
+                    "win_rate" to winRate,
+                    "extra_load" to extraLoad
+                )
+            )
+        )
+    }
+
     /**
      * Record a credential validation success for a given network (BYO ValidationMode).
      * Metadata must not contain secrets; only include key names or booleans.
@@ -378,73 +470,102 @@ class TelemetryCollector(
         }
         
         val safeEvent = TelemetryRedactor.sanitize(event)
-        synchronized(queueLock) {
-            eventQueue.add(safeEvent)
-            
-            // Auto-flush if batch size reached
-            if (eventQueue.size >= batchSize) {
-                executor.execute { flushEvents() }
-            }
+        if (!eventQueue.offer(safeEvent)) return
+        journal?.append(safeEvent)
 
-            // Apply hard cap to queue size to avoid memory growth
-            val maxQ = (if (config.observabilityMaxQueue > 0) config.observabilityMaxQueue else 500).coerceAtLeast(100)
-            if (eventQueue.size > maxQ) {
-                // Drop oldest beyond cap
-                eventQueue.subList(0, eventQueue.size - maxQ).clear()
+        // Auto-flush if batch size reached; one scheduled flush drains everything queued by then.
+        if (eventQueue.size() >= uploadPolicy.batchSize && uploadPolicy.canUpload(ClockProvider.clock.monotonicNow())) {
+            requestFlush()
+        }
+    }
+
+    private fun requestFlush() {
+        if (flushPending.compareAndSet(false, true)) {
+            try {
+                executor.execute { flushEvents() }
+            } catch (_: java.util.concurrent.RejectedExecutionException) {
+                flushPending.set(false)
             }
         }
     }
+
+    /** Events dropped by the bounded queue since start, by cause. */
+    fun getQueueDropCounters(): Map<String, Long> {
+        val drops = eventQueue.dropCounters()
+        return mapOf(
+            "dropped_oldest" to drops.droppedOldest,
+            "dropped_newest" to drops.droppedNewest,
+            "sampled_out" to drops.sampledOut,
+        )
+    }
     
+    /** Upload counters since start: requests, failures, compressed and raw payload bytes. */
+    fun getUploadStats(): Map<String, Long> = mapOf(
+        "uploads" to uploads.get(),
+        "upload_failures" to uploadFailures.get(),
+        "bytes_on_wire" to bytesOnWire.get(),
+        "bytes_raw" to bytesRaw.get(),
+        "batch_size" to uploadPolicy.batchSize.toLong(),
+        "interval_ms" to uploadPolicy.intervalMs,
+    )
+
     /**
      * Flush events to backend
      */
     private fun flushEvents() {
-        val eventsToSend: List<TelemetryEvent>
-        
-        synchronized(queueLock) {
-            if (eventQueue.isEmpty()) {
+        flushPending.set(false)
+        synchronized(flushLock) {
+            // Seal the journal first: everything in sealed segments is in this batch (or was dropped).
+            val journalMark = journal?.mark() ?: -1L
+            val eventsToSend = ArrayList<TelemetryEvent>(retryBatch.size + eventQueue.size())
+            eventsToSend.addAll(retryBatch)
+            retryBatch = emptyList()
+            eventQueue.drainTo(eventsToSend)
+            if (eventsToSend.isEmpty()) {
+                journal?.commit(journalMark)
                 return
             }
-            
-            eventsToSend = eventQueue.toList()
-            eventQueue.clear()
-        }
 
-        // Partition into adapter-span events (observability) vs general telemetry
-        val spans = eventsToSend.filter { it.eventType == EventType.ADAPTER_SPAN_START || it.eventType == EventType.ADAPTER_SPAN_FINISH }
-        val others = eventsToSend - spans.toSet()
-        try {
-            if (spans.isNotEmpty()) sendSpanEvents(spans)
-            if (others.isNotEmpty()) sendEvents(others)
-        } catch (e: Exception) {
-            // Re-queue events on failure
-            synchronized(queueLock) {
-                eventQueue.addAll(0, eventsToSend)
-                // Limit queue size to prevent memory issues (configurable)
-                val maxQ = (if (config.observabilityMaxQueue > 0) config.observabilityMaxQueue else 500).coerceAtLeast(100)
-                if (eventQueue.size > maxQ) {
-                    eventQueue.subList(0, eventQueue.size - maxQ).clear()
+            lastUploadAtMs = ClockProvider.clock.monotonicNow()
+            val chunkSize = uploadPolicy.batchSize
+            // Spans and other events go to different endpoints. Chunks never mix the two, so a
+            // failed POST only returns its own chunk and what follows it to the retry batch.
+            val (spans, others) = eventsToSend.partition { it.isSpan() }
+            val ordered = spans + others
+            var sent = 0
+            try {
+                while (sent < ordered.size) {
+                    val inSpans = sent < spans.size
+                    val end = minOf(if (inSpans) spans.size else ordered.size, sent + chunkSize)
+                    val chunk = ordered.subList(sent, end)
+                    if (inSpans) sendSpanEvents(chunk) else sendEvents(chunk)
+                    sent = end
                 }
+                journal?.commit(journalMark)
+                uploadPolicy.onSuccess(sent = sent, backlog = eventQueue.size())
+            } catch (e: Exception) {
+                uploadFailures.incrementAndGet()
+                uploadPolicy.onFailure(ClockProvider.clock.monotonicNow())
+                // Keep the unsent events for the next flush, bounded like the queue (oldest dropped first).
+                val unsent = ordered.subList(sent, ordered.size)
+                val overflow = unsent.size - eventQueue.capacity
+                eventQueue.recordEvicted(overflow)
+                retryBatch = if (overflow > 0) unsent.subList(overflow, unsent.size).toList() else unsent.toList()
             }
         }
     }
+
+    // Adapter-span events (observability) go to the BYO spans endpoint, the rest to telemetry.
+    private fun TelemetryEvent.isSpan(): Boolean =
+        eventType == EventType.ADAPTER_SPAN_START || eventType == EventType.ADAPTER_SPAN_FINISH
     
     /**
-     * Send adapter span events to analytics BYO spans endpoint (no gzip; sampled and sanitized).
+     * Send adapter span events to analytics BYO spans endpoint (compressed; sampled and sanitized).
      */
     private fun sendSpanEvents(events: List<TelemetryEvent>) {
         val base = config.configEndpoint.trimEnd('/')
-        val url = "$base/api/v1/analytics/byo/spans"
-        val json = gson.toJson(events)
-        val request = Request.Builder()
-            .url(url)
-            .post(json.toRequestBody("application/json".toMediaType()))
-            .addHeader("User-Agent", "RivalApexMediation-Android/${BuildConfig.SDK_VERSION}")
-            .addHeader("X-App-Id", config.appId)
-            .build()
-        val response = httpClient.newCall(request).execute()
-        if (!response.isSuccessful) {
-            throw Exception("Span telemetry upload failed: ${response.code}")
+        post("$base/api/v1/analytics/byo/spans", gson.toJson(events), "Span telemetry") {
+            addHeader("X-App-Id", config.appId)
         }
     }
 
@@ -456,23 +577,30 @@ class TelemetryCollector(
             "app_id" to config.appId,
             "sdk_version" to BuildConfig.SDK_VERSION,
             "platform" to "android",
-            "events" to events
+            "events" to events,
+            "queue_drops" to getQueueDropCounters()
         )
-        
-        val json = gson.toJson(payload)
-        val compressed = compressGzip(json.toByteArray())
-        
+        post("${config.configEndpoint}/v1/telemetry", gson.toJson(payload), "Telemetry")
+    }
+
+    private fun post(url: String, json: String, label: String, headers: Request.Builder.() -> Unit = {}) {
+        val raw = json.toByteArray()
+        val compressed = compressGzip(raw)
         val request = Request.Builder()
-            .url("${config.configEndpoint}/v1/telemetry")
+            .url(url)
             .post(compressed.toRequestBody("application/json".toMediaType()))
             .addHeader("Content-Encoding", "gzip")
             .addHeader("User-Agent", "RivalApexMediation-Android/${BuildConfig.SDK_VERSION}")
+            .tag(HttpClientRegistry.BackgroundTraffic::class.java, HttpClientRegistry.BackgroundTraffic)
+            .apply(headers)
             .build()
-        
-        val response = httpClient.newCall(request).execute()
-        
-        if (!response.isSuccessful) {
-            throw Exception("Telemetry upload failed: ${response.code}")
+        uploads.incrementAndGet()
+        bytesRaw.addAndGet(raw.size.toLong())
+        bytesOnWire.addAndGet(compressed.size.toLong())
+        httpClient.newCall(request).execute().use { response ->
+            if (!response.isSuccessful) {
+                throw Exception("$label upload failed: ${response.code}")
+            }
         }
     }
     
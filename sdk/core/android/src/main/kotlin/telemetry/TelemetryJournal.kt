@@ -0,0 +1,243 @@
+package com.rivalapexmediation.sdk.telemetry
+
+import android.content.Context
+import com.google.gson.Gson
+import com.rivalapexmediation.sdk.models.TelemetryEvent
+import java.io.BufferedOutputStream
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.util.TreeMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Append-only on-disk journal of telemetry events, so events queued between flushes survive a
+ * process kill.
+ *
+ * Events are written as JSON lines to numbered segment files (`seg-<n>.wal`) that rotate at
+ * [segmentBytes]; the oldest segments are deleted once the journal exceeds [maxBytes]. [append]
+ * only enqueues: a dedicated low-priority thread writes whatever accumulated every
+ * [writeDelayMs] and fsyncs once per batch. A torn last line from a crash fails to parse and is
+ * skipped on replay.
+ *
+ * Compaction follows uploads: [mark] seals the current segment before the collector drains its
+ * queue, and [commit] deletes every segment up to that mark once the upload succeeded. Anything
+ * journaled after the mark stays on disk, so delivery is at-least-once across restarts.
+ */
+internal class TelemetryJournal(
+    // Resolved on the journal thread: Context.getNoBackupFilesDir() may create the directory.
+    private val directorySource: () -> File?,
+    private val gson: Gson = Gson(),
+    private val segmentBytes: Long = DEFAULT_SEGMENT_BYTES,
+    private val maxBytes: Long = DEFAULT_MAX_BYTES,
+    private val writeDelayMs: Long = DEFAULT_WRITE_DELAY_MS,
+) {
+    companion object {
+        private const val DIR_NAME = "rival_telemetry_wal"
+        private const val DEFAULT_SEGMENT_BYTES = 64L * 1024
+        private const val DEFAULT_MAX_BYTES = 1024L * 1024
+        private const val DEFAULT_WRITE_DELAY_MS = 250L
+        private val SEGMENT_NAME = Regex("^seg-(\\d+)\\.wal$")
+
+        /** Journal under the app's no-backup files dir; it stays disabled if that is unavailable. */
+        fun create(context: Context, gson: Gson): TelemetryJournal = TelemetryJournal({
+            val base = try { context.noBackupFilesDir } catch (_: Throwable) { null }
+            base?.takeIf { it.isAbsolute }?.let { File(it, DIR_NAME) }
+        }, gson)
+    }
+
+    private val pending = ConcurrentLinkedQueue<TelemetryEvent>()
+    private val writeScheduled = AtomicBoolean(false)
+    private val writer = Executors.newSingleThreadScheduledExecutor { r ->
+        Thread(r, "RivalApexMediation-TelemetryWal").apply {
+            priority = Thread.MIN_PRIORITY
+        }
+    }
+
+    // Guarded by lock.
+    private val lock = Any()
+    private val segments = TreeMap<Long, Long>() // segment id -> bytes on disk
+    private var directory: File? = null
+    private var currentId = 0L
+    private var current: BufferedOutputStream? = null
+    private var currentFile: FileOutputStream? = null
+    private var opened = false
+
+    @Volatile private var closed = false
+
+    /**
+     * Scans existing segments on the journal thread and hands their events to [onRecovered]
+     * before any [mark] can cover them. Events appended meanwhile are written afterwards.
+     */
+    fun open(onRecovered: (List<TelemetryEvent>) -> Unit) {
+        submit {
+            synchronized(lock) {
+                val dir = try { directorySource() } catch (_: Throwable) { null }
+                if (dir == null || (!dir.isDirectory && !dir.mkdirs())) {
+                    closed = true
+                    pending.clear()
+                    return@submit
+                }
+                directory = dir
+                dir.listFiles()?.forEach { file ->
+                    val id = SEGMENT_NAME.matchEntire(file.name)?.groupValues?.get(1)?.toLongOrNull() ?: return@forEach
+                    segments[id] = file.length()
+                }
+                val recovered = ArrayList<TelemetryEvent>()
+                segments.keys.forEach { id -> readSegment(id, recovered) }
+                if (recovered.isNotEmpty()) onRecovered(recovered)
+                currentId = (segments.lastEntry()?.key ?: 0L) + 1
+                opened = true
+            }
+            writePending()
+        }
+    }
+
+    fun append(event: TelemetryEvent) {
+        if (closed) return
+        pending.add(event)
+        if (writeScheduled.compareAndSet(false, true)) {
+            try {
+                writer.schedule({ writePending() }, writeDelayMs, TimeUnit.MILLISECONDS)
+            } catch (_: RejectedExecutionException) {
+                writeScheduled.set(false)
+            }
+        }
+    }
+
+    /** Seals the current segment; returns the id to pass to [commit], or -1 before [open] finished. */
+    fun mark(): Long {
+        synchronized(lock) {
+            if (!opened) return -1L
+            closeCurrent()
+            return currentId++
+        }
+    }
+
+    /** Deletes segments up to and including [mark] after their events were delivered. */
+    fun commit(mark: Long) {
+        if (mark < 0) return
+        synchronized(lock) {
+            val sealed = segments.headMap(mark, true).keys.toList()
+            sealed.forEach { deleteSegment(it) }
+        }
+    }
+
+    /** Writes what is pending now and waits for it to reach disk (bounded by [timeoutMs]). */
+    fun sync(timeoutMs: Long = 2_000) {
+        try {
+            writer.submit { writePending() }.get(timeoutMs, TimeUnit.MILLISECONDS)
+        } catch (_: Exception) {
+        }
+    }
+
+    /** Writes what is pending and stops the journal thread. */
+    fun close() {
+        closed = true
+        try {
+            writer.execute {
+                writePending()
+                synchronized(lock) { closeCurrent() }
+            }
+        } catch (_: RejectedExecutionException) {
+        }
+        writer.shutdown()
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS)
+        } catch (_: InterruptedException) {
+            writer.shutdownNow()
+        }
+    }
+
+    private fun submit(task: () -> Unit) {
+        try {
+            writer.execute(task)
+        } catch (_: RejectedExecutionException) {
+        }
+    }
+
+    private fun writePending() {
+        writeScheduled.set(false)
+        synchronized(lock) {
+            if (!opened || pending.isEmpty()) return
+            try {
+                while (true) {
+                    val event = pending.poll() ?: break
+                    val line = (gson.toJson(event) + "\n").toByteArray(Charsets.UTF_8)
+                    val written = segments[currentId] ?: 0L
+                    if (written > 0 && written + line.size > segmentBytes) {
+                        closeCurrent()
+                        currentId++
+                    }
+                    val out = current ?: openCurrent()
+                    out.write(line)
+                    segments[currentId] = (segments[currentId] ?: 0L) + line.size
+                }
+                current?.flush()
+                currentFile?.fd?.sync()
+            } catch (_: IOException) {
+                // Best effort: drop the broken stream; the next batch reopens the segment.
+                closeCurrent()
+            }
+            enforceCap()
+        }
+    }
+
+    private fun openCurrent(): BufferedOutputStream {
+        val file = FileOutputStream(segmentFile(currentId), true)
+        currentFile = file
+        return BufferedOutputStream(file).also { current = it }
+    }
+
+    private fun closeCurrent() {
+        try {
+            current?.flush()
+            currentFile?.fd?.sync()
+            current?.close()
+        } catch (_: IOException) {
+        }
+        current = null
+        currentFile = null
+    }
+
+    private fun enforceCap() {
+        var total = segments.values.sum()
+        while (total > maxBytes && segments.size > 1) {
+            val oldest = segments.firstKey()
+            if (oldest == currentId) break
+            total -= segments[oldest] ?: 0L
+            deleteSegment(oldest)
+        }
+    }
+
+    private fun readSegment(id: Long, into: MutableList<TelemetryEvent>) {
+        try {
+            segmentFile(id).bufferedReader(Charsets.UTF_8).useLines { lines ->
+                lines.forEach { line ->
+                    if (line.isBlank()) return@forEach
+                    try {
+                        val event: TelemetryEvent? = gson.fromJson(line, TelemetryEvent::class.java)
+                        // Gson bypasses Kotlin null checks; drop records with an unknown event type.
+                        @Suppress("SENSELESS_COMPARISON")
+                        if (event != null && event.eventType != null) into.add(event)
+                    } catch (_: RuntimeException) {
+                        // Torn or corrupt record; skip it.
+                    }
+                }
+            }
+        } catch (_: IOException) {
+        }
+    }
+
+    private fun deleteSegment(id: Long) {
+        if (id == currentId) closeCurrent()
+        segmentFile(id).delete()
+        segments.remove(id)
+    }
+
+    private fun segmentFile(id: Long) = File(checkNotNull(directory), "seg-$id.wal")
+}
@@ -2,11 +2,20 @@ package com.rivalapexmediation.sdk.telemetry
 
 import com.rivalapexmediation.sdk.logging.Redactor
 import com.rivalapexmediation.sdk.models.TelemetryEvent
+import java.util.concurrent.ConcurrentHashMap
 
 /**
  * Centralized telemetry sanitation to ensure BYO secrets never leave the device.
+ *
+ * Span metadata repeats the same keys across every adapter and load, so whether a key is masked
+ * is memoized. Values are redacted on every call: they are free-form, and caching them would keep
+ * the raw, unredacted strings alive in the memo.
  */
 internal object TelemetryRedactor {
+    // Bounds the key memo in case a caller puts dynamic keys into metadata.
+    private const val MEMO_CAPACITY = 512
+    private val maskedKeys = ConcurrentHashMap<String, Boolean>()
+
     private val sensitiveKeys = setOf(
         "api_key",
         "app_key",
@@ -40,12 +49,12 @@ internal object TelemetryRedactor {
         }
     }
 
-    private fun sanitizeMetadata(metadata: Map<String, *>): Map<String, Any> {
+    fun sanitizeMetadata(metadata: Map<String, *>): Map<String, Any> {
         if (metadata.isEmpty()) return emptyMap()
         val result = LinkedHashMap<String, Any>()
         metadata.forEach { (key, value) ->
             if (key.isBlank()) return@forEach
-            val shouldMask = sensitiveKeys.any { key.contains(it, ignoreCase = true) }
+            val shouldMask = isSensitiveKey(key)
             val sanitized = if (shouldMask) "***" else sanitizeValue(value)
             if (sanitized != null) {
                 result[key] = sanitized
@@ -53,4 +62,12 @@ internal object TelemetryRedactor {
         }
         return result
     }
+
+    private fun isSensitiveKey(key: String): Boolean {
+        maskedKeys[key]?.let { return it }
+        val result = sensitiveKeys.any { key.contains(it, ignoreCase = true) }
+        if (maskedKeys.size >= MEMO_CAPACITY) maskedKeys.clear()
+        maskedKeys[key] = result
+        return result
+    }
 }
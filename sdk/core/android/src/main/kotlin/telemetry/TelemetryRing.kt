@@ -0,0 +1,148 @@
+package com.rivalapexmediation.sdk.telemetry
+
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * What the telemetry queue does with an event when it is (nearly) full.
+ */
+enum class TelemetryDropPolicy {
+    /** Evict the oldest queued event to make room; recent telemetry wins. */
+    DROP_OLDEST,
+
+    /** Reject the new event; what is already queued is kept. */
+    DROP_NEWEST,
+
+    /**
+     * Past half capacity, admit new events with a probability that falls linearly to zero as the
+     * queue fills, so a burst is thinned evenly instead of losing its head or tail.
+     */
+    SAMPLE,
+}
+
+/**
+ * Bounded lock-free queue for telemetry events (Vyukov's bounded MPMC queue).
+ *
+ * Each slot carries a sequence number that tells producers and consumers whether it is free for
+ * position `pos` (`seq == pos`) or holds the item written there (`seq == pos + 1`). Producers
+ * claim positions with a CAS on [tail] and never wait on a consumer; the one drainer claims with
+ * a CAS on [head], which also lets [TelemetryDropPolicy.DROP_OLDEST] producers evict the head
+ * without a lock.
+ */
+internal class TelemetryRing<T : Any>(
+    val capacity: Int,
+    private val policy: TelemetryDropPolicy = TelemetryDropPolicy.DROP_OLDEST,
+) {
+    /** Events lost to the queue bound, by cause. */
+    data class DropCounters(
+        val droppedOldest: Long,
+        val droppedNewest: Long,
+        val sampledOut: Long,
+    ) {
+        val total: Long get() = droppedOldest + droppedNewest + sampledOut
+    }
+
+    init {
+        require(capacity > 0) { "capacity must be positive" }
+    }
+
+    private val slots = AtomicReferenceArray<T?>(capacity)
+    private val sequences = AtomicLongArray(capacity).also { seqs ->
+        for (i in 0 until capacity) seqs.set(i, i.toLong())
+    }
+    private val head = AtomicLong(0)
+    private val tail = AtomicLong(0)
+
+    private val droppedOldest = AtomicLong(0)
+    private val droppedNewest = AtomicLong(0)
+    private val sampledOut = AtomicLong(0)
+
+    /** Approximate number of queued events. */
+    fun size(): Int = (tail.get() - head.get()).coerceIn(0L, capacity.toLong()).toInt()
+
+    /** Enqueues [item] per the drop policy; returns false if it was not admitted. */
+    fun offer(item: T): Boolean {
+        if (policy == TelemetryDropPolicy.SAMPLE && !admitSampled()) {
+            sampledOut.incrementAndGet()
+            return false
+        }
+        while (true) {
+            if (tryOffer(item)) return true
+            if (policy != TelemetryDropPolicy.DROP_OLDEST) {
+                droppedNewest.incrementAndGet()
+                return false
+            }
+            // Full: evict the head and retry. A concurrent drain may have made room meanwhile.
+            if (poll() != null) droppedOldest.incrementAndGet()
+        }
+    }
+
+    /** Dequeues the oldest event, or null when empty. */
+    fun poll(): T? {
+        while (true) {
+            val pos = head.get()
+            val index = indexOf(pos)
+            val diff = sequences.get(index) - (pos + 1)
+            when {
+                diff == 0L -> if (head.compareAndSet(pos, pos + 1)) {
+                    val item = slots.getAndSet(index, null)
+                    sequences.set(index, pos + capacity)
+                    return item
+                }
+                diff < 0L -> return null
+                // else another consumer took this position; reload head.
+            }
+        }
+    }
+
+    /** Moves up to [max] queued events into [sink]; returns how many were moved. */
+    fun drainTo(sink: MutableCollection<in T>, max: Int = capacity): Int {
+        var moved = 0
+        while (moved < max) {
+            val item = poll() ?: break
+            sink.add(item)
+            moved++
+        }
+        return moved
+    }
+
+    fun dropCounters(): DropCounters = DropCounters(
+        droppedOldest = droppedOldest.get(),
+        droppedNewest = droppedNewest.get(),
+        sampledOut = sampledOut.get(),
+    )
+
+    /** Records events the owner had to discard outside the ring (e.g. an over-cap retry batch). */
+    fun recordEvicted(count: Int) {
+        if (count > 0) droppedOldest.addAndGet(count.toLong())
+    }
+
+    private fun tryOffer(item: T): Boolean {
+        while (true) {
+            val pos = tail.get()
+            val index = indexOf(pos)
+            val diff = sequences.get(index) - pos
+            when {
+                diff == 0L -> if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(index, item)
+                    sequences.set(index, pos + 1)
+                    return true
+                }
+                diff < 0L -> return false
+                // else another producer claimed this position; reload tail.
+            }
+        }
+    }
+
+    private fun admitSampled(): Boolean {
+        val half = capacity / 2
+        val excess = size() - half
+        if (excess <= 0) return true
+        val room = capacity - half
+        return ThreadLocalRandom.current().nextInt(room) >= excess
+    }
+
+    private fun indexOf(pos: Long): Int = (pos % capacity).toInt()
+}
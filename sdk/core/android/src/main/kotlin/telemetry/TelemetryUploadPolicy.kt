@@ -0,0 +1,47 @@
+package com.rivalapexmediation.sdk.telemetry
+
+/**
+ * Adaptive batching for telemetry uploads.
+ *
+ * [batchSize] is both the queue depth that triggers an early upload and the number of events per
+ * request. It doubles while each upload finds at least a full batch waiting (fewer, larger, better
+ * compressed requests) and halves when traffic falls well below it or an upload fails. Failures
+ * also double [intervalMs] and hold off further attempts until it has elapsed, so an offline
+ * device does not retry on every new batch.
+ */
+internal class TelemetryUploadPolicy(
+    private val minBatch: Int = 10,
+    private val maxBatch: Int = 200,
+    private val baseIntervalMs: Long = 30_000L,
+    private val maxIntervalMs: Long = 5 * 60_000L,
+) {
+    @Volatile var batchSize: Int = minBatch
+        private set
+
+    /** Delay before the next periodic upload. */
+    @Volatile var intervalMs: Long = baseIntervalMs
+        private set
+
+    @Volatile private var blockedUntilMs: Long = Long.MIN_VALUE
+
+    fun canUpload(nowMs: Long): Boolean = nowMs >= blockedUntilMs
+
+    /** [sent] events went out; [backlog] were queued meanwhile. */
+    @Synchronized
+    fun onSuccess(sent: Int, backlog: Int) {
+        intervalMs = baseIntervalMs
+        blockedUntilMs = Long.MIN_VALUE
+        batchSize = when {
+            sent + backlog >= batchSize -> (batchSize * 2).coerceAtMost(maxBatch)
+            sent < batchSize / 4 -> (batchSize / 2).coerceAtLeast(minBatch)
+            else -> batchSize
+        }
+    }
+
+    @Synchronized
+    fun onFailure(nowMs: Long) {
+        batchSize = (batchSize / 2).coerceAtLeast(minBatch)
+        intervalMs = (intervalMs * 2).coerceAtMost(maxIntervalMs)
+        blockedUntilMs = nowMs + intervalMs
+    }
+}
@@ -2,6 +2,7 @@ package com.rivalapexmediation.sdk.threading
 
 import com.rivalapexmediation.sdk.util.Clock
 import com.rivalapexmediation.sdk.util.SystemClockClock
+import java.util.concurrent.CancellationException
 import java.util.concurrent.atomic.AtomicInteger
 import java.util.concurrent.atomic.AtomicLong
 import java.util.concurrent.atomic.AtomicReference
@@ -40,23 +41,34 @@ class CircuitBreaker(
         classifySuccess: (T) -> Boolean = { true },
         countException: (Exception) -> Boolean = { true }
     ): T? {
-        when (state.get()) {
-            State.OPEN -> {
-                if (shouldAttemptReset()) {
-                    transitionTo(State.HALF_OPEN)
-                    successCount.set(0)
-                } else {
-                    return null
-                }
+        if (!admit()) return null
+
+        return try {
+            val result = action()
+            if (classifySuccess(result)) {
+                onSuccess()
+            } else {
+                onFailure()
             }
-            State.HALF_OPEN -> {
-                if (successCount.get() >= halfOpenMaxAttempts) {
-                    transitionTo(State.OPEN)
-                    return null
-                }
+            result
+        } catch (e: Exception) {
+            if (countException(e)) {
+                onFailure()
             }
-            State.CLOSED -> { /* normal */ }
+            throw e
         }
+    }
+
+    /**
+     * Suspending variant of [execute]. Cancellation of the caller is propagated without being
+     * counted as a failure.
+     */
+    suspend fun <T> executeSuspend(
+        action: suspend () -> T,
+        classifySuccess: (T) -> Boolean = { true },
+        countException: (Exception) -> Boolean = { true }
+    ): T? {
+        if (!admit()) return null
 
         return try {
             val result = action()
@@ -66,6 +78,8 @@ class CircuitBreaker(
                 onFailure()
             }
             result
+        } catch (e: CancellationException) {
+            throw e
         } catch (e: Exception) {
             if (countException(e)) {
                 onFailure()
@@ -73,6 +87,30 @@ class CircuitBreaker(
             throw e
         }
     }
+
+    /**
+     * Decide whether a call may proceed, moving OPEN -> HALF_OPEN once the reset timeout elapses.
+     */
+    private fun admit(): Boolean {
+        when (state.get()) {
+            State.OPEN -> {
+                if (shouldAttemptReset()) {
+                    transitionTo(State.HALF_OPEN)
+                    successCount.set(0)
+                } else {
+                    return false
+                }
+            }
+            State.HALF_OPEN -> {
+                if (successCount.get() >= halfOpenMaxAttempts) {
+                    transitionTo(State.OPEN)
+                    return false
+                }
+            }
+            State.CLOSED -> { /* normal */ }
+        }
+        return true
+    }
     
     /**
      * Record successful execution
@@ -0,0 +1,42 @@
+package com.rivalapexmediation.sdk.util
+
+import kotlin.math.floor
+
+/**
+ * HDR-style log bucket layout and percentile rank rule shared by [LatencyHistogram] and the hedge
+ * percentile window, so both pick the same bucket for the same samples. The histogram also clamps
+ * the reported bound to the observed min/max, which the sliding window does not track.
+ *
+ * Values below 128 get one bucket each; larger values fall into 16 sub-buckets per power of two,
+ * so a bucket's upper bound is at most 1/16 (6.25%) above any value in it. Everything past 2^24
+ * (~4.6 hours in ms) shares the last, open-ended bucket.
+ */
+internal object LogBuckets {
+    private const val LINEAR = 128
+    private const val SUB_BITS = 4
+    private const val SUB = 1 shl SUB_BITS
+    private const val MIN_EXP = 7 // log2(LINEAR)
+    private const val MAX_EXP = 23
+    const val COUNT = LINEAR + (MAX_EXP - MIN_EXP + 1) * SUB
+
+    /** Bucket index for a non-negative [v]. */
+    fun bucketOf(v: Long): Int {
+        if (v < LINEAR) return v.toInt()
+        val exp = 63 - java.lang.Long.numberOfLeadingZeros(v)
+        if (exp > MAX_EXP) return COUNT - 1
+        val sub = ((v ushr (exp - SUB_BITS)) and (SUB - 1).toLong()).toInt()
+        return LINEAR + (exp - MIN_EXP) * SUB + sub
+    }
+
+    /** Index of the p-th percentile among [count] sorted samples: floor(p * (count - 1)). */
+    fun rank(p: Double, count: Long): Long = floor(p.coerceIn(0.0, 1.0) * (count - 1)).toLong()
+
+    /** Largest value that maps to bucket [index]; [Long.MAX_VALUE] for the overflow bucket. */
+    fun upperBound(index: Int): Long {
+        if (index < LINEAR) return index.toLong()
+        if (index == COUNT - 1) return Long.MAX_VALUE
+        val exp = (index - LINEAR) / SUB + MIN_EXP
+        val sub = (index - LINEAR) % SUB
+        return ((SUB + sub + 1).toLong() shl (exp - SUB_BITS)) - 1
+    }
+}
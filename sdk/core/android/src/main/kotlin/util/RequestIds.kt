@@ -0,0 +1,62 @@
+package com.rivalapexmediation.sdk.util
+
+import java.security.SecureRandom
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Cheap ids for trace and auction correlation.
+ *
+ * `UUID.randomUUID()` draws from a shared SecureRandom on every call (and contends on its lock
+ * under bursts of loads). Here SecureRandom is read once per process for a session seed; each id
+ * is then a counter step pushed through the SplitMix64 finalizer. The finalizer is a bijection,
+ * so ids never repeat within a session. It is also trivially invertible: anyone who sees one id
+ * can recover the seed state and predict every later id. These are correlation ids only; never
+ * use them as secrets, nonces or anything an attacker must not guess.
+ */
+object RequestIds {
+    // Odd 64-bit golden-ratio increment (SplitMix64): consecutive states never collide.
+    private const val GAMMA = -0x61c8864680b583ebL
+    private const val AUCTION_SUFFIX_RANGE = 1_000_000L
+    private val HEX = "0123456789abcdef".toCharArray()
+
+    private val seed: Long
+    private val auctionOffset: Long
+    private val counter = AtomicLong(0)
+
+    init {
+        val rng = SecureRandom()
+        seed = rng.nextLong()
+        auctionOffset = (rng.nextLong() ushr 1) % AUCTION_SUFFIX_RANGE
+    }
+
+    /** Next 64-bit id; unique for the lifetime of the process. */
+    fun nextLong(): Long = mix(seed + counter.getAndIncrement() * GAMMA)
+
+    /** 16 lowercase hex chars, allocating only the resulting String. */
+    fun traceId(): String {
+        var v = nextLong()
+        val chars = CharArray(16)
+        for (i in 15 downTo 0) {
+            chars[i] = HEX[(v and 0xF).toInt()]
+            v = v ushr 4
+        }
+        return String(chars)
+    }
+
+    /**
+     * S2S request id in the backend's `android-<epochMillis>-<n>` format. The suffix walks a
+     * per-session random offset, so ids stay distinct within a millisecond for up to a million
+     * requests (the previous random suffix could repeat).
+     */
+    fun auctionRequestId(nowMs: Long): String {
+        val suffix = (auctionOffset + counter.getAndIncrement()) % AUCTION_SUFFIX_RANGE
+        return StringBuilder(32).append("android-").append(nowMs).append('-').append(suffix).toString()
+    }
+
+    private fun mix(z0: Long): Long {
+        var z = z0
+        z = (z xor (z ushr 30)) * -0x40a7b892e31b1a47L
+        z = (z xor (z ushr 27)) * -0x6b2fb644ecceee15L
+        return z xor (z ushr 31)
+    }
+}
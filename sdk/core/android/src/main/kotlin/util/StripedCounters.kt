@@ -0,0 +1,150 @@
+package com.rivalapexmediation.sdk.util
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.AtomicReference
+import kotlin.math.roundToLong
+
+/*
+ * Contention-free counters for metrics recorded from many threads at once.
+ *
+ * java.util.concurrent.atomic.LongAdder needs API 24 (minSdk is 21), so [StripedLong] follows
+ * the same design: an uncontended counter is a single AtomicLong; the first failed CAS inflates
+ * it to padded per-thread cells, after which each thread adds to its own cache line.
+ */
+
+// Cells are spaced one 64-byte cache line apart so neighbouring threads never share a line.
+private const val CELL_PAD = 8
+private val STRIPES: Int = Integer.highestOneBit((Runtime.getRuntime().availableProcessors() * 2 - 1).coerceIn(1, 32)) * 2
+
+private fun stripeOfCurrentThread(): Int {
+    // Fibonacci hash of the thread id: stable per thread, spread across stripes.
+    val h = Thread.currentThread().id * -0x61c8864680b583ebL
+    return ((h ushr 40).toInt() and (STRIPES - 1)) * CELL_PAD
+}
+
+/** LongAdder-style striped counter. [sum] is exact once writers are quiescent. */
+class StripedLong {
+    private val base = AtomicLong(0)
+    private val cells = AtomicReference<AtomicLongArray?>(null)
+
+    fun add(delta: Long) {
+        var cs = cells.get()
+        if (cs == null) {
+            val b = base.get()
+            if (base.compareAndSet(b, b + delta)) return
+            // Contended: stripe from now on.
+            cells.compareAndSet(null, AtomicLongArray(STRIPES * CELL_PAD))
+            cs = cells.get()!!
+        }
+        cs.getAndAdd(stripeOfCurrentThread(), delta)
+    }
+
+    fun increment() = add(1)
+
+    fun sum(): Long {
+        var total = base.get()
+        val cs = cells.get() ?: return total
+        for (i in 0 until STRIPES) total += cs.get(i * CELL_PAD)
+        return total
+    }
+
+    /** Sums and zeroes in one pass; every add is counted exactly once, here or in a later sum. */
+    fun sumThenReset(): Long {
+        var total = base.getAndSet(0)
+        val cs = cells.get() ?: return total
+        for (i in 0 until STRIPES) total += cs.getAndSet(i * CELL_PAD, 0)
+        return total
+    }
+}
+
+/**
+ * Monetary counter in fixed-point micros (1e-6 currency units), so summing many small revenue
+ * amounts neither drifts like a Double accumulator nor spins in a CAS loop.
+ */
+class StripedMoney {
+    private val micros = StripedLong()
+
+    fun add(amount: Double) {
+        if (amount.isNaN() || amount.isInfinite()) return
+        micros.add((amount * MICROS).roundToLong())
+    }
+
+    fun addMicros(value: Long) = micros.add(value)
+
+    fun sumMicros(): Long = micros.sum()
+
+    fun sum(): Double = micros.sum() / MICROS
+
+    private companion object {
+        const val MICROS = 1_000_000.0
+    }
+}
+
+/**
+ * Atomic snapshot-and-reset for a group of counters.
+ *
+ * Writers [record] into the current epoch's value; [swap] installs a fresh value and returns the
+ * previous one only after every writer that entered it has left, so a swapped-out value is
+ * complete and quiescent and no update lands in neither epoch. A writer that raced the swap sees
+ * the new epoch on its re-check and retries there. The writer gate is striped per thread, so
+ * recording stays contention-free; only [swap] spins, briefly, for in-flight writers.
+ */
+class EpochSwap<T : Any>(private val factory: () -> T) {
+    private class Epoch<T>(val value: T) {
+        val writers = AtomicLongArray(STRIPES * CELL_PAD)
+
+        fun idle(): Boolean {
+            for (i in 0 until STRIPES) if (writers.get(i * CELL_PAD) != 0L) return false
+            return true
+        }
+    }
+
+    private val current = AtomicReference(Epoch(factory()))
+
+    /** Current epoch's value for reads; may change concurrently. */
+    fun peek(): T = current.get().value
+
+    /**
+     * Runs [block] against the current epoch's value. The writer slot is taken once, up front, so
+     * entering and leaving touch the same stripe even if [block] resumes on another thread.
+     */
+    inline fun <R> record(block: (T) -> R): R {
+        val slot = writerSlot()
+        val token = enter(slot)
+        try {
+            return block(valueOf(token))
+        } finally {
+            exit(token, slot)
+        }
+    }
+
+    /** Starts a new epoch and returns the completed previous value. */
+    fun swap(): T {
+        val previous = current.getAndSet(Epoch(factory()))
+        while (!previous.idle()) Thread.yield()
+        return previous.value
+    }
+
+    @PublishedApi
+    internal fun writerSlot(): Int = stripeOfCurrentThread()
+
+    @PublishedApi
+    internal fun enter(slot: Int): Any {
+        while (true) {
+            val epoch = current.get()
+            epoch.writers.incrementAndGet(slot)
+            if (current.get() === epoch) return epoch
+            epoch.writers.decrementAndGet(slot)
+        }
+    }
+
+    @PublishedApi
+    @Suppress("UNCHECKED_CAST")
+    internal fun valueOf(token: Any): T = (token as Epoch<T>).value
+
+    @PublishedApi
+    internal fun exit(token: Any, slot: Int) {
+        (token as Epoch<*>).writers.decrementAndGet(slot)
+    }
+}
@@ -0,0 +1,127 @@
+package com.rivalapexmediation.sdk
+
+import android.app.Application
+import com.rivalapexmediation.sdk.contract.*
+import kotlinx.coroutines.runBlocking
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import kotlinx.coroutines.asCoroutineDispatcher
+
+@RunWith(RobolectricTestRunner::class)
+class AdapterInitSchedulingTest {
+
+    private class SlowInitAdapter(private val initDelayMs: Long = 0L) : AdNetworkAdapterV2 {
+        val inits = AtomicInteger(0)
+        override fun init(config: AdapterConfig, timeoutMs: Int): InitResult {
+            inits.incrementAndGet()
+            if (initDelayMs > 0) Thread.sleep(initDelayMs)
+            return InitResult(success = true)
+        }
+        override fun loadInterstitial(placementId: String, meta: RequestMeta, timeoutMs: Int): LoadResult = error("unused")
+        override fun showInterstitial(handle: AdHandle, viewContext: Any, callbacks: ShowCallbacks) = Unit
+        override fun loadRewarded(placementId: String, meta: RequestMeta, timeoutMs: Int): LoadResult = error("unused")
+        override fun showRewarded(handle: AdHandle, viewContext: Any, callbacks: RewardedCallbacks) = Unit
+        override fun loadBanner(placementId: String, size: AdSize, meta: RequestMeta, timeoutMs: Int): LoadResult = error("unused")
+        override fun attachBanner(handle: AdHandle, bannerHost: Any, callbacks: BannerCallbacks) = Unit
+        override fun isAdReady(handle: AdHandle): Boolean = false
+        override fun expiresAt(handle: AdHandle): Long = 0L
+        override fun invalidate(handle: AdHandle) = Unit
+    }
+
+    private fun config(
+        partner: String,
+        placements: Map<String, String> = mapOf("inter" to "inter"),
+        accounts: Map<String, String>? = null,
+        privacy: ConsentState = ConsentState()
+    ) = AdapterConfig(
+        partner = partner,
+        credentials = AdapterCredentials(key = "k", secret = "s", accountIds = accounts),
+        placements = placements,
+        privacy = privacy
+    )
+
+    @Test
+    fun factories_runOnFirstUseOnly() {
+        val created = AtomicInteger(0)
+        val registry = AdapterRegistry()
+        registry.registerRuntimeAdapterFactory("used") { created.incrementAndGet(); SlowInitAdapter() }
+        registry.registerRuntimeAdapterFactory("unused") { created.incrementAndGet(); SlowInitAdapter() }
+        registry.initialize(Application())
+
+        assertEquals(0, created.get())
+        assertTrue(registry.getRegisteredNetworks().containsAll(listOf("used", "unused")))
+
+        assertEquals(1, registry.getRuntimeAdapters(listOf("used")).size)
+        assertEquals(1, created.get())
+        assertEquals(listOf("used"), registry.initReport().map { it.network })
+    }
+
+    @Test
+    fun prewarm_initializesAdaptersInParallel() {
+        val executor = Executors.newFixedThreadPool(4)
+        try {
+            val registry = AdapterRegistry(executor.asCoroutineDispatcher())
+            val adapters = (1..4).associate { "net$it" to SlowInitAdapter(initDelayMs = 200) }
+            adapters.forEach { (network, adapter) -> registry.registerRuntimeAdapterFactory(network) { adapter } }
+            registry.initialize(Application())
+
+            val start = System.nanoTime()
+            val job = registry.prewarm(adapters.keys.associateWith { config(it) }, timeoutMs = 1_000)
+            runBlocking { job.join() }
+            val elapsedMs = (System.nanoTime() - start) / 1_000_000
+
+            assertTrue("four 200ms inits took ${elapsedMs}ms", elapsedMs < 600)
+            adapters.values.forEach { assertEquals(1, it.inits.get()) }
+            val report = registry.initReport()
+            assertEquals(4, report.size)
+            report.forEach { timing ->
+                assertEquals("prewarm", timing.source)
+                assertEquals(true, timing.success)
+                assertTrue((timing.initMs ?: 0L) >= 150)
+            }
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    @Test
+    fun identicalContent_andPlacementSubsets_skipReinit() {
+        val adapter = SlowInitAdapter()
+        val registry = AdapterRegistry()
+        registry.registerRuntimeAdapterFactory("net") { adapter }
+        registry.initialize(Application())
+        val entry = registry.getRuntimeAdapters(listOf("net")).single()
+
+        entry.ensureInitialized(config("net", mapOf("a" to "pa", "b" to "pb")), 1_000)
+        // Load-time configs name a single placement already covered.
+        entry.ensureInitialized(config("net", mapOf("b" to "pb")), 1_000)
+        // A new placement widens the set once; afterwards both placements are covered.
+        entry.ensureInitialized(config("net", mapOf("c" to "pc")), 1_000)
+        entry.ensureInitialized(config("net", mapOf("a" to "pa")), 1_000)
+        assertEquals(2, adapter.inits.get())
+
+        // Consent changes are real reconfiguration.
+        entry.ensureInitialized(config("net", mapOf("a" to "pa"), privacy = ConsentState(coppa = true)), 1_000)
+        assertEquals(3, adapter.inits.get())
+    }
+
+    @Test
+    fun signature_isStableAcrossMapOrder_andSensitiveToContent() {
+        val ordered = config("net", accounts = linkedMapOf("x" to "1", "y" to "2"))
+        val reversed = config("net", accounts = linkedMapOf("y" to "2", "x" to "1"))
+        val otherPlacements = config("net", placements = mapOf("other" to "o"), accounts = mapOf("x" to "1", "y" to "2"))
+
+        assertEquals(AdapterInitSignature.of(ordered), AdapterInitSignature.of(reversed))
+        assertEquals(AdapterInitSignature.of(ordered), AdapterInitSignature.of(otherPlacements))
+        assertNotEquals(AdapterInitSignature.of(ordered), AdapterInitSignature.of(config("net", accounts = mapOf("x" to "9"))))
+        assertTrue(AdapterInitSignature.sameContent(reversed, otherPlacements))
+        assertFalse(AdapterInitSignature.sameContent(ordered, config("net", accounts = mapOf("x" to "9"))))
+    }
+}
@@ -1,5 +1,6 @@
 package com.rivalapexmediation.sdk
 
+import com.rivalapexmediation.sdk.cache.AdInventory
 import com.rivalapexmediation.sdk.models.Ad
 import com.rivalapexmediation.sdk.models.AdType
 import com.rivalapexmediation.sdk.models.Creative
@@ -69,23 +70,15 @@ class MediationSDKMonotonicCacheTest {
     }
 
     private fun clearCache() {
-        runCatching {
-            val cacheField = MediationSDK::class.java.getDeclaredField("adCache")
-            cacheField.isAccessible = true
-            @Suppress("UNCHECKED_CAST")
-            val cache = cacheField.get(MediationSDK.getInstance()) as MutableMap<String, Any?>
-            cache.clear()
-        }
+        runCatching { inventory().clear() }
     }
 
     private fun setCachedAd(placement: String, ad: Ad, expiryAtMs: Long) {
+        inventory().put(placement, ad, expiryAtMs, refreshIntervalMs = 0L)
+    }
+
+    private fun inventory(): AdInventory {
         val cacheField = MediationSDK::class.java.getDeclaredField("adCache").apply { isAccessible = true }
-        @Suppress("UNCHECKED_CAST")
-        val cache = cacheField.get(MediationSDK.getInstance()) as MutableMap<String, Any?>
-        val cachedClass = Class.forName("com.rivalapexmediation.sdk.MediationSDK\$CachedAd")
-        val ctor = cachedClass.getDeclaredConstructor(Ad::class.java, Long::class.javaPrimitiveType)
-        ctor.isAccessible = true
-        val cached = ctor.newInstance(ad, expiryAtMs)
-        cache[placement] = cached
+        return cacheField.get(MediationSDK.getInstance()) as AdInventory
     }
 }
@@ -0,0 +1,88 @@
+package com.rivalapexmediation.sdk.cache
+
+import com.rivalapexmediation.sdk.models.Ad
+import com.rivalapexmediation.sdk.models.AdType
+import com.rivalapexmediation.sdk.models.Creative
+import com.rivalapexmediation.sdk.util.Bench
+import com.rivalapexmediation.sdk.util.FixedClock
+import org.junit.Test
+
+/**
+ * Microbenchmark: AdInventory (expiry heap + lock-free reads) vs the previous single map guarded
+ * by one monitor with a full prune scan on every access. See [Bench] for how to run it.
+ */
+class AdInventoryBenchmark {
+    private val placements = (0 until 48).map { "placement_$it" }
+
+    /** Reproduces the pre-index cache: synchronized map, pruneExpiredLocked() on every call. */
+    private class ScanningCache(private val clock: FixedClock) {
+        private data class Cached(val ad: Ad, val expiryAtMs: Long)
+        private val cache = mutableMapOf<String, Cached>()
+
+        fun put(placement: String, ad: Ad, expiryAtMs: Long) = synchronized(cache) {
+            cache[placement] = Cached(ad, expiryAtMs)
+            pruneLocked()
+        }
+
+        fun isReady(placement: String): Boolean = synchronized(cache) {
+            pruneLocked()
+            val cached = cache[placement]
+            cached != null && clock.monotonicNow() < cached.expiryAtMs
+        }
+
+        private fun pruneLocked() {
+            val now = clock.monotonicNow()
+            val it = cache.entries.iterator()
+            while (it.hasNext()) {
+                if (now >= it.next().value.expiryAtMs) it.remove()
+            }
+        }
+    }
+
+    @Test
+    fun isAdReadyPolling_indexedVsScanning() {
+        Bench.assumeEnabled()
+        val clock = FixedClock(0)
+        val inventory = AdInventory(slotsPerPlacement = 1, clockSource = { clock })
+        val scanning = ScanningCache(clock)
+        placements.forEachIndexed { i, p ->
+            val ad = ad(p)
+            inventory.put(p, ad, expiryAtMs = 3_600_000L + i, refreshIntervalMs = 30_000L)
+            scanning.put(p, ad, expiryAtMs = 3_600_000L + i)
+        }
+
+        val iterations = 2_000_000
+        // Warm up both paths before timing.
+        repeat(3) {
+            runPolling(iterations / 4) { inventory.peek(it) != null }
+            runPolling(iterations / 4) { scanning.isReady(it) }
+        }
+        val indexedNs = runPolling(iterations) { inventory.peek(it) != null }
+        val scanningNs = runPolling(iterations) { scanning.isReady(it) }
+
+        Bench.report(
+            "isAdReady x$iterations over ${placements.size} placements: " +
+                "indexed=${indexedNs / iterations} ns/op, scanning=${scanningNs / iterations} ns/op"
+        )
+    }
+
+    private inline fun runPolling(iterations: Int, isReady: (String) -> Boolean): Long {
+        var hits = 0
+        val elapsed = Bench.timeNs {
+            for (i in 0 until iterations) {
+                if (isReady(placements[i % placements.size])) hits++
+            }
+        }
+        check(hits == iterations) { "every placement should be ready" }
+        return elapsed
+    }
+
+    private fun ad(placement: String) = Ad(
+        id = "ad-$placement",
+        placementId = placement,
+        networkName = "net",
+        adType = AdType.INTERSTITIAL,
+        ecpm = 1.0,
+        creative = Creative.Banner(0, 0, "<div></div>")
+    )
+}
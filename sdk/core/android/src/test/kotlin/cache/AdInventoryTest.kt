@@ -0,0 +1,120 @@
+package com.rivalapexmediation.sdk.cache
+
+import com.rivalapexmediation.sdk.models.Ad
+import com.rivalapexmediation.sdk.models.AdType
+import com.rivalapexmediation.sdk.models.Creative
+import com.rivalapexmediation.sdk.util.FixedClock
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class AdInventoryTest {
+    private fun ad(id: String, ecpm: Double) = Ad(
+        id = id,
+        placementId = "pl",
+        networkName = "net",
+        adType = AdType.INTERSTITIAL,
+        ecpm = ecpm,
+        creative = Creative.Banner(0, 0, "<div></div>")
+    )
+
+    @Test
+    fun servesBestEcpmFirst_thenEarliestExpiry() {
+        val clock = FixedClock(0)
+        val inventory = AdInventory(slotsPerPlacement = 3, clockSource = { clock })
+
+        inventory.put("pl", ad("low", 1.0), expiryAtMs = 10_000, refreshIntervalMs = 1_000)
+        inventory.put("pl", ad("high-late", 2.0), expiryAtMs = 20_000, refreshIntervalMs = 1_000)
+        inventory.put("pl", ad("high-early", 2.0), expiryAtMs = 15_000, refreshIntervalMs = 1_000)
+
+        assertEquals("high-early", inventory.poll("pl")?.id)
+        assertEquals("high-late", inventory.poll("pl")?.id)
+        assertEquals("low", inventory.poll("pl")?.id)
+        assertNull(inventory.poll("pl"))
+    }
+
+    @Test
+    fun singleSlotReplacesPreviousAd_andReleasesIt() {
+        val clock = FixedClock(0)
+        val evicted = mutableListOf<String>()
+        val inventory = AdInventory(slotsPerPlacement = 1, clockSource = { clock }, onEvicted = { evicted += it.id })
+
+        inventory.put("pl", ad("first", 1.0), expiryAtMs = 10_000, refreshIntervalMs = 1_000)
+        inventory.put("pl", ad("second", 1.0), expiryAtMs = 10_000, refreshIntervalMs = 1_000)
+
+        assertEquals("second", inventory.peek("pl")?.id)
+        assertEquals(listOf("first"), evicted)
+    }
+
+    @Test
+    fun singleSlot_keepsTheNewAd_evenWhenItIsCheaper() {
+        val clock = FixedClock(0)
+        val evicted = mutableListOf<String>()
+        val inventory = AdInventory(slotsPerPlacement = 1, clockSource = { clock }, onEvicted = { evicted += it.id })
+
+        inventory.put("pl", ad("pricey", 5.0), expiryAtMs = 10_000, refreshIntervalMs = 1_000)
+        // The caller delivers "cheap" right after putting it, so it must not be released.
+        inventory.put("pl", ad("cheap", 0.5), expiryAtMs = 10_000, refreshIntervalMs = 1_000)
+
+        assertEquals("cheap", inventory.peek("pl")?.id)
+        assertEquals(listOf("pricey"), evicted)
+    }
+
+    @Test
+    fun expiredSlotsArePruned_andReportedForRelease() {
+        val clock = FixedClock(0)
+        val evicted = mutableListOf<String>()
+        val inventory = AdInventory(slotsPerPlacement = 2, clockSource = { clock }, onEvicted = { evicted += it.id })
+
+        inventory.put("pl", ad("a", 1.0), expiryAtMs = 1_000, refreshIntervalMs = 100)
+        inventory.put("pl", ad("b", 1.0), expiryAtMs = 5_000, refreshIntervalMs = 100)
+        clock.advance(1_000)
+
+        assertEquals(1, inventory.count("pl"))
+        assertEquals("b", inventory.peek("pl")?.id)
+        assertEquals(listOf("a"), evicted)
+    }
+
+    @Test
+    fun needsRefill_whenBelowCapacity_orSlotEntersPrefetchWindow() {
+        val clock = FixedClock(0)
+        val inventory = AdInventory(slotsPerPlacement = 2, clockSource = { clock })
+
+        assertTrue(inventory.needsRefill("pl"))
+        inventory.put("pl", ad("a", 1.0), expiryAtMs = 10_000, refreshIntervalMs = 2_000)
+        assertTrue(inventory.needsRefill("pl"))
+        inventory.put("pl", ad("b", 1.0), expiryAtMs = 20_000, refreshIntervalMs = 2_000)
+        assertFalse(inventory.needsRefill("pl"))
+
+        // "a" now has < refreshInterval of TTL left
+        clock.advance(8_500)
+        assertTrue(inventory.needsRefill("pl"))
+
+        // A fresh ad displaces the stale slot, not the higher-priced fresh one
+        inventory.put("pl", ad("c", 0.5), expiryAtMs = 30_000, refreshIntervalMs = 2_000)
+        assertFalse(inventory.needsRefill("pl"))
+        assertEquals("b", inventory.poll("pl")?.id)
+        assertEquals("c", inventory.poll("pl")?.id)
+    }
+
+    @Test
+    fun expiryIndex_prunesAcrossPlacements_andSkipsConsumedSlots() {
+        val clock = FixedClock(0)
+        val evicted = mutableListOf<String>()
+        val inventory = AdInventory(slotsPerPlacement = 1, clockSource = { clock }, onEvicted = { evicted += it.id })
+
+        inventory.put("a", ad("a1", 1.0), expiryAtMs = 1_000, refreshIntervalMs = 100)
+        inventory.put("b", ad("b1", 1.0), expiryAtMs = 2_000, refreshIntervalMs = 100)
+        inventory.put("c", ad("c1", 1.0), expiryAtMs = 3_000, refreshIntervalMs = 100)
+        assertEquals("a1", inventory.poll("a")?.id)
+
+        // a1 was consumed before expiring; its index entry must not release it again.
+        clock.advance(2_000)
+        inventory.pruneExpired()
+        assertEquals(listOf("b1"), evicted)
+        assertNull(inventory.peek("b"))
+        assertEquals("c1", inventory.peek("c")?.id)
+    }
+}
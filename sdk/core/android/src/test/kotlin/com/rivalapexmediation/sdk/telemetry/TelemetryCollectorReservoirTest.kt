@@ -3,6 +3,7 @@ package com.rivalapexmediation.sdk.telemetry
 import androidx.test.core.app.ApplicationProvider
 import com.rivalapexmediation.sdk.SDKConfig
 import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
@@ -28,12 +29,11 @@ class TelemetryCollectorReservoirTest {
     }
 
     @Test
-    fun reservoir_caps_at_200_and_drops_oldest() {
+    fun percentiles_coverTheWholeSession_notJustRecentSamples() {
         val placement = "p-cap"
         val adapter = "net"
 
-        // Push 300 monotonically increasing latencies.
-        // Reservoir keeps last 200 values due to drop-oldest policy.
+        // Push 300 monotonically increasing latencies; all of them count (no 200-sample window).
         for (i in 1..300) {
             collector.recordAdapterSpanFinish(
                 traceId = "t$i",
@@ -44,12 +44,22 @@ class TelemetryCollectorReservoirTest {
             )
         }
 
-        // The retained reservoir should contain values [101..300].
-        // With n = 200, index rule idx = floor(p * (n-1)).
+        // With n = 300, index rule idx = floor(p * (n-1)) over [1..300]. Values of 128 and up are
+        // bucketed, so the reported value is the true sample or at most 1/16 above it.
         val pct = collector.getLocalPercentiles(placement, adapter)
-        // p50 -> idx floor(0.5*(199))=99 -> value 101+99 = 200
-        assertEquals(200L, pct["p50"])
-        // p99 -> idx floor(0.99*(199))=197 -> value 101+197 = 298
-        assertEquals(298L, pct["p99"])
+        // p50 -> idx floor(0.5*299)=149 -> value 150
+        assertInBucket(150L, pct["p50"])
+        // p99 -> idx floor(0.99*299)=296 -> value 297
+        assertInBucket(297L, pct["p99"])
+        // Small values stay exact: p50 over [1..20] -> idx 9 -> value 10.
+        for (i in 1..20) {
+            collector.recordAdapterSpanFinish("s$i", "p-small", adapter, "fill", latencyMs = i.toLong())
+        }
+        assertEquals(10L, collector.getLocalPercentiles("p-small", adapter)["p50"])
+    }
+
+    private fun assertInBucket(expected: Long, actual: Long?) {
+        requireNotNull(actual)
+        assertTrue("$actual should be within 1/16 above $expected", actual >= expected && actual <= expected + expected / 16)
     }
 }
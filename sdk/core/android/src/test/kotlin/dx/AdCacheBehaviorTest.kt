@@ -26,9 +26,11 @@ import com.rivalapexmediation.sdk.util.ClockProvider
 class AdCacheBehaviorTest {
     private lateinit var server: MockWebServer
     private lateinit var appContext: Context
+    private lateinit var originalClock: Clock
 
     @Before
     fun setUp() {
+        originalClock = ClockProvider.clock
         server = MockWebServer()
         server.start()
         appContext = ApplicationProvider.getApplicationContext()
@@ -37,6 +39,7 @@ class AdCacheBehaviorTest {
 
     @After
     fun tearDown() {
+        ClockProvider.clock = originalClock
         try { server.shutdown() } catch (_: Throwable) {}
     }
 
@@ -209,14 +212,13 @@ class AdCacheBehaviorTest {
     }
 
     private fun forceExpire(placement: String) {
-        runCatching {
-            val sdk = MediationSDK.getInstance()
-            val cacheField = MediationSDK::class.java.getDeclaredField("adCache").apply { isAccessible = true }
-            @Suppress("UNCHECKED_CAST")
-            val cache = cacheField.get(sdk) as MutableMap<String, Any?>
-            val cached = cache[placement] ?: return
-            val expiryField = cached::class.java.getDeclaredField("expiryAtMs").apply { isAccessible = true }
-            expiryField.setLong(cached, com.rivalapexmediation.sdk.util.ClockProvider.clock.monotonicNow() - 1)
+        // Jump the monotonic clock just past the cached ad's expiry; restored in tearDown().
+        val cached = MediationSDK.getInstance().getCachedAd(placement) ?: return
+        val base = ClockProvider.clock
+        val shift = ((cached.expiryTimeMs ?: base.monotonicNow()) - base.monotonicNow()).coerceAtLeast(0L) + 1L
+        ClockProvider.clock = object : Clock {
+            override fun now(): Long = base.now()
+            override fun monotonicNow(): Long = base.monotonicNow() + shift
         }
     }
 }
@@ -0,0 +1,82 @@
+package com.rivalapex.sdk.mediation
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+class FillRateEngineTest {
+    private var now = 1_000_000_000L
+    private val minute = 60_000L
+
+    private fun engine(maxKeys: Int = 1_000) =
+        FillRateEngine(sliceMs = minute, slices = 60, halfLifeMs = 10 * minute, maxKeys = maxKeys, clock = { now })
+
+    @Test
+    fun currentFillRate_weightsRecentOutcomesMore() {
+        val engine = engine()
+        val key = FillKey("banner_home", "admob")
+        repeat(10) { engine.record(key, filled = true) }
+        now += 30 * minute // three half-lives later the source stops filling
+        repeat(10) { engine.record(key, filled = false) }
+
+        // Undecayed this would be 0.5; the old fills now weigh 1/8 each.
+        assertEquals((1.25 / 11.25).toFloat(), engine.currentFillRate(key)!!, 1e-6f)
+        assertNull(engine.currentFillRate(FillKey("banner_home", "other")))
+    }
+
+    @Test
+    fun currentFillRate_isNullOnceKeyGoesQuiet() {
+        val engine = engine()
+        val key = FillKey(null, "unity")
+        engine.record(key, filled = true)
+        now += 61 * minute
+
+        assertNull(engine.currentFillRate(key))
+    }
+
+    @Test
+    fun ringWindow_countsOnlyTheLastHour() {
+        val engine = engine()
+        val key = FillKey("p1", null)
+        repeat(5) { engine.record(key, filled = false) }
+        now += 30 * minute
+        repeat(3) { engine.record(key, filled = true) }
+        now += 31 * minute
+
+        val snapshot = engine.snapshot(key)!!
+        assertEquals(3, snapshot.requests)
+        assertEquals(3, snapshot.fills)
+
+        now += 2 * 60 * minute
+        assertEquals(0, engine.snapshot(key)!!.requests)
+    }
+
+    @Test
+    fun ringWindow_handlesNegativeMonotonicTime() {
+        now = -90 * minute
+        val engine = engine()
+        val key = FillKey("p1", "s1")
+        engine.record(key, filled = true)
+        now += 59 * minute
+        engine.record(key, filled = false)
+
+        assertEquals(2, engine.snapshot(key)!!.requests)
+        now += 2 * minute
+        assertEquals(1, engine.snapshot(key)!!.requests)
+    }
+
+    @Test
+    fun keys_areBounded_byDroppingTheStalest() {
+        val engine = engine(maxKeys = 2)
+        engine.record(FillKey("a", null), filled = true)
+        now += 1_000
+        engine.record(FillKey("b", null), filled = true)
+        now += 1_000
+        engine.record(FillKey("c", null), filled = false)
+
+        assertNull(engine.currentFillRate(FillKey("a", null)))
+        assertNotNull(engine.currentFillRate(FillKey("b", null)))
+        assertEquals(0f, engine.currentFillRate(FillKey("c", null))!!, 0f)
+    }
+}
@@ -0,0 +1,58 @@
+package com.rivalapex.sdk.mediation
+
+import com.rivalapexmediation.sdk.util.ClockProvider
+import com.rivalapexmediation.sdk.util.FixedClock
+import com.rivalapexmediation.sdk.util.SystemClockClock
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.Test
+
+class NoFillTrackerTest {
+    private val clock = FixedClock(3 * 3_600_000L + 5)
+
+    @Before
+    fun setUp() {
+        ClockProvider.clock = clock
+        NoFillTracker.clear()
+    }
+
+    @After
+    fun tearDown() {
+        NoFillTracker.clear()
+        ClockProvider.clock = SystemClockClock
+    }
+
+    @Test
+    fun currentFillRate_isTrackedPerAdUnitSourceAndPair() {
+        NoFillTracker.recordFill("unit1", "admob")
+        NoFillTracker.recordNoFill("unit1", "meta", NoFillTracker.NoFillReason.NO_INVENTORY)
+        NoFillTracker.recordNoFill("unit2", "admob", NoFillTracker.NoFillReason.TIMEOUT)
+
+        assertEquals(0.5f, NoFillTracker.currentFillRate(adUnitId = "unit1")!!, 1e-6f)
+        assertEquals(0.5f, NoFillTracker.currentFillRate(sourceId = "admob")!!, 1e-6f)
+        assertEquals(1f, NoFillTracker.currentFillRate("unit1", "admob")!!, 0f)
+        assertEquals(0f, NoFillTracker.currentFillRate("unit1", "meta")!!, 0f)
+        assertNull(NoFillTracker.currentFillRate("unit2", "meta"))
+        assertEquals(1, NoFillTracker.getCombinedStats("unit1", "admob")!!.fills.get())
+    }
+
+    @Test
+    fun recentNoFills_keepsTheNewestInOrder() {
+        repeat(150) { NoFillTracker.recordNoFill("unit", "src", NoFillTracker.NoFillReason.UNKNOWN, details = "$it") }
+
+        assertEquals(listOf("147", "148", "149"), NoFillTracker.getRecentNoFills(3).map { it.details })
+        assertEquals(100, NoFillTracker.getRecentNoFills(500).size)
+        assertEquals("50", NoFillTracker.getRecentNoFills(500).first().details)
+    }
+
+    @Test
+    fun hourlyFillRate_usesUtcHourBuckets() {
+        NoFillTracker.recordFill("unit", "src")
+        NoFillTracker.recordNoFill("unit", "src", NoFillTracker.NoFillReason.TIMEOUT)
+
+        assertEquals(0.5f, NoFillTracker.getHourlyFillRate(3), 0f)
+        assertEquals(0f, NoFillTracker.getHourlyFillRate(4), 0f)
+    }
+}
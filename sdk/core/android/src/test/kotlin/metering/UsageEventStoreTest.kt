@@ -0,0 +1,114 @@
+package com.rivalapexmediation.sdk.metering
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+
+class UsageEventStoreTest {
+    @get:Rule
+    val tmp = TemporaryFolder()
+
+    private fun store(dir: File, maxBytes: Long = 512 * 1024) =
+        UsageEventStore(dir, maxBytes = maxBytes, writeDelayMs = 0)
+
+    private fun reopen(dir: File, period: Long = 0): List<UsageEvent> {
+        var recovered = emptyList<UsageEvent>()
+        val s = store(dir)
+        s.open { recovered = it; period }
+        s.close()
+        return recovered
+    }
+
+    @Test
+    fun binaryRecord_roundTripsEveryField() {
+        val event = UsageEvent(
+            type = UsageEventType.AD_REVENUE,
+            timestamp = 1_700_000_000_123L,
+            placementId = "banner_home",
+            adapterId = "admob",
+            adFormat = "banner",
+            revenueAmount = 0.0125,
+            latencyMs = 87,
+        )
+        val bare = UsageEvent(type = UsageEventType.CACHE_MISS, timestamp = 5L)
+
+        assertEquals(event, UsageEventStore.decode(UsageEventStore.encode(event)))
+        assertEquals(bare, UsageEventStore.decode(UsageEventStore.encode(bare)))
+        assertTrue(UsageEventStore.encode(bare).size <= 10)
+    }
+
+    @Test
+    fun commit_dropsReportedPeriods_andKeepsLaterOnes() {
+        val dir = tmp.newFolder()
+        val s = store(dir)
+        s.open { 0 }
+        s.append(0, UsageEvent(UsageEventType.AD_REQUEST, timestamp = 1, placementId = "p0"))
+        s.append(1, UsageEvent(UsageEventType.AD_REQUEST, timestamp = 2, placementId = "p1"))
+        s.commit(0)
+        s.close()
+
+        assertEquals(listOf("p1"), reopen(dir).map { it.placementId })
+    }
+
+    @Test
+    fun recoveredEvents_areCommittedWithThePeriodTheyWereReplayedInto() {
+        val dir = tmp.newFolder()
+        val first = store(dir)
+        first.open { 0 }
+        first.append(0, UsageEvent(UsageEventType.AD_CLICK, timestamp = 1))
+        first.close()
+
+        // Replayed into period 2 of the next process: committing period 1 must keep them.
+        val second = store(dir)
+        second.open { 2 }
+        second.commit(1)
+        second.close()
+        assertEquals(1, reopen(dir, period = 0).size)
+    }
+
+    @Test
+    fun tornTrailingRecord_isSkipped() {
+        val dir = tmp.newFolder()
+        val s = store(dir)
+        s.open { 0 }
+        s.append(0, UsageEvent(UsageEventType.AD_IMPRESSION, timestamp = 1, placementId = "ok"))
+        s.close()
+        dir.listFiles()!!.single().appendBytes(byteArrayOf(0, 0, 0, 40, 1, 2))
+
+        assertEquals(listOf("ok"), reopen(dir).map { it.placementId })
+    }
+
+    @Test
+    fun sizeCap_dropsOldestFiles() {
+        val dir = tmp.newFolder()
+        val s = UsageEventStore(dir, segmentBytes = 256, maxBytes = 1024, writeDelayMs = 0)
+        s.open { 0 }
+        repeat(200) { s.append(0, UsageEvent(UsageEventType.API_CALL, timestamp = it.toLong(), placementId = "placement")) }
+        s.close()
+
+        assertTrue(dir.listFiles()!!.sumOf { it.length() } <= 1024 + 256)
+        assertTrue(reopen(dir).size in 1 until 200)
+    }
+
+    @Test
+    fun meter_replaysUnreportedEventsAfterRestart() {
+        val dir = tmp.newFolder()
+        val config = MeteringConfig(storageDirectory = dir, enableRemoteReporting = false)
+        val first = UsageMeter(config)
+        first.recordRequest("p1", "a1")
+        first.recordImpression("p1", "a1")
+        first.close()
+
+        val second = UsageMeter(config)
+        val deadline = System.currentTimeMillis() + 2_000
+        while (second.getMetrics().adImpressions == 0L && System.currentTimeMillis() < deadline) Thread.sleep(10)
+        second.close()
+
+        assertEquals(1L, second.getMetrics().adRequests)
+        assertEquals(1L, second.getMetrics().adImpressions)
+        assertEquals(1L, second.getBreakdown().byAdapter.getValue("a1").adImpressions)
+    }
+}
@@ -0,0 +1,74 @@
+package com.rivalapexmediation.sdk.metering
+
+import kotlinx.coroutines.runBlocking
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class UsageMeterTest {
+    private class FakeReporter(var succeed: Boolean = true) : MeteringReporter {
+        val reports = mutableListOf<Pair<UsageMetrics, UsageBreakdown>>()
+        var duringReport: (() -> Unit)? = null
+
+        override suspend fun report(metrics: UsageMetrics, breakdown: UsageBreakdown): Boolean {
+            duringReport?.invoke()
+            reports += metrics to breakdown
+            return succeed
+        }
+    }
+
+    @Test
+    fun flush_reportsDeltaAndStartsNewPeriod() = runBlocking {
+        val reporter = FakeReporter()
+        val meter = UsageMeter(reporter = reporter)
+        meter.recordRequest("p1", "a1")
+        meter.recordImpression("p1", "a1")
+        meter.recordRevenue("p1", "a1", 0.25)
+
+        assertTrue(meter.flush())
+
+        val (metrics, breakdown) = reporter.reports.single()
+        assertEquals(1L, metrics.adRequests)
+        assertEquals(1L, metrics.adImpressions)
+        assertEquals(0.25, metrics.totalRevenue, 0.0)
+        assertEquals(1L, breakdown.byPlacement.getValue("p1").adRequests)
+        assertEquals(0L, meter.getMetrics().adRequests)
+    }
+
+    @Test
+    fun flush_countsEventsRecordedDuringReportInNextDelta() = runBlocking {
+        val reporter = FakeReporter()
+        val meter = UsageMeter(reporter = reporter)
+        meter.recordRequest("p1")
+        reporter.duringReport = { meter.recordRequest("p1") }
+
+        meter.flush()
+        reporter.duringReport = null
+        meter.flush()
+
+        assertEquals(listOf(1L, 1L), reporter.reports.map { it.first.adRequests })
+    }
+
+    @Test
+    fun failedFlush_mergesDeltaBackForNextReport() = runBlocking {
+        val reporter = FakeReporter(succeed = false)
+        val meter = UsageMeter(reporter = reporter)
+        meter.recordRequest("p1", "a1", latencyMs = 40)
+        meter.recordRevenue("p1", "a1", 0.1)
+
+        assertFalse(meter.flush())
+        meter.recordRequest("p2", "a1")
+        assertEquals(2L, meter.getMetrics().adRequests)
+
+        reporter.succeed = true
+        assertTrue(meter.flush())
+
+        val (metrics, breakdown) = reporter.reports.last()
+        assertEquals(2L, metrics.adRequests)
+        assertEquals(0.1, metrics.totalRevenue, 0.0)
+        assertEquals(setOf("p1", "p2"), breakdown.byPlacement.keys)
+        assertEquals(2L, breakdown.byAdapter.getValue("a1").adRequests)
+        assertEquals(40L, metrics.latencyPercentilesMs.getValue("p50"))
+    }
+}
@@ -34,6 +34,7 @@ class AuctionClientTest {
     fun setUp() {
         server = MockWebServer()
         server.start()
+        HostCooldowns.clear()
         val baseUrl = server.url("/").toString().trimEnd('/')
         client = AuctionClient(baseUrl, apiKey = "test-key")
     }
@@ -472,4 +473,156 @@ class AuctionClientTest {
             if (prev == null) System.clearProperty("bel.force.testRuntime") else System.setProperty("bel.force.testRuntime", prev)
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    fun batch_singleRequestReplacesPerPlacementCalls_andDemultiplexes() {
+        val body = mapOf(
+            "results" to listOf(
+                mapOf(
+                    "placement_id" to "pl-1",
+                    "winner" to mapOf("adapter_name" to "admob", "cpm" to 2.5, "creative_id" to "cr-1")
+                ),
+                mapOf("placement_id" to "pl-2", "error" to "no_fill"),
+                mapOf(
+                    "PlacementID" to "pl-3",
+                    "winner" to mapOf("AdapterName" to "meta", "CPM" to 1.1, "Currency" to "EUR")
+                )
+            )
+        )
+        server.enqueue(MockResponse().setResponseCode(200).setBody(Gson().toJson(body)))
+
+        val outcomes = client.requestBatch(
+            AuctionClient.BatchOptions(
+                publisherId = "pub-1",
+                placements = listOf("pl-1", "pl-2", "pl-3", "pl-4").map { AuctionClient.BatchPlacement(it) }
+            )
+        )
+
+        assertEquals(1, server.requestCount)
+        val recorded = takeRequestOrFail()
+        assertEquals("/v1/auction/batch", recorded.path)
+        @Suppress("UNCHECKED_CAST")
+        val sent = Gson().fromJson(recorded.body.readUtf8(), Map::class.java) as Map<String, Any?>
+        assertEquals(4, (sent["requests"] as List<*>).size)
+
+        assertEquals(setOf("pl-1", "pl-2", "pl-3", "pl-4"), outcomes.keys)
+        assertEquals("admob", outcomes["pl-1"]?.result?.adapter)
+        assertEquals(2.5, outcomes["pl-1"]?.result?.ecpm ?: 0.0, 0.0001)
+        assertEquals("no_fill", outcomes["pl-2"]?.error?.reason)
+        assertEquals("EUR", outcomes["pl-3"]?.result?.currency)
+        // Placements absent from the response are reported as no_fill
+        assertFalse(outcomes["pl-4"]!!.isSuccess)
+        assertEquals("no_fill", outcomes["pl-4"]?.error?.reason)
+    }
+
+    @Test
+    fun batch_requestLevelFailure_countsOnceAgainstCircuitBreaker() {
+        server.enqueue(MockResponse().setResponseCode(500))
+        server.enqueue(MockResponse().setResponseCode(500))
+        server.enqueue(MockResponse().setResponseCode(500))
+        val breakerClient = AuctionClient(
+            server.url("/").toString().trimEnd('/'),
+            apiKey = "test-key",
+            httpClient = null,
+            circuitBreakerFactory = {
+                CircuitBreaker(failureThreshold = 1, resetTimeoutMs = 60_000, halfOpenMaxAttempts = 1)
+            }
+        )
+        val batch = AuctionClient.BatchOptions(
+            publisherId = "pub-1",
+            placements = listOf(AuctionClient.BatchPlacement("pl-1"), AuctionClient.BatchPlacement("pl-2"))
+        )
+        try {
+            breakerClient.requestBatch(batch)
+            fail("expected status_500 for the whole batch")
+        } catch (e: AuctionClient.AuctionException) {
+            assertTrue(e.reason.startsWith("status_5"))
+        }
+        try {
+            breakerClient.requestBatch(batch)
+            fail("expected circuit_open on second batch")
+        } catch (e: AuctionClient.AuctionException) {
+            assertEquals("circuit_open", e.reason)
+        }
+        assertEquals(3, server.requestCount)
+    }
+
+    @Test
+    fun warmUp_leavesPooledConnection_reusedByFirstAuction() {
+        HttpClientRegistry.evictAll()
+        val reports = mutableListOf<Pair<Boolean, String>>()
+        val warmed = AuctionClient(
+            server.url("/").toString().trimEnd('/'),
+            apiKey = "test-key",
+            firstConnectionRecorder = { reused, protocol -> reports += reused to protocol }
+        )
+        server.enqueue(MockResponse().setResponseCode(200))
+        server.enqueue(MockResponse().setResponseCode(204))
+        server.enqueue(MockResponse().setResponseCode(204))
+
+        assertTrue(warmed.warmUp())
+        assertEquals("HEAD", takeRequestOrFail().method)
+        repeat(2) {
+            try {
+                warmed.requestInterstitial(opts())
+                fail("expected no_fill")
+            } catch (e: AuctionClient.AuctionException) {
+                assertEquals("no_fill", e.reason)
+            }
+        }
+
+        // Reported once, for the first auction only.
+        assertEquals(listOf(true to "http/1.1"), reports)
+    }
+
+    @Test
+    fun firstAuctionWithoutWarmUp_reportsNewConnection() {
+        HttpClientRegistry.evictAll()
+        val reports = mutableListOf<Pair<Boolean, String>>()
+        val cold = AuctionClient(
+            server.url("/").toString().trimEnd('/'),
+            apiKey = "test-key",
+            firstConnectionRecorder = { reused, protocol -> reports += reused to protocol }
+        )
+        server.enqueue(MockResponse().setResponseCode(204))
+        try {
+            cold.requestInterstitial(opts())
+            fail("expected no_fill")
+        } catch (e: AuctionClient.AuctionException) {
+            assertEquals("no_fill", e.reason)
+        }
+
+        assertEquals(listOf(false to "http/1.1"), reports)
+    }
+
+    @Test
+    fun rttIsSampledFromWarmUp_neverFromAuctionTime() {
+        val rtts = mutableListOf<Long>()
+        val measured = AuctionClient(
+            server.url("/").toString().trimEnd('/'),
+            apiKey = "test-key",
+            rttRecorder = { rtts += it }
+        )
+        // The server spends 400ms on the auction: that is not link latency.
+        server.enqueue(MockResponse().setResponseCode(204).setHeadersDelay(400, TimeUnit.MILLISECONDS))
+        try {
+            measured.requestInterstitial(opts(timeoutMs = 2_000))
+            fail("expected no_fill")
+        } catch (e: AuctionClient.AuctionException) {
+            assertEquals("no_fill", e.reason)
+        }
+        assertTrue(rtts.isEmpty())
+
+        server.enqueue(MockResponse().setResponseCode(200))
+        assertTrue(measured.warmUp())
+        assertEquals(1, rtts.size)
+        val wifi = NetworkMonitor.NetworkState(
+            isConnected = true,
+            connectionType = NetworkMonitor.ConnectionType.WIFI,
+            isMetered = false,
+            hasInternetCapability = true,
+            timestamp = 0L
+        )
+        assertEquals(NetworkMonitor.LinkClass.EXCELLENT, NetworkMonitor.classify(wifi, rtts.single().toDouble()))
+    }
+}
@@ -0,0 +1,61 @@
+package com.rivalapexmediation.sdk.network
+
+import com.google.gson.Gson
+import com.rivalapexmediation.sdk.util.Bench
+import org.junit.Assume.assumeTrue
+import org.junit.Test
+import java.io.StringReader
+import java.lang.management.ManagementFactory
+
+/**
+ * Allocation benchmark: streaming [AuctionResponseDecoder] vs the previous Gson-to-Map parse, on
+ * representative winner and no-bid payloads. Reports bytes allocated per parse on the calling
+ * thread (HotSpot's com.sun.management.ThreadMXBean). See [Bench] for how to run it.
+ */
+class AuctionResponseDecoderBenchmark {
+    private val winnerPayload = """
+        {"request_id":"android-1700000000000-123456","auction_id":"a-9f8e7d","winner":{
+          "adapter_name":"admob","cpm":2.4375,"currency":"USD","creative_id":"cr-123456",
+          "ad_markup":"<div class=\"ad\"><img src=\"https://cdn.example.com/c/123456.jpg\"/></div>",
+          "bid_id":"b-1","ttl_seconds":3600,"meta":{"advertiser_domains":["example.com"],"deal_id":null}},
+          "bids":[{"adapter_name":"admob","cpm":2.4375},{"adapter_name":"meta","cpm":1.92},{"adapter_name":"unity","cpm":0.8}],
+          "timing_ms":{"total":82,"admob":64,"meta":71,"unity":80}}
+    """.trimIndent()
+
+    private val noBidPayload = """
+        {"request_id":"android-1700000000000-654321","auction_id":"a-1a2b3c","winner":null,
+          "bids":[],"timing_ms":{"total":41}}
+    """.trimIndent()
+
+    @Test
+    fun allocationsPerParse_streamingVsGsonMap() {
+        Bench.assumeEnabled()
+        val mx = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+        assumeTrue(mx != null && mx.isThreadAllocatedMemorySupported)
+        mx!!.isThreadAllocatedMemoryEnabled = true
+        val gson = Gson()
+
+        listOf("winner" to winnerPayload, "no_bid" to noBidPayload).forEach { (name, payload) ->
+            val streaming = bytesPerOp(mx) { AuctionResponseDecoder.decodeWinner(StringReader(payload)) }
+            val gsonMap = bytesPerOp(mx) {
+                @Suppress("UNCHECKED_CAST")
+                val root = gson.fromJson(payload, MutableMap::class.java) as MutableMap<String, Any?>
+                root["winner"]
+            }
+            Bench.report("$name payload: streaming=$streaming B/parse, gson_map=$gsonMap B/parse")
+        }
+    }
+
+    private inline fun bytesPerOp(mx: com.sun.management.ThreadMXBean, parse: () -> Any?): Long {
+        val iterations = 20_000
+        var sink = 0
+        // Warm up so JIT-compiled code is measured.
+        repeat(iterations) { if (parse() != null) sink++ }
+        val threadId = Thread.currentThread().id
+        val before = mx.getThreadAllocatedBytes(threadId)
+        repeat(iterations) { if (parse() != null) sink++ }
+        val after = mx.getThreadAllocatedBytes(threadId)
+        check(sink >= 0)
+        return (after - before) / iterations
+    }
+}
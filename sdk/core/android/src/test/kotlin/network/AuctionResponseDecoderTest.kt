@@ -0,0 +1,65 @@
+package com.rivalapexmediation.sdk.network
+
+import com.google.gson.JsonSyntaxException
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import java.io.StringReader
+
+class AuctionResponseDecoderTest {
+    @Test
+    fun decodesWinner_preferringSnakeCase_andSkippingUnknownFields() {
+        val body = """
+            {"debug":{"nested":[1,2,{"x":null}]},"winner":{"AdapterName":"meta","adapter_name":"admob",
+             "cpm":2.5,"currency":"USD","creative_id":"cr","ad_markup":"<div/>","extra":{"a":[true]}},"trailer":"x"}
+        """.trimIndent()
+
+        val winner = AuctionResponseDecoder.decodeWinner(StringReader(body))
+
+        assertEquals(AuctionWinner("admob", 2.5, "USD", "cr", "<div/>"), winner)
+    }
+
+    @Test
+    fun decodesPascalCaseWinner_andTreatsWrongTypesAsMissing() {
+        val body = """{"winner":{"AdapterName":"meta","CPM":"1.2","Currency":"EUR","CreativeID":7}}"""
+
+        val winner = AuctionResponseDecoder.decodeWinner(StringReader(body))
+
+        assertEquals(AuctionWinner("meta", null, "EUR", null, null), winner)
+    }
+
+    @Test
+    fun missingOrNullWinner_decodesToNull() {
+        assertNull(AuctionResponseDecoder.decodeWinner(StringReader("""{"some":"field"}""")))
+        assertNull(AuctionResponseDecoder.decodeWinner(StringReader("""{"winner":null}""")))
+    }
+
+    @Test
+    fun decodesBatchEntries() {
+        val body = """
+            {"results":[
+              {"placement_id":"pl-1","winner":{"adapter_name":"admob","cpm":1.0}},
+              {"PlacementID":"pl-2","Error":"no_fill"},
+              "garbage",
+              {"placement_id":"pl-3"}
+            ]}
+        """.trimIndent()
+
+        val entries = AuctionResponseDecoder.decodeBatch(StringReader(body))
+
+        assertEquals(3, entries.size)
+        assertEquals("admob", entries[0].winner?.adapterName)
+        assertEquals(AuctionBatchEntry("pl-2", null, "no_fill"), entries[1])
+        assertEquals(AuctionBatchEntry("pl-3", null, null), entries[2])
+    }
+
+    @Test(expected = JsonSyntaxException::class)
+    fun malformedJson_surfacesAsSyntaxError() {
+        AuctionResponseDecoder.decodeWinner(StringReader("""{"winner":{"adapter_name":"admob",""""))
+    }
+
+    @Test(expected = JsonSyntaxException::class)
+    fun nonObjectRoot_surfacesAsSyntaxError() {
+        AuctionResponseDecoder.decodeWinner(StringReader("[]"))
+    }
+}
@@ -0,0 +1,139 @@
+package com.rivalapexmediation.sdk.network
+
+import com.google.gson.Gson
+import kotlinx.coroutines.asCoroutineDispatcher
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [33])
+class AuctionRetryTest {
+    private lateinit var server: MockWebServer
+    private lateinit var client: AuctionClient
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+        HostCooldowns.clear()
+        client = AuctionClient(server.url("/").toString().trimEnd('/'), apiKey = "test-key")
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+        HostCooldowns.clear()
+    }
+
+    private fun opts(placementId: String = "pl-1", timeoutMs: Int = 800) = AuctionClient.InterstitialOptions(
+        publisherId = "pub-1",
+        placementId = placementId,
+        floorCpm = 0.0,
+        adapters = listOf("admob"),
+        metadata = emptyMap(),
+        timeoutMs = timeoutMs,
+        auctionType = "header_bidding",
+    )
+
+    private fun winner() = MockResponse()
+        .setResponseCode(200)
+        .setBody(Gson().toJson(mapOf("winner" to mapOf("adapter_name" to "admob", "cpm" to 1.0, "currency" to "USD"))))
+
+    @Test
+    fun retryAfter_parsesDeltaSecondsAndImfFixdate() {
+        assertEquals(784_111_777_000L, RetryAfter.parseImfFixdate("Sun, 06 Nov 1994 08:49:37 GMT"))
+        assertEquals(2_000L, RetryAfter.parseDelayMs("2", 0L))
+        assertEquals(3_000L, RetryAfter.parseDelayMs("Sun, 06 Nov 1994 08:49:37 GMT", 784_111_774_000L))
+        // Dates in the past mean "now".
+        assertEquals(0L, RetryAfter.parseDelayMs("Sun, 06 Nov 1994 08:49:37 GMT", 784_111_780_000L))
+        // Long hints are capped at five minutes.
+        assertEquals(300_000L, RetryAfter.parseDelayMs("86400", 0L))
+        assertEquals(300_000L, RetryAfter.parseDelayMs("Sun, 06 Nov 1994 08:49:37 GMT", 0L))
+        assertNull(RetryAfter.parseDelayMs("-1", 0L))
+        assertNull(RetryAfter.parseDelayMs("Sunday, 06-Nov-94 08:49:37 GMT", 0L))
+        assertNull(RetryAfter.parseDelayMs(null, 0L))
+    }
+
+    @Test
+    fun backoff_waitsBeforeRetry() {
+        server.enqueue(MockResponse().setResponseCode(500))
+        server.enqueue(winner())
+
+        val start = System.nanoTime()
+        client.requestInterstitial(opts())
+        val elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+
+        assertEquals(2, server.requestCount)
+        assertTrue("elapsed=$elapsedMs", elapsedMs >= 120)
+    }
+
+    @Test
+    fun retryAfterBeyondDeadline_skipsRetry_andCoolsDownHost() {
+        server.enqueue(MockResponse().setResponseCode(503).setHeader("Retry-After", "5"))
+        server.enqueue(winner())
+
+        val start = System.nanoTime()
+        try {
+            client.requestInterstitial(opts(timeoutMs = 800))
+            fail("expected status_503")
+        } catch (e: AuctionClient.AuctionException) {
+            assertEquals("status_503", e.reason)
+        }
+        // The 5s hint cannot fit in an 800ms budget, so the client gives up instead of sleeping.
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 800)
+        assertEquals(1, server.requestCount)
+
+        // A fresh client for the same host honours the cooldown without touching the network.
+        val other = AuctionClient(server.url("/").toString().trimEnd('/'), apiKey = "test-key")
+        try {
+            other.requestInterstitial(opts())
+            fail("expected rate_limited")
+        } catch (e: AuctionClient.AuctionException) {
+            assertEquals("rate_limited", e.reason)
+            assertTrue(e.message?.contains("retry_after_ms") == true)
+        }
+        assertEquals(1, server.requestCount)
+    }
+
+    @Test
+    fun backoff_releasesThread_forConcurrentAuctions() {
+        repeat(4) { server.enqueue(MockResponse().setResponseCode(500)) }
+        repeat(4) { server.enqueue(winner()) }
+        val executor = Executors.newSingleThreadExecutor()
+        try {
+            val results = runBlocking {
+                withContext(executor.asCoroutineDispatcher()) {
+                    (1..4).map { i -> async { client.awaitInterstitial(opts(placementId = "pl-$i")) } }.awaitAll()
+                }
+            }
+            assertEquals(4, results.size)
+        } finally {
+            executor.shutdownNow()
+        }
+
+        // With one thread, all four first attempts can only precede the retries if nothing
+        // parked that thread while waiting on a response or a backoff.
+        val firstAttempts = (1..4).map {
+            val recorded = server.takeRequest(1, TimeUnit.SECONDS) ?: error("no request")
+            Gson().fromJson(recorded.body.readUtf8(), Map::class.java)["placement_id"]
+        }
+        assertEquals(setOf("pl-1", "pl-2", "pl-3", "pl-4"), firstAttempts.toSet())
+        assertEquals(8, server.requestCount)
+    }
+}
@@ -0,0 +1,127 @@
+package com.rivalapexmediation.sdk.network
+
+import okhttp3.Request
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class HttpClientRegistryTest {
+    private lateinit var server: MockWebServer
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest) = MockResponse().setResponseCode(200).setBody("ok")
+        }
+        server.start()
+        HttpClientRegistry.evictAll()
+        HttpClientRegistry.resetStats()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+        HttpClientRegistry.evictAll()
+    }
+
+    @Test
+    fun equalProfiles_shareOneClient_andDerivedClientsShareThePool() {
+        val a = HttpClientRegistry.client(HttpClientRegistry.Profile.uniform(800))
+        val b = HttpClientRegistry.client(HttpClientRegistry.Profile.uniform(800))
+        val c = HttpClientRegistry.client(HttpClientRegistry.Profile.uniform(1_500))
+        val pinned = HttpClientRegistry.client(
+            HttpClientRegistry.Profile.uniform(800, mapOf("example.com" to listOf("sha256/AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=")))
+        )
+
+        assertSame(a, b)
+        assertNotSame(a, c)
+        assertNotSame(a, pinned)
+        assertSame(a.connectionPool, c.connectionPool)
+        assertSame(a.connectionPool, pinned.connectionPool)
+        assertSame(a.dispatcher, c.dispatcher)
+        assertEquals(800, a.callTimeoutMillis)
+        assertEquals(1_500, c.callTimeoutMillis)
+    }
+
+    @Test
+    fun distinctProfiles_beyondTheCap_areServedUncached() {
+        val clients = (1..100).map { HttpClientRegistry.client(HttpClientRegistry.Profile.uniform(10_000L + it)) }
+
+        assertTrue(HttpClientRegistry.stats().derivedClients <= 32)
+        assertEquals(10_100, clients.last().callTimeoutMillis)
+        assertSame(clients.first().connectionPool, clients.last().connectionPool)
+    }
+
+    @Test
+    fun sequentialCallsAcrossTimeouts_reuseOneConnection() {
+        val timeouts = listOf(300L, 800L, 1_200L, 2_000L)
+        repeat(20) { i ->
+            val client = HttpClientRegistry.client(HttpClientRegistry.Profile.uniform(timeouts[i % timeouts.size]))
+            client.newCall(Request.Builder().url(server.url("/seq/$i")).build()).execute().use { resp ->
+                assertEquals(200, resp.code)
+                resp.body?.string()
+            }
+        }
+
+        val stats = HttpClientRegistry.stats()
+        assertEquals(20L, stats.connectionsAcquired)
+        assertEquals(1L, stats.newConnections)
+        assertEquals(1, server.connectionCount())
+        assertTrue("reuseRate=${stats.reuseRate}", stats.reuseRate >= 0.95)
+    }
+
+    @Test
+    fun concurrentLoad_staysWithinOneConnectionPerWorker() {
+        // Stays under the pool's idle limit so no connection is evicted mid-test.
+        val workers = 4
+        val callsPerWorker = 50
+        val timeouts = listOf(500L, 800L, 1_000L, 3_000L)
+        val pool = Executors.newFixedThreadPool(workers)
+        val start = CountDownLatch(1)
+        val done = CountDownLatch(workers)
+        val failures = AtomicInteger(0)
+        try {
+            repeat(workers) { w ->
+                pool.execute {
+                    start.await()
+                    repeat(callsPerWorker) { i ->
+                        val profile = HttpClientRegistry.Profile.uniform(timeouts[(w + i) % timeouts.size])
+                        try {
+                            HttpClientRegistry.client(profile)
+                                .newCall(Request.Builder().url(server.url("/load/$w/$i")).build())
+                                .execute()
+                                .use { resp -> if (resp.code != 200) failures.incrementAndGet(); resp.body?.string() }
+                        } catch (_: Exception) {
+                            failures.incrementAndGet()
+                        }
+                    }
+                    done.countDown()
+                }
+            }
+            start.countDown()
+            assertTrue(done.await(30, TimeUnit.SECONDS))
+        } finally {
+            pool.shutdownNow()
+        }
+
+        val total = (workers * callsPerWorker).toLong()
+        val stats = HttpClientRegistry.stats()
+        assertEquals(0, failures.get())
+        assertEquals(total, stats.connectionsAcquired)
+        assertTrue("newConnections=${stats.newConnections}", stats.newConnections <= workers)
+        assertTrue("reuseRate=${stats.reuseRate}", stats.reuseRate >= 0.95)
+    }
+}
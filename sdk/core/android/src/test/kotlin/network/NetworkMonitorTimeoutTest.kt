@@ -0,0 +1,46 @@
+package com.rivalapexmediation.sdk.network
+
+import com.rivalapexmediation.sdk.network.NetworkMonitor.ConnectionType
+import com.rivalapexmediation.sdk.network.NetworkMonitor.LinkClass
+import com.rivalapexmediation.sdk.network.NetworkMonitor.NetworkState
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class NetworkMonitorTimeoutTest {
+    private fun state(type: ConnectionType, kbps: Int = 0) = NetworkState(
+        isConnected = true,
+        connectionType = type,
+        isMetered = type == ConnectionType.CELLULAR,
+        hasInternetCapability = true,
+        timestamp = 0L,
+        downstreamKbps = kbps
+    )
+
+    @Test
+    fun classify_prefersMeasuredRtt_overTransportHints() {
+        val wifi = state(ConnectionType.WIFI)
+        assertEquals(LinkClass.GOOD, NetworkMonitor.classify(wifi, null))
+        assertEquals(LinkClass.EXCELLENT, NetworkMonitor.classify(wifi, 80.0))
+        assertEquals(LinkClass.POOR, NetworkMonitor.classify(wifi, 1_200.0))
+        assertEquals(LinkClass.OFFLINE, NetworkMonitor.classify(NetworkState.OFFLINE, 80.0))
+    }
+
+    @Test
+    fun classify_cellularWithoutSamples_usesBandwidthEstimate() {
+        assertEquals(LinkClass.GOOD, NetworkMonitor.classify(state(ConnectionType.CELLULAR, 20_000), null))
+        assertEquals(LinkClass.MODERATE, NetworkMonitor.classify(state(ConnectionType.CELLULAR, 0), null))
+        assertEquals(LinkClass.POOR, NetworkMonitor.classify(state(ConnectionType.CELLULAR, 300), null))
+    }
+
+    @Test
+    fun scale_tracksLinkClass_withRttFloorAndStepRounding() {
+        assertEquals(2_250L, NetworkMonitor.scale(3_000, LinkClass.EXCELLENT, 50.0))
+        assertEquals(3_000L, NetworkMonitor.scale(3_000, LinkClass.GOOD, null))
+        assertEquals(4_500L, NetworkMonitor.scale(3_000, LinkClass.POOR, 900.0))
+        // Never below three round trips, rounded up to the 50ms step.
+        assertEquals(2_850L, NetworkMonitor.scale(1_000, LinkClass.POOR, 940.0))
+        // Capped at the normal network timeout.
+        assertEquals(NetworkMonitor.NORMAL_TIMEOUT_MS, NetworkMonitor.scale(8_000, LinkClass.POOR, null))
+        assertEquals(NetworkMonitor.OFFLINE_FAST_FAIL_TIMEOUT_MS, NetworkMonitor.scale(3_000, LinkClass.OFFLINE, null))
+    }
+}
@@ -0,0 +1,44 @@
+package com.rivalapexmediation.sdk.network
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(sdk = [33])
+class RequestContextTest {
+    @After
+    fun tearDown() {
+        RequestContext.onConnectivityChanged("unknown")
+    }
+
+    @Test
+    fun snapshotIsReused_untilInvalidated() {
+        val first = RequestContext.current()
+        assertSame(first, RequestContext.current())
+        assertSame(first.auctionDeviceInfo, RequestContext.current().auctionDeviceInfo)
+
+        RequestContext.invalidate()
+        val second = RequestContext.current()
+        assertNotSame(first, second)
+        assertEquals(first.auctionDeviceInfo, second.auctionDeviceInfo)
+    }
+
+    @Test
+    fun connectivityChange_rebuildsWithNewTransport_andIgnoresRepeats() {
+        RequestContext.onConnectivityChanged("wifi")
+        val wifi = RequestContext.current()
+        assertEquals("wifi", wifi.auctionDeviceInfo["connection_type"])
+
+        RequestContext.onConnectivityChanged("wifi")
+        assertSame(wifi, RequestContext.current())
+
+        RequestContext.onConnectivityChanged("cellular")
+        assertEquals("cellular", RequestContext.current().auctionDeviceInfo["connection_type"])
+    }
+}
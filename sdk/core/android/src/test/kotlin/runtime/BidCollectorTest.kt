@@ -0,0 +1,84 @@
+package com.rivalapexmediation.sdk.runtime
+
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.async
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.runBlocking
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class BidCollectorTest {
+    private fun CoroutineScope.adapter(latencyMs: Long, cpm: Double): Deferred<Double> = async {
+        delay(latencyMs)
+        cpm
+    }
+
+    @Test
+    fun fastBid_isNotHiddenBehindASlowerAdapterListedFirst() = runBlocking {
+        var stragglers = 0
+        val slow = adapter(latencyMs = 2_000, cpm = 3.0)
+        val fast = adapter(latencyMs = 20, cpm = 1.0)
+
+        val results = BidCollector.collect(listOf(slow, fast), timeoutMs = 300, onStraggler = { stragglers++ })
+
+        assertEquals(listOf(1.0), results)
+        assertTrue(slow.isCancelled)
+        assertEquals(1, stragglers)
+    }
+
+    @Test
+    fun bidsAreCollectedInCompletionOrder() = runBlocking {
+        val calls = listOf(adapter(150, 3.0), adapter(10, 1.0), adapter(80, 2.0))
+
+        assertEquals(listOf(1.0, 2.0, 3.0), BidCollector.collect(calls, timeoutMs = 1_000))
+    }
+
+    @Test
+    fun earlyExit_cancelsStragglers_withoutCountingTimeouts() = runBlocking {
+        var stragglers = 0
+        val slow = adapter(latencyMs = 5_000, cpm = 9.0)
+        val winner = adapter(latencyMs = 10, cpm = 2.5)
+        val start = System.nanoTime()
+
+        val results = BidCollector.collect(
+            listOf(slow, winner),
+            timeoutMs = 3_000,
+            isDecisive = { it >= 2.0 },
+            onStraggler = { stragglers++ }
+        )
+
+        assertEquals(listOf(2.5), results)
+        assertTrue(slow.isCancelled)
+        assertEquals(0, stragglers)
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1_000)
+    }
+
+    @Test
+    fun resultAlreadyQueuedAtTheDeadline_isKept() = runBlocking {
+        var stragglers = 0
+        val done = CompletableDeferred(1.5)
+        val pending = CompletableDeferred<Double>()
+
+        // The deadline has passed before the first receive; the finished call must still count.
+        val results = BidCollector.collect(listOf(pending, done), timeoutMs = 0, onStraggler = { stragglers++ })
+
+        assertEquals(listOf(1.5), results)
+        assertTrue(pending.isCancelled)
+        assertEquals(1, stragglers)
+    }
+
+    @Test
+    fun failedCalls_areReported_andDoNotStopCollection() = runBlocking {
+        val failures = mutableListOf<Exception>()
+        val broken = CompletableDeferred<Double>().apply { completeExceptionally(IllegalStateException("adapter crashed")) }
+        val ok = adapter(latencyMs = 30, cpm = 1.0)
+
+        val results = BidCollector.collect(listOf(broken, ok), timeoutMs = 1_000, onFailure = { failures += it })
+
+        assertEquals(listOf(1.0), results)
+        assertEquals("adapter crashed", failures.single().message)
+    }
+}
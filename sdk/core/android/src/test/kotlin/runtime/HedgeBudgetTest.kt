@@ -0,0 +1,47 @@
+package com.rivalapexmediation.sdk.runtime
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class HedgeBudgetTest {
+    @Test
+    fun hedgesStayWithinBudgetPercentOfRequests() {
+        val budget = HedgeBudget()
+        var granted = 0
+        repeat(200) {
+            budget.recordRequest("inter")
+            if (budget.tryAcquire("inter", budgetPercent = 5.0)) granted++
+        }
+
+        assertEquals(10, granted)
+        assertEquals(0.05, budget.stats("inter").extraLoad, 1e-9)
+        // Budgets are per placement.
+        budget.recordRequest("banner")
+        assertFalse(budget.tryAcquire("banner", budgetPercent = 5.0))
+    }
+
+    @Test
+    fun zeroBudget_neverHedges() {
+        val budget = HedgeBudget()
+        repeat(100) { budget.recordRequest("inter") }
+        assertFalse(budget.tryAcquire("inter", budgetPercent = 0.0))
+    }
+
+    @Test
+    fun winRate_tracksHedgesThatBeatThePrimary() {
+        val budget = HedgeBudget()
+        repeat(100) { budget.recordRequest("inter") }
+        repeat(4) { assertTrue(budget.tryAcquire("inter", budgetPercent = 10.0)) }
+        budget.recordOutcome("inter", hedgeWon = true)
+        budget.recordOutcome("inter", hedgeWon = false)
+        budget.recordOutcome("inter", hedgeWon = true)
+        budget.recordOutcome("inter", hedgeWon = true)
+
+        val stats = budget.stats("inter")
+        assertEquals(4L, stats.hedges)
+        assertEquals(3L, stats.hedgeWins)
+        assertEquals(0.75, stats.winRate, 1e-9)
+    }
+}
@@ -1,8 +1,11 @@
 package com.rivalapexmediation.sdk.runtime
 
+import org.junit.Assert.assertEquals
 import org.junit.Assert.assertNull
 import org.junit.Assert.assertTrue
 import org.junit.Test
+import kotlin.math.exp
+import kotlin.random.Random
 
 class HedgeManagerTest {
     @Test
@@ -19,4 +22,46 @@ class HedgeManagerTest {
         val delay = manager.getHedgeDelayMs("net")
         assertTrue("expected delay near 95th percentile but was $delay", delay != null && delay >= 90 && delay <= 100)
     }
+
+    @Test
+    fun smallValuesAreExact() {
+        val window = HedgeManager.MovingPercentile(windowSize = 50)
+        (0L until 50L).shuffled(Random(7)).forEach { window.add(it) }
+
+        assertEquals(0.0, window.getPercentile(0.0)!!, 0.0)
+        assertEquals(24.0, window.getPercentile(0.5)!!, 0.0)
+        assertEquals(49.0, window.getPercentile(1.0)!!, 0.0)
+    }
+
+    @Test
+    fun matchesExactSortWithinBucketError_onSkewedLatencies() {
+        val random = Random(42)
+        val window = HedgeManager.MovingPercentile(windowSize = 100)
+        val recent = ArrayDeque<Long>()
+        repeat(5_000) { i ->
+            // Log-normal-ish latencies with occasional multi-second stalls.
+            val sample = if (i % 97 == 0) 2_000L + random.nextLong(8_000) else exp(5.0 + random.nextDouble() * 1.5).toLong()
+            window.add(sample)
+            recent.addLast(sample)
+            if (recent.size > 100) recent.removeFirst()
+
+            if (i % 50 == 0) {
+                val sorted = recent.sorted()
+                listOf(0.5, 0.9, 0.95, 0.99).forEach { p ->
+                    val exact = sorted[kotlin.math.floor(p * (sorted.size - 1)).toInt()].toDouble()
+                    val estimate = window.getPercentile(p)!!
+                    assertTrue("p=$p exact=$exact estimate=$estimate", estimate >= exact && estimate <= exact * 1.0625 + 1)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun windowEvictsOldSamples() {
+        val window = HedgeManager.MovingPercentile(windowSize = 10)
+        repeat(10) { window.add(5_000) }
+        repeat(10) { window.add(10) }
+
+        assertEquals(10.0, window.getPercentile(0.95)!!, 0.0)
+    }
 }
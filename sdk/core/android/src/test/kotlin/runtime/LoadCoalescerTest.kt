@@ -0,0 +1,64 @@
+package com.rivalapexmediation.sdk.runtime
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class LoadCoalescerTest {
+    @Test
+    fun concurrentCallers_joinOneFlight_andAllReceiveTheResult() {
+        val coalescer = LoadCoalescer<String>()
+        val flight = coalescer.begin("inter", "first")
+        assertNotNull(flight)
+        assertNull(coalescer.begin("inter", "second"))
+        assertNull(coalescer.begin("inter", "third"))
+        // Other placements are independent.
+        assertNotNull(coalescer.begin("banner", "other"))
+
+        assertEquals(listOf("first", "second", "third"), coalescer.complete(flight!!))
+        // Delivered once only.
+        assertTrue(coalescer.complete(flight).isEmpty())
+        assertEquals(0, coalescer.inFlight("inter"))
+    }
+
+    @Test
+    fun releasedFlight_keepsItsWaiters_butNewCallersStartAFreshLoad() {
+        val coalescer = LoadCoalescer<String>()
+        val first = coalescer.begin("inter", "a")!!
+        assertNull(coalescer.begin("inter", "b"))
+        coalescer.release(first)
+
+        val second = coalescer.begin("inter", "c")
+        assertNotNull(second)
+        assertEquals(listOf("a", "b"), coalescer.complete(first))
+        assertEquals(listOf("c"), coalescer.complete(second!!))
+    }
+
+    @Test
+    fun topUpPolicy_startsExtraLoadsOnlyWhileCapacityAllows() {
+        val coalescer = LoadCoalescer<String>(LoadJoinPolicy.TOP_UP)
+        val capacity = 2
+        val canTopUp = { inFlight: Int -> inFlight < capacity }
+
+        val first = coalescer.begin("inter", "a", canTopUp)
+        val second = coalescer.begin("inter", "b", canTopUp)
+        val third = coalescer.begin("inter", "c", canTopUp)
+        assertNotNull(first)
+        assertNotNull(second)
+        assertNull(third)
+        assertEquals(2, coalescer.inFlight("inter"))
+        // The overflow caller joins the oldest load.
+        assertEquals(listOf("a", "c"), coalescer.complete(first!!))
+        assertEquals(listOf("b"), coalescer.complete(second!!))
+    }
+
+    @Test
+    fun joinPolicy_ignoresSpareCapacity() {
+        val coalescer = LoadCoalescer<String>(LoadJoinPolicy.JOIN)
+        assertNotNull(coalescer.begin("inter", "a") { true })
+        assertNull(coalescer.begin("inter", "b") { true })
+        assertEquals(1, coalescer.inFlight("inter"))
+    }
+}
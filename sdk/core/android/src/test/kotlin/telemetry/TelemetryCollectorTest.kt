@@ -10,7 +10,10 @@ import org.junit.Assert.assertEquals
 import org.junit.Assert.assertTrue
 import org.junit.Before
 import org.junit.Test
+import com.rivalapexmediation.sdk.network.HttpClientRegistry
+import okhttp3.Request
 import java.util.concurrent.TimeUnit
+import java.util.zip.GZIPInputStream
 
 class TelemetryCollectorNetworkTest {
     private lateinit var server: MockWebServer
@@ -82,8 +85,89 @@ class TelemetryCollectorNetworkTest {
         val req = server.takeRequest(2, TimeUnit.SECONDS)
         requireNotNull(req) { "Expected a telemetry POST" }
         assertEquals("/api/v1/analytics/byo/spans", req.path)
-        val body = req.body.readUtf8()
+        assertEquals("gzip", req.getHeader("Content-Encoding"))
+        val body = gunzip(req.body.readByteArray())
         assertTrue("Expected auction placement telemetry", body.contains("\"placement\":\"auction\""))
         assertTrue("Expected client network tag", body.contains("\"networkName\":\"client\""))
     }
+
+    @Test
+    fun `span uploads are compressed and counted on the wire`() {
+        val baseUrl = server.url("/").toString().trimEnd('/')
+        server.enqueue(MockResponse().setResponseCode(200).setBody("{}"))
+        val tc = TelemetryCollector(mockk<Context>(relaxed = true), spanConfig(baseUrl))
+        tc.start()
+
+        repeat(10) {
+            tc.recordAdapterSpanFinish("trace-$it", "inter", "admob", "fill", latencyMs = 40L + it, metadata = mapOf("strategy" to "s2s"))
+        }
+
+        val req = requireNotNull(server.takeRequest(2, TimeUnit.SECONDS)) { "Expected a span POST" }
+        val wire = req.body.readByteArray()
+        val json = gunzip(wire)
+        assertTrue(json.contains("\"trace_id\":\"trace-9\""))
+        val stats = tc.getUploadStats()
+        assertEquals(1L, stats["uploads"])
+        assertEquals(wire.size.toLong(), stats["bytes_on_wire"])
+        assertTrue("gzip should shrink repetitive spans", wire.size < json.toByteArray().size)
+    }
+
+    @Test
+    fun `a failed telemetry post does not resend spans the server accepted`() {
+        val baseUrl = server.url("/").toString().trimEnd('/')
+        server.enqueue(MockResponse().setResponseCode(200).setBody("{}"))
+        server.enqueue(MockResponse().setResponseCode(500))
+        server.enqueue(MockResponse().setResponseCode(200).setBody("{}"))
+        val tc = TelemetryCollector(mockk<Context>(relaxed = true), spanConfig(baseUrl))
+        tc.start()
+
+        // Five spans and five general events make one batch of 10.
+        repeat(5) { tc.recordAdapterSpanFinish("trace-$it", "inter", "admob", "fill", latencyMs = 40L) }
+        repeat(5) { tc.recordInitialization() }
+        assertEquals("/api/v1/analytics/byo/spans", server.takeRequest(2, TimeUnit.SECONDS)?.path)
+        assertEquals("/v1/telemetry", server.takeRequest(2, TimeUnit.SECONDS)?.path)
+
+        // stop() flushes the retry batch: only the rejected general events go again.
+        tc.stop()
+        assertEquals("/v1/telemetry", server.takeRequest(2, TimeUnit.SECONDS)?.path)
+        assertEquals(null, server.takeRequest(300, TimeUnit.MILLISECONDS))
+    }
+
+    @Test
+    fun `queued events ride along with other sdk requests`() {
+        val baseUrl = server.url("/").toString().trimEnd('/')
+        server.enqueue(MockResponse().setResponseCode(200).setBody("{}"))
+        server.enqueue(MockResponse().setResponseCode(200).setBody("{}"))
+        val tc = TelemetryCollector(mockk<Context>(relaxed = true), spanConfig(baseUrl))
+        tc.start()
+        try {
+            // Below the batch threshold: nothing is uploaded on its own.
+            repeat(3) { tc.recordInitialization() }
+            assertEquals(null, server.takeRequest(300, TimeUnit.MILLISECONDS))
+
+            // Another SDK call wakes the radio; the queued events follow it.
+            HttpClientRegistry.client(HttpClientRegistry.Profile.uniform(2_000))
+                .newCall(Request.Builder().url("$baseUrl/v1/config").build())
+                .execute()
+                .close()
+            assertEquals("/v1/config", server.takeRequest(2, TimeUnit.SECONDS)?.path)
+            assertEquals("/v1/telemetry", server.takeRequest(2, TimeUnit.SECONDS)?.path)
+            assertEquals(1L, tc.getUploadStats()["uploads"])
+        } finally {
+            tc.stop()
+        }
+    }
+
+    private fun spanConfig(baseUrl: String) = SDKConfig(
+        appId = "app-telemetry",
+        testMode = true,
+        telemetryEnabled = true,
+        configEndpoint = baseUrl,
+        auctionEndpoint = "http://localhost",
+        observabilityEnabled = true,
+        observabilitySampleRate = 1.0,
+    )
+
+    private fun gunzip(bytes: ByteArray): String =
+        GZIPInputStream(bytes.inputStream()).bufferedReader(Charsets.UTF_8).use { it.readText() }
 }
@@ -0,0 +1,86 @@
+package com.rivalapexmediation.sdk.telemetry
+
+import com.rivalapexmediation.sdk.models.EventType
+import com.rivalapexmediation.sdk.models.TelemetryEvent
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+
+class TelemetryJournalTest {
+    @get:Rule
+    val tmp = TemporaryFolder()
+
+    private fun journal(dir: File, segmentBytes: Long = 64 * 1024, maxBytes: Long = 1024 * 1024) =
+        TelemetryJournal({ dir }, segmentBytes = segmentBytes, maxBytes = maxBytes, writeDelayMs = 0)
+
+    private fun event(n: Int) = TelemetryEvent(eventType = EventType.AD_LOADED, placement = "p$n", latency = n.toLong())
+
+    private fun reopen(dir: File): List<TelemetryEvent> {
+        var recovered = emptyList<TelemetryEvent>()
+        val j = journal(dir)
+        j.open { recovered = it }
+        j.close()
+        return recovered
+    }
+
+    @Test
+    fun appendedEvents_areReplayedInOrderAfterRestart() {
+        val dir = tmp.newFolder()
+        val j = journal(dir)
+        j.open { }
+        (1..5).forEach { j.append(event(it)) }
+        j.close()
+
+        assertEquals(listOf("p1", "p2", "p3", "p4", "p5"), reopen(dir).map { it.placement })
+    }
+
+    @Test
+    fun commit_dropsSealedSegments_andKeepsLaterEvents() {
+        val dir = tmp.newFolder()
+        val j = journal(dir)
+        j.open { }
+        j.append(event(1))
+        j.append(event(2))
+        j.sync()
+        val mark = j.mark()
+        j.append(event(3))
+        j.sync()
+        j.commit(mark)
+        j.close()
+
+        assertEquals(listOf("p3"), reopen(dir).map { it.placement })
+    }
+
+    @Test
+    fun tornTrailingRecord_isSkipped() {
+        val dir = tmp.newFolder()
+        val j = journal(dir)
+        j.open { }
+        j.append(event(1))
+        j.close()
+        val segment = dir.listFiles()!!.single()
+        segment.appendText("{\"eventType\":\"AD_LOA")
+
+        assertEquals(listOf("p1"), reopen(dir).map { it.placement })
+    }
+
+    @Test
+    fun journalSize_staysWithinCap() {
+        val dir = tmp.newFolder()
+        val j = journal(dir, segmentBytes = 1_024, maxBytes = 4_096)
+        j.open { }
+        repeat(500) { j.append(event(it)) }
+        j.close()
+
+        val files = dir.listFiles()!!
+        assertTrue(files.size > 1)
+        // The cap may be exceeded by at most the segment being written.
+        assertTrue(files.sumOf { it.length() } <= 4_096 + 1_024)
+        val replayed = reopen(dir)
+        assertEquals("p499", replayed.last().placement)
+        assertTrue(replayed.size < 500)
+    }
+}
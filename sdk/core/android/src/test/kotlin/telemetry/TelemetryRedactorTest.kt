@@ -0,0 +1,34 @@
+package com.rivalapexmediation.sdk.telemetry
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class TelemetryRedactorTest {
+    @Test
+    fun masksSensitiveKeys_andRedactsSecretsInValues() {
+        val out = TelemetryRedactor.sanitizeMetadata(
+            mapOf(
+                "app_key" to "abcdef123456",
+                "note" to "token=abcdef123456",
+                "consent_coppa" to false,
+                "" to "dropped"
+            )
+        )
+
+        assertEquals("***", out["app_key"])
+        assertEquals("token=abc***456", out["note"])
+        assertEquals(false, out["consent_coppa"])
+        assertEquals(3, out.size)
+    }
+
+    @Test
+    fun repeatedKeys_areMaskedTheSameWay_andValuesAreRedactedEachTime() {
+        val first = TelemetryRedactor.sanitizeMetadata(mapOf("Network_API_Key" to "k1", "note" to "secret=zzzzzz999"))
+        val second = TelemetryRedactor.sanitizeMetadata(mapOf("Network_API_Key" to "k2", "note" to "secret=yyyyyy888"))
+
+        assertEquals("***", first["Network_API_Key"])
+        assertEquals("***", second["Network_API_Key"])
+        assertEquals("secret=zzz***999", first["note"])
+        assertEquals("secret=yyy***888", second["note"])
+    }
+}
@@ -0,0 +1,76 @@
+package com.rivalapexmediation.sdk.telemetry
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.concurrent.thread
+
+class TelemetryRingTest {
+    @Test
+    fun dropOldest_keepsTheNewestEvents() {
+        val ring = TelemetryRing<Int>(capacity = 3, policy = TelemetryDropPolicy.DROP_OLDEST)
+        (1..5).forEach { assertTrue(ring.offer(it)) }
+
+        assertEquals(listOf(3, 4, 5), drain(ring))
+        assertEquals(2L, ring.dropCounters().droppedOldest)
+    }
+
+    @Test
+    fun dropNewest_rejectsWhenFull() {
+        val ring = TelemetryRing<Int>(capacity = 3, policy = TelemetryDropPolicy.DROP_NEWEST)
+        val admitted = (1..5).map { ring.offer(it) }
+
+        assertEquals(listOf(true, true, true, false, false), admitted)
+        assertEquals(listOf(1, 2, 3), drain(ring))
+        assertEquals(2L, ring.dropCounters().droppedNewest)
+        // Slots are reusable once drained.
+        assertTrue(ring.offer(6))
+        assertEquals(6, ring.poll())
+        assertNull(ring.poll())
+    }
+
+    @Test
+    fun sample_thinsOnlyAboveHalfCapacity() {
+        val ring = TelemetryRing<Int>(capacity = 100, policy = TelemetryDropPolicy.SAMPLE)
+        repeat(50) { assertTrue(ring.offer(it)) }
+        repeat(1_000) { ring.offer(it) }
+
+        val drops = ring.dropCounters()
+        assertTrue(ring.size() in 51..100)
+        assertEquals(1_000L - (ring.size() - 50), drops.sampledOut + drops.droppedNewest)
+    }
+
+    @Test
+    fun concurrentProducers_withDrainer_loseNothingUnaccounted() {
+        val ring = TelemetryRing<Long>(capacity = 256, policy = TelemetryDropPolicy.DROP_OLDEST)
+        val producers = 6
+        val perProducer = 50_000
+        val start = CountDownLatch(1)
+        val done = AtomicBoolean(false)
+        var drained = 0L
+        val drainer = thread {
+            val sink = ArrayList<Long>(256)
+            while (!done.get() || ring.size() > 0) {
+                sink.clear()
+                drained += ring.drainTo(sink)
+            }
+        }
+        val workers = (0 until producers).map { p ->
+            thread {
+                start.await()
+                repeat(perProducer) { i -> ring.offer(p * 1_000_000L + i) }
+            }
+        }
+        start.countDown()
+        workers.forEach { it.join() }
+        done.set(true)
+        drainer.join()
+
+        assertEquals(producers.toLong() * perProducer, drained + ring.dropCounters().total)
+    }
+
+    private fun <T : Any> drain(ring: TelemetryRing<T>): List<T> = ArrayList<T>().also { ring.drainTo(it) }
+}
@@ -0,0 +1,44 @@
+package com.rivalapexmediation.sdk.telemetry
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class TelemetryUploadPolicyTest {
+    @Test
+    fun batchGrowsWithQueueDepth_andShrinksWhenTrafficFalls() {
+        val policy = TelemetryUploadPolicy(minBatch = 10, maxBatch = 80)
+        policy.onSuccess(sent = 10, backlog = 0)
+        assertEquals(20, policy.batchSize)
+        policy.onSuccess(sent = 20, backlog = 30)
+        policy.onSuccess(sent = 40, backlog = 40)
+        policy.onSuccess(sent = 80, backlog = 80)
+        assertEquals(80, policy.batchSize)
+
+        // A periodic flush finding only a handful of events brings the threshold back down.
+        policy.onSuccess(sent = 5, backlog = 0)
+        assertEquals(40, policy.batchSize)
+    }
+
+    @Test
+    fun failures_shrinkBatches_andBackOffUntilASuccess() {
+        val policy = TelemetryUploadPolicy(minBatch = 10, maxBatch = 200, baseIntervalMs = 1_000, maxIntervalMs = 4_000)
+        repeat(3) { policy.onSuccess(sent = 200, backlog = 0) }
+        assertEquals(80, policy.batchSize)
+
+        policy.onFailure(nowMs = 0)
+        assertEquals(40, policy.batchSize)
+        assertEquals(2_000L, policy.intervalMs)
+        assertFalse(policy.canUpload(1_999))
+        assertTrue(policy.canUpload(2_000))
+
+        repeat(5) { policy.onFailure(nowMs = 0) }
+        assertEquals(10, policy.batchSize)
+        assertEquals(4_000L, policy.intervalMs)
+
+        policy.onSuccess(sent = 10, backlog = 0)
+        assertEquals(1_000L, policy.intervalMs)
+        assertTrue(policy.canUpload(0))
+    }
+}
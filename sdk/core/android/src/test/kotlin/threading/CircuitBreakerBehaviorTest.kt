@@ -4,6 +4,8 @@ import org.junit.Assert.assertEquals
 import org.junit.Assert.assertFalse
 import org.junit.Assert.assertTrue
 import org.junit.Test
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.runBlocking
 
 class CircuitBreakerBehaviorTest {
     @Test
@@ -31,4 +33,22 @@ class CircuitBreakerBehaviorTest {
         assertFalse(cb.isOpen())
         assertEquals("CLOSED", cb.getState())
     }
+
+    @Test
+    fun executeSuspend_countsFailures_butNotCancellation() = runBlocking {
+        val cb = CircuitBreaker(failureThreshold = 2, resetTimeoutMs = 60_000, halfOpenMaxAttempts = 1)
+
+        // Cancellation of the caller must not trip the breaker
+        repeat(3) {
+            try { cb.executeSuspend(action = { throw CancellationException("winner found") }) } catch (_: CancellationException) {}
+        }
+        assertFalse(cb.isOpen())
+        assertEquals(0, cb.getFailureCount())
+
+        repeat(2) {
+            try { cb.executeSuspend(action = { throw RuntimeException("fail") }) } catch (_: RuntimeException) {}
+        }
+        assertTrue(cb.isOpen())
+        assertEquals(null, cb.executeSuspend(action = { 42 }))
+    }
 }
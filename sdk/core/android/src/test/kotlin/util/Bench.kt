@@ -0,0 +1,44 @@
+package com.rivalapexmediation.sdk.util
+
+import org.junit.Assume.assumeTrue
+import java.util.concurrent.CountDownLatch
+import kotlin.concurrent.thread
+
+/**
+ * Shared harness for the `*Benchmark` tests. They are skipped unless the test JVM runs with
+ * `bel.bench=true` (`./gradlew testDebugUnitTest -Pbel.bench=true --tests '*Benchmark'`), since
+ * timings from shared CI runners mean nothing.
+ */
+internal object Bench {
+    fun assumeEnabled() {
+        assumeTrue("benchmarks run with -Pbel.bench=true", System.getProperty("bel.bench") == "true")
+    }
+
+    fun report(line: String) {
+        println("[bench] $line")
+    }
+
+    inline fun timeNs(block: () -> Unit): Long {
+        val start = System.nanoTime()
+        block()
+        return System.nanoTime() - start
+    }
+
+    /** Wall time for [threads] threads to run [op] [perThread] times each, released together. */
+    fun timeContended(threads: Int, perThread: Int, op: () -> Unit): Long {
+        val ready = CountDownLatch(threads)
+        val go = CountDownLatch(1)
+        val workers = (0 until threads).map {
+            thread {
+                ready.countDown()
+                go.await()
+                repeat(perThread) { op() }
+            }
+        }
+        ready.await()
+        val start = System.nanoTime()
+        go.countDown()
+        workers.forEach { it.join() }
+        return System.nanoTime() - start
+    }
+}
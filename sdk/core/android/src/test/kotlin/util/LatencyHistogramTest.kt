@@ -0,0 +1,94 @@
+package com.rivalapexmediation.sdk.util
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Random
+import java.util.concurrent.CountDownLatch
+import kotlin.concurrent.thread
+import kotlin.math.exp
+import kotlin.math.floor
+
+class LatencyHistogramTest {
+    private fun exact(sorted: LongArray, p: Double): Long = sorted[floor(p * (sorted.size - 1)).toInt()]
+
+    @Test
+    fun smallValues_areExact_withTheSortRankRule() {
+        val h = LatencyHistogram()
+        listOf(10L, 20L, 30L, 40L, 50L, 60L, 70L, 80L, 90L, 100L).forEach { h.record(it) }
+        val snap = h.snapshot()
+
+        assertEquals(50L, snap.percentile(0.50))
+        assertEquals(90L, snap.percentile(0.95))
+        assertEquals(10L, snap.percentile(0.0))
+        assertEquals(100L, snap.percentile(1.0))
+        assertEquals(55.0, snap.mean, 1e-9)
+        assertNull(LatencyHistogram().snapshot().percentile(0.5))
+    }
+
+    @Test
+    fun percentiles_stayWithinOneSixteenthAboveExact_onLongTailedLatencies() {
+        val rng = Random(42)
+        val h = LatencyHistogram()
+        // Log-normal around ~150ms with a long tail into seconds.
+        val samples = LongArray(200_000) { exp(5.0 + rng.nextGaussian()).toLong() }
+        samples.forEach { h.record(it) }
+        samples.sort()
+        val snap = h.snapshot()
+
+        for (p in listOf(0.5, 0.9, 0.95, 0.99, 0.999)) {
+            val truth = exact(samples, p)
+            val reported = snap.percentile(p)!!
+            assertTrue("p$p: $reported < $truth", reported >= truth)
+            assertTrue("p$p: $reported vs $truth", reported - truth <= truth / 16)
+        }
+        assertEquals(samples.last(), snap.percentile(1.0))
+    }
+
+    @Test
+    fun merge_matchesRecordingEverythingIntoOneHistogram() {
+        val a = LatencyHistogram()
+        val b = LatencyHistogram()
+        val all = LatencyHistogram()
+        val rng = Random(7)
+        repeat(10_000) {
+            val v = rng.nextInt(5_000).toLong()
+            (if (it % 3 == 0) a else b).record(v)
+            all.record(v)
+        }
+
+        val merged = a.snapshot().merge(b.snapshot())
+        val live = LatencyHistogram().apply { merge(a.snapshot()); merge(b.snapshot()) }.snapshot()
+        val expected = all.snapshot()
+        for (p in listOf(0.0, 0.25, 0.5, 0.9, 0.99, 1.0)) {
+            assertEquals(expected.percentile(p), merged.percentile(p))
+            assertEquals(expected.percentile(p), live.percentile(p))
+        }
+        assertEquals(expected.count, merged.count)
+        assertEquals(expected.sum, live.sum)
+    }
+
+    @Test
+    fun concurrentRecording_losesNoSamples() {
+        val h = LatencyHistogram()
+        val threads = 8
+        val perThread = 100_000
+        val start = CountDownLatch(1)
+        val workers = (0 until threads).map { t ->
+            thread {
+                start.await()
+                for (i in 0 until perThread) h.record(((i * 31 + t) % 2_000).toLong())
+            }
+        }
+        // Snapshots taken mid-flight stay internally consistent.
+        start.countDown()
+        repeat(50) { h.snapshot().percentile(0.99) }
+        workers.forEach { it.join() }
+
+        val snap = h.snapshot()
+        assertEquals(threads.toLong() * perThread, snap.count)
+        assertEquals(0L, snap.min)
+        assertEquals(1_999L, snap.max)
+    }
+}
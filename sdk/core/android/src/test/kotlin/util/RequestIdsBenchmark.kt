@@ -0,0 +1,42 @@
+package com.rivalapexmediation.sdk.util
+
+import org.junit.Test
+import java.util.UUID
+
+/**
+ * Microbenchmark: RequestIds vs UUID.randomUUID(), single-threaded and with eight threads
+ * generating ids at once (the burst-of-loads case where SecureRandom contends). See [Bench] for
+ * how to run it.
+ */
+class RequestIdsBenchmark {
+    @Test
+    fun idGeneration_requestIdsVsUuid() {
+        Bench.assumeEnabled()
+        val iterations = 500_000
+        repeat(3) {
+            timeSingle(iterations / 4) { RequestIds.traceId() }
+            timeSingle(iterations / 4) { UUID.randomUUID().toString() }
+        }
+        val idsNs = timeSingle(iterations) { RequestIds.traceId() }
+        val uuidNs = timeSingle(iterations) { UUID.randomUUID().toString() }
+        Bench.report(
+            "id x$iterations single thread: " +
+                "RequestIds=${idsNs / iterations} ns/op, UUID=${uuidNs / iterations} ns/op"
+        )
+
+        val threads = 8
+        val idsContendedNs = Bench.timeContended(threads, iterations / threads) { RequestIds.traceId() }
+        val uuidContendedNs = Bench.timeContended(threads, iterations / threads) { UUID.randomUUID().toString() }
+        Bench.report(
+            "id x$iterations over $threads threads: " +
+                "RequestIds=${idsContendedNs / iterations} ns/op, UUID=${uuidContendedNs / iterations} ns/op (wall)"
+        )
+    }
+
+    private inline fun timeSingle(iterations: Int, next: () -> String): Long {
+        var chars = 0
+        val elapsed = Bench.timeNs { for (i in 0 until iterations) chars += next().length }
+        check(chars > 0)
+        return elapsed
+    }
+}
@@ -0,0 +1,35 @@
+package com.rivalapexmediation.sdk.util
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import kotlin.concurrent.thread
+
+class RequestIdsTest {
+    @Test
+    fun traceIds_areFixedWidthHex_andUniqueAcrossThreads() {
+        val seen = ConcurrentHashMap.newKeySet<String>()
+        val start = CountDownLatch(1)
+        val workers = (0 until 8).map {
+            thread {
+                start.await()
+                repeat(25_000) { seen.add(RequestIds.traceId()) }
+            }
+        }
+        start.countDown()
+        workers.forEach { it.join() }
+
+        assertEquals(200_000, seen.size)
+        assertTrue(seen.all { it.matches(Regex("^[0-9a-f]{16}$")) })
+    }
+
+    @Test
+    fun auctionRequestIds_keepBackendFormat_andDifferWithinOneMillisecond() {
+        val ids = (0 until 10_000).map { RequestIds.auctionRequestId(1_700_000_000_000L) }
+        val pattern = Regex("^android-\\d{10,}-\\d{1,6}$")
+        assertTrue(ids.all { pattern.matches(it) })
+        assertEquals(ids.size, ids.toSet().size)
+    }
+}
@@ -0,0 +1,34 @@
+package com.rivalapexmediation.sdk.util
+
+import org.junit.Test
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Microbenchmark: a shared AtomicLong vs StripedLong as more threads increment the same counter
+ * (the ad-event burst case, where every adapter callback bumps the same metric). See [Bench] for
+ * how to run it.
+ */
+class StripedCountersBenchmark {
+    @Test
+    fun increments_atomicVsStriped() {
+        Bench.assumeEnabled()
+        val iterations = 4_000_000
+        repeat(2) {
+            val warmAtomic = AtomicLong()
+            val warmStriped = StripedLong()
+            Bench.timeContended(4, iterations / 16) { warmAtomic.incrementAndGet() }
+            Bench.timeContended(4, iterations / 16) { warmStriped.increment() }
+        }
+        for (threads in listOf(1, 2, 4, 8)) {
+            val atomic = AtomicLong()
+            val striped = StripedLong()
+            val atomicNs = Bench.timeContended(threads, iterations / threads) { atomic.incrementAndGet() }
+            val stripedNs = Bench.timeContended(threads, iterations / threads) { striped.increment() }
+            check(atomic.get() == striped.sum())
+            Bench.report(
+                "counter x$iterations over $threads threads: " +
+                    "AtomicLong=${atomicNs * 1000 / iterations} ps/op, StripedLong=${stripedNs * 1000 / iterations} ps/op (wall)"
+            )
+        }
+    }
+}
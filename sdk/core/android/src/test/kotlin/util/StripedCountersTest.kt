@@ -0,0 +1,97 @@
+package com.rivalapexmediation.sdk.util
+
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.asCoroutineDispatcher
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.concurrent.thread
+
+class StripedCountersTest {
+    @Test
+    fun stripedLong_countsEveryIncrementUnderContention() {
+        val counter = StripedLong()
+        runConcurrently(threads = 8) { repeat(50_000) { counter.increment() } }
+
+        assertEquals(400_000L, counter.sum())
+        assertEquals(400_000L, counter.sumThenReset())
+        assertEquals(0L, counter.sum())
+    }
+
+    @Test
+    fun stripedMoney_sumsSmallAmountsWithoutDrift() {
+        val revenue = StripedMoney()
+        runConcurrently(threads = 4) { repeat(25_000) { revenue.add(0.001) } }
+
+        // A Double accumulator lands near 99.99999999; micros are exact.
+        assertEquals(100_000_000L, revenue.sumMicros())
+        assertEquals(100.0, revenue.sum(), 0.0)
+    }
+
+    @Test
+    fun stripedMoney_ignoresNonFiniteAmounts() {
+        val revenue = StripedMoney()
+        revenue.add(1.5)
+        revenue.add(Double.NaN)
+        revenue.add(Double.POSITIVE_INFINITY)
+
+        assertEquals(1_500_000L, revenue.sumMicros())
+    }
+
+    @Test
+    fun epochSwap_neverLosesOrDoubleCountsAcrossSwaps() {
+        val epochs = EpochSwap { StripedLong() }
+        val done = AtomicBoolean(false)
+        var swapped = 0L
+        val swapper = thread {
+            while (!done.get()) {
+                swapped += epochs.swap().sum()
+                Thread.yield()
+            }
+        }
+
+        runConcurrently(threads = 8) { repeat(50_000) { epochs.record { it.increment() } } }
+        done.set(true)
+        swapper.join()
+
+        assertEquals(400_000L, swapped + epochs.peek().sum())
+    }
+
+    @Test
+    fun epochSwap_completesWhenRecordResumesOnAnotherThread() {
+        val epochs = EpochSwap { StripedLong() }
+        Executors.newSingleThreadExecutor().asCoroutineDispatcher().use { other ->
+            runBlocking {
+                // Unconfined resumes on the thread that finished withContext, so the block enters
+                // on this thread and leaves on the executor's.
+                launch(Dispatchers.Unconfined) {
+                    epochs.record { counter -> withContext(other) { counter.increment() } }
+                }.join()
+            }
+        }
+
+        var swapped = -1L
+        val swapper = thread(isDaemon = true) { swapped = epochs.swap().sum() }
+        swapper.join(2_000)
+        assertFalse("swap() waited for a writer that already left", swapper.isAlive)
+        assertEquals(1L, swapped)
+    }
+
+    private fun runConcurrently(threads: Int, body: () -> Unit) {
+        val start = CountDownLatch(1)
+        val workers = (0 until threads).map {
+            thread {
+                start.await()
+                body()
+            }
+        }
+        start.countDown()
+        workers.forEach { it.join() }
+    }
+}
@@ -4,6 +4,7 @@ import android.content.Context
 import android.content.SharedPreferences
 import com.google.gson.Gson
 import com.rivalapexmediation.ctv.SDKConfig
+import com.rivalapexmediation.ctv.network.HttpClientRegistry
 import com.rivalapexmediation.ctv.util.Logger
 import okhttp3.OkHttpClient
 import okhttp3.Request
@@ -12,7 +13,6 @@ import java.security.MessageDigest
 import java.security.SecureRandom
 import java.security.Signature
 import java.security.spec.X509EncodedKeySpec
-import java.util.concurrent.TimeUnit
 import java.util.Base64
 
 /**
@@ -32,10 +32,9 @@ class ConfigManager(private val context: Context, private val config: SDKConfig)
     }
 
     private val prefs: SharedPreferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)
-    private val client = OkHttpClient.Builder()
-        .connectTimeout(4000, TimeUnit.MILLISECONDS)
-        .readTimeout(4000, TimeUnit.MILLISECONDS)
-        .build()
+    private val client: OkHttpClient = HttpClientRegistry.client(
+        HttpClientRegistry.Profile(connectTimeoutMs = 4_000, readTimeoutMs = 4_000)
+    )
     private val gson = Gson()
     private val random = SecureRandom()
 
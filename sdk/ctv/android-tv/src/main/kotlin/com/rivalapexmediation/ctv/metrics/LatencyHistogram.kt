@@ -0,0 +1,158 @@
+package com.rivalapexmediation.ctv.metrics
+
+import java.util.concurrent.atomic.AtomicIntegerArray
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Fixed-memory latency histogram with HDR-style log buckets.
+ *
+ * Values below 128 get one bucket each and are reported exactly; larger values fall into 16
+ * sub-buckets per power of two, so a reported percentile is at most 1/16 (6.25%) above the
+ * true sample and never below it. Everything past 2^24 ms (~4.6 hours) shares the last bucket.
+ * The footprint is [BUCKETS] ints regardless of how many samples a session records.
+ *
+ * [record] is lock-free (one atomic increment plus min/max updates), so adapter threads and the
+ * main thread can record concurrently. [snapshot] copies the counters into an immutable
+ * [Snapshot]; snapshots and live histograms can be merged to aggregate across keys or devices.
+ *
+ * Mirrors the core SDK's LatencyHistogram (this module does not depend on core).
+ */
+internal class LatencyHistogram {
+    private val counts = AtomicIntegerArray(BUCKETS)
+    private val sum = AtomicLong(0)
+    private val min = AtomicLong(Long.MAX_VALUE)
+    private val max = AtomicLong(Long.MIN_VALUE)
+
+    fun record(valueMs: Long) {
+        val v = valueMs.coerceAtLeast(0L)
+        counts.incrementAndGet(bucketOf(v))
+        sum.addAndGet(v)
+        updateMin(v)
+        updateMax(v)
+    }
+
+    /** Adds every sample of [other] to this histogram. */
+    fun merge(other: Snapshot) {
+        if (other.count == 0L) return
+        for (i in 0 until BUCKETS) {
+            val c = other.bucketCount(i)
+            if (c != 0L) counts.addAndGet(i, c.toInt())
+        }
+        sum.addAndGet(other.sum)
+        updateMin(other.min)
+        updateMax(other.max)
+    }
+
+    /**
+     * Point-in-time copy. Samples recorded concurrently may or may not be included, but the
+     * snapshot's count always equals the sum of its buckets.
+     */
+    fun snapshot(): Snapshot {
+        val copy = LongArray(BUCKETS)
+        var total = 0L
+        for (i in 0 until BUCKETS) {
+            val c = counts.get(i).toLong()
+            copy[i] = c
+            total += c
+        }
+        if (total == 0L) return Snapshot.EMPTY
+        return Snapshot(copy, total, sum.get(), min.get(), max.get())
+    }
+
+    fun reset() {
+        for (i in 0 until BUCKETS) counts.set(i, 0)
+        sum.set(0)
+        min.set(Long.MAX_VALUE)
+        max.set(Long.MIN_VALUE)
+    }
+
+    private fun updateMin(v: Long) {
+        while (true) {
+            val cur = min.get()
+            if (v >= cur || min.compareAndSet(cur, v)) return
+        }
+    }
+
+    private fun updateMax(v: Long) {
+        while (true) {
+            val cur = max.get()
+            if (v <= cur || max.compareAndSet(cur, v)) return
+        }
+    }
+
+    /** Immutable histogram state; cheap to query and to merge. */
+    class Snapshot internal constructor(
+        private val counts: LongArray,
+        val count: Long,
+        val sum: Long,
+        val min: Long,
+        val max: Long,
+    ) {
+        val mean: Double get() = if (count == 0L) 0.0 else sum.toDouble() / count
+
+        internal fun bucketCount(index: Int): Long = counts[index]
+
+        /**
+         * Sample at index floor(p * (n - 1)) of the sorted samples, reported as its bucket's
+         * upper bound clamped to the observed min/max; null when empty.
+         */
+        fun percentile(p: Double): Long? {
+            if (count == 0L) return null
+            val rank = kotlin.math.floor(p.coerceIn(0.0, 1.0) * (count - 1)).toLong()
+            var seen = 0L
+            for (i in 0 until BUCKETS) {
+                seen += counts[i]
+                // min/max can trail the buckets by a concurrent record; clamp only when consistent.
+                if (seen > rank) return upperBound(i).let { if (min <= max) it.coerceIn(min, max) else it }
+            }
+            return max
+        }
+
+        /** p50/p95/p99 keyed as "p50", "p95", "p99"; empty when there are no samples. */
+        fun percentileMap(): Map<String, Long> {
+            if (count == 0L) return emptyMap()
+            return mapOf(
+                "p50" to (percentile(0.50) ?: 0L),
+                "p95" to (percentile(0.95) ?: 0L),
+                "p99" to (percentile(0.99) ?: 0L),
+            )
+        }
+
+        fun merge(other: Snapshot): Snapshot {
+            if (other.count == 0L) return this
+            if (count == 0L) return other
+            val merged = LongArray(BUCKETS) { counts[it] + other.counts[it] }
+            return Snapshot(merged, count + other.count, sum + other.sum, minOf(min, other.min), maxOf(max, other.max))
+        }
+
+        companion object {
+            val EMPTY = Snapshot(LongArray(BUCKETS), 0, 0, 0, 0)
+        }
+    }
+
+    companion object {
+        private const val LINEAR = 128
+        private const val SUB_BITS = 4
+        private const val SUB = 1 shl SUB_BITS
+        private const val MIN_EXP = 7 // log2(LINEAR)
+        private const val MAX_EXP = 23
+        const val BUCKETS = LINEAR + (MAX_EXP - MIN_EXP + 1) * SUB
+
+        internal fun bucketOf(v: Long): Int {
+            if (v < LINEAR) return v.toInt()
+            val exp = 63 - java.lang.Long.numberOfLeadingZeros(v)
+            if (exp > MAX_EXP) return BUCKETS - 1
+            val sub = ((v ushr (exp - SUB_BITS)) and (SUB - 1).toLong()).toInt()
+            return LINEAR + (exp - MIN_EXP) * SUB + sub
+        }
+
+        // Largest value that maps to bucket [index]; the overflow bucket is open-ended.
+        internal fun upperBound(index: Int): Long {
+            if (index < LINEAR) return index.toLong()
+            if (index == BUCKETS - 1) return Long.MAX_VALUE
+            val exp = (index - LINEAR) / SUB + MIN_EXP
+            val sub = (index - LINEAR) % SUB
+            return ((SUB + sub + 1).toLong() shl (exp - SUB_BITS)) - 1
+        }
+    }
+}
@@ -8,23 +8,26 @@ import com.rivalapexmediation.ctv.SDKConfig
 import com.rivalapexmediation.ctv.network.LoadError
 import com.rivalapexmediation.ctv.network.reason
 import com.rivalapexmediation.ctv.render.VideoProgressEvent
+import com.rivalapexmediation.ctv.network.HttpClientRegistry
 import com.rivalapexmediation.ctv.util.Logger
 import okhttp3.MediaType.Companion.toMediaType
 import okhttp3.OkHttpClient
 import okhttp3.Request
 import okhttp3.RequestBody.Companion.toRequestBody
 import org.json.JSONObject
-import java.util.Collections
 import java.util.Locale
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicReference
 
 internal object MetricsRecorder {
     private const val FLUSH_INTERVAL_MS = 30_000L
-    private const val MAX_LATENCY_SAMPLES = 200
     private val handler = Handler(Looper.getMainLooper())
     private val counters = ConcurrentHashMap<String, Long>()
-    private val latencies = Collections.synchronizedList(mutableListOf<Long>())
-    private val client = OkHttpClient.Builder().build()
+    // Request latencies since the last flush; swapped out whole so recording never waits on a flush.
+    private val latencies = AtomicReference(LatencyHistogram())
+    private val client: OkHttpClient = HttpClientRegistry.client(
+        HttpClientRegistry.Profile(connectTimeoutMs = 10_000, readTimeoutMs = 10_000)
+    )
     private var initialized = false
     private lateinit var cfg: SDKConfig
     private var flushScheduled = false
@@ -65,12 +68,7 @@ internal object MetricsRecorder {
 
     private fun addLatency(durationMs: Long) {
         if (durationMs <= 0) return
-        synchronized(latencies) {
-            if (latencies.size >= MAX_LATENCY_SAMPLES) {
-                latencies.removeAt(0)
-            }
-            latencies.add(durationMs)
-        }
+        latencies.get().record(durationMs)
     }
 
     private fun increment(key: String, delta: Long = 1) {
@@ -86,10 +84,10 @@ internal object MetricsRecorder {
     private fun flush() {
         if (!shouldCollect()) {
             counters.clear()
-            synchronized(latencies) { latencies.clear() }
+            latencies.set(LatencyHistogram())
             return
         }
-        val snapshot = buildPayload() ?: return
+        val snapshot = buildPayload(latencies.getAndSet(LatencyHistogram()).snapshot()) ?: return
         val body = snapshot.toString().toRequestBody("application/json".toMediaType())
         val url = cfg.apiBaseUrl.trimEnd('/') + "/sdk/metrics"
         val builder = Request.Builder().url(url).post(body).header("Content-Type", "application/json")
@@ -103,21 +101,17 @@ internal object MetricsRecorder {
             }
         })
         counters.clear()
-        synchronized(latencies) { latencies.clear() }
     }
 
-    private fun buildPayload(): JSONObject? {
-        if (counters.isEmpty() && latencies.isEmpty()) return null
+    private fun buildPayload(latency: LatencyHistogram.Snapshot): JSONObject? {
+        if (counters.isEmpty() && latency.count == 0L) return null
         val root = JSONObject()
         val countersJson = JSONObject()
         counters.forEach { (key, value) -> countersJson.put(key, value) }
         root.put("counters", countersJson)
-        if (latencies.isNotEmpty()) {
-            val sorted = synchronized(latencies) { latencies.sorted() }
+        if (latency.count > 0) {
             val percentiles = JSONObject()
-            percentiles.put("p50", percentile(sorted, 0.50))
-            percentiles.put("p95", percentile(sorted, 0.95))
-            percentiles.put("p99", percentile(sorted, 0.99))
+            latency.percentileMap().forEach { (key, value) -> percentiles.put(key, value) }
             root.put("request_latency_ms", percentiles)
         }
         root.put("timestamp", System.currentTimeMillis())
@@ -126,11 +120,5 @@ internal object MetricsRecorder {
         return root
     }
 
-    private fun percentile(values: List<Long>, fraction: Double): Long {
-        if (values.isEmpty()) return 0
-        val index = ((values.size - 1) * fraction).toInt().coerceIn(0, values.size - 1)
-        return values[index]
-    }
-
     private fun shouldCollect(): Boolean = initialized && ApexMediation.metricsEnabled()
 }
@@ -20,18 +20,19 @@ import okhttp3.RequestBody.Companion.toRequestBody
 import java.io.IOException
 import java.net.SocketTimeoutException
 import java.util.*
-import java.util.concurrent.TimeUnit
 
 class AuctionClient(
     private val context: Context,
     private val config: SDKConfig,
     private val gson: Gson = Gson(),
 ) {
-    private val client: OkHttpClient = OkHttpClient.Builder()
-        .connectTimeout(config.requestTimeoutMs.toLong(), TimeUnit.MILLISECONDS)
-        .readTimeout(config.requestTimeoutMs.toLong(), TimeUnit.MILLISECONDS)
-        .callTimeout((config.requestTimeoutMs * 2L), TimeUnit.MILLISECONDS)
-        .build()
+    private val client: OkHttpClient = HttpClientRegistry.client(
+        HttpClientRegistry.Profile(
+            connectTimeoutMs = config.requestTimeoutMs.toLong(),
+            readTimeoutMs = config.requestTimeoutMs.toLong(),
+            callTimeoutMs = config.requestTimeoutMs * 2L,
+        )
+    )
 
     data class Result(
         val win: AuctionWin?,
@@ -51,9 +52,9 @@ class AuctionClient(
             placementId = placementId,
             adFormat = adFormat,
             floorCpm = floorCpm,
-            device = buildDevice(),
-            user = buildUser(),
-            app = buildApp(),
+            device = device,
+            user = user,
+            app = app,
             consent = buildConsentMap(consent),
             signal = null,
         )
@@ -116,21 +117,27 @@ class AuctionClient(
         })
     }
 
-    private fun buildDevice(): Map<String, Any?> = mapOf(
-        "platform" to "android",
-        "osVersion" to Build.VERSION.RELEASE,
-        "model" to Build.MODEL,
-        "tv" to true,
-    )
+    // Device and app fields can't change while the process lives, so each bid reuses one
+    // snapshot instead of re-reading them (loadLabel/getPackageInfo are PackageManager binder calls).
+    private val device: Map<String, Any?> by lazy {
+        mapOf(
+            "platform" to "android",
+            "osVersion" to Build.VERSION.RELEASE,
+            "model" to Build.MODEL,
+            "tv" to true,
+        )
+    }
 
-    private fun buildUser(): Map<String, Any?> = emptyMap()
+    private val user: Map<String, Any?> = emptyMap()
 
-    private fun buildApp(): Map<String, Any?> = mapOf(
-        "id" to config.appId,
-        "name" to context.applicationInfo.loadLabel(context.packageManager).toString(),
-        "bundle" to context.packageName,
-        "version" to try { context.packageManager.getPackageInfo(context.packageName, 0).versionName } catch (_: Exception) { null }
-    )
+    private val app: Map<String, Any?> by lazy {
+        mapOf(
+            "id" to config.appId,
+            "name" to context.applicationInfo.loadLabel(context.packageManager).toString(),
+            "bundle" to context.packageName,
+            "version" to try { context.packageManager.getPackageInfo(context.packageName, 0).versionName } catch (_: Exception) { null }
+        )
+    }
 
     private fun mapStatusError(code: Int): LoadError {
         return when {
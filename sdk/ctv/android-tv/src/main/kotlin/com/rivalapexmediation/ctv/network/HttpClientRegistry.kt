@@ -0,0 +1,142 @@
+package com.rivalapexmediation.ctv.network
+
+import okhttp3.Call
+import okhttp3.Connection
+import okhttp3.ConnectionPool
+import okhttp3.Dispatcher
+import okhttp3.Dns
+import okhttp3.EventListener
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.Proxy
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Single OkHttp stack shared by the CTV SDK's HTTP callers (auction, config, metrics, beacons,
+ * image loads). Mirrors the core SDK's registry: every client is derived from one base client,
+ * so they share a connection pool, dispatcher and DNS cache, and derived clients are cached
+ * per [Profile] instead of being rebuilt.
+ */
+internal object HttpClientRegistry {
+
+    data class Profile(
+        val connectTimeoutMs: Long,
+        val readTimeoutMs: Long,
+        val writeTimeoutMs: Long = 10_000,
+        val callTimeoutMs: Long = 0,
+        val retryOnConnectionFailure: Boolean = true,
+        val followRedirects: Boolean = true,
+    ) {
+        companion object {
+            /** Auction/preconnect defaults: tight deadlines, no silent retries or redirects. */
+            val AUCTION = Profile(
+                connectTimeoutMs = 2_000,
+                readTimeoutMs = 5_000,
+                writeTimeoutMs = 5_000,
+                callTimeoutMs = 6_000,
+                retryOnConnectionFailure = false,
+                followRedirects = false,
+            )
+        }
+    }
+
+    data class PoolStats(
+        val connectionsAcquired: Long,
+        val newConnections: Long,
+        val reuseRate: Double,
+        val idleConnections: Int,
+        val totalConnections: Int,
+    )
+
+    private const val DNS_TTL_MS = 5 * 60_000L
+
+    private class CachedLookup(val addresses: List<InetAddress>, val resolvedAtMs: Long)
+
+    // Android TV typically has 4+ cores; never below OkHttp's default of 5 idle connections.
+    val poolSize = Runtime.getRuntime().availableProcessors().coerceIn(5, 8)
+
+    private val connectionPool = ConnectionPool(poolSize, 5, TimeUnit.MINUTES)
+    private val dispatcher = Dispatcher().apply { maxRequestsPerHost = 8 }
+    private val dnsCache = ConcurrentHashMap<String, CachedLookup>()
+    private val clients = ConcurrentHashMap<Profile, OkHttpClient>()
+    private val connectionsAcquired = AtomicLong(0)
+    private val newConnections = AtomicLong(0)
+
+    private val cachingDns = object : Dns {
+        override fun lookup(hostname: String): List<InetAddress> {
+            val now = System.currentTimeMillis()
+            dnsCache[hostname]?.let { if (now - it.resolvedAtMs < DNS_TTL_MS) return it.addresses }
+            val resolved = Dns.SYSTEM.lookup(hostname)
+            if (resolved.isNotEmpty()) dnsCache[hostname] = CachedLookup(resolved, now)
+            return resolved
+        }
+    }
+
+    private val reuseListener = object : EventListener() {
+        override fun connectStart(call: Call, inetSocketAddress: InetSocketAddress, proxy: Proxy) {
+            newConnections.incrementAndGet()
+        }
+
+        override fun connectionAcquired(call: Call, connection: Connection) {
+            connectionsAcquired.incrementAndGet()
+        }
+    }
+
+    private val base: OkHttpClient by lazy {
+        OkHttpClient.Builder()
+            .connectionPool(connectionPool)
+            .dispatcher(dispatcher)
+            .dns(cachingDns)
+            .eventListenerFactory { reuseListener }
+            .protocols(listOf(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .build()
+    }
+
+    // ConcurrentMap.getOrPut keeps the first instance if two threads race (API 21 safe).
+    fun client(profile: Profile): OkHttpClient = clients.getOrPut(profile) {
+        base.newBuilder()
+            .connectTimeout(profile.connectTimeoutMs, TimeUnit.MILLISECONDS)
+            .readTimeout(profile.readTimeoutMs, TimeUnit.MILLISECONDS)
+            .writeTimeout(profile.writeTimeoutMs, TimeUnit.MILLISECONDS)
+            .callTimeout(profile.callTimeoutMs, TimeUnit.MILLISECONDS)
+            .retryOnConnectionFailure(profile.retryOnConnectionFailure)
+            .followRedirects(profile.followRedirects)
+            .followSslRedirects(profile.followRedirects)
+            .build()
+    }
+
+    fun prefetchDns(hostname: String): List<InetAddress> = cachingDns.lookup(hostname)
+
+    fun cachedDns(hostname: String): List<InetAddress>? {
+        val cached = dnsCache[hostname] ?: return null
+        return if (System.currentTimeMillis() - cached.resolvedAtMs < DNS_TTL_MS) cached.addresses else null
+    }
+
+    fun cachedHosts(): List<String> = dnsCache.keys.toList()
+
+    fun stats(): PoolStats {
+        val acquired = connectionsAcquired.get()
+        val created = newConnections.get()
+        return PoolStats(
+            connectionsAcquired = acquired,
+            newConnections = created,
+            reuseRate = if (acquired == 0L) 0.0 else (acquired - created).coerceAtLeast(0).toDouble() / acquired,
+            idleConnections = connectionPool.idleConnectionCount(),
+            totalConnections = connectionPool.connectionCount(),
+        )
+    }
+
+    fun resetStats() {
+        connectionsAcquired.set(0)
+        newConnections.set(0)
+    }
+
+    fun evictAll() {
+        connectionPool.evictAll()
+        dnsCache.clear()
+    }
+}
@@ -4,14 +4,10 @@ import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.SupervisorJob
 import kotlinx.coroutines.launch
-import okhttp3.ConnectionPool
 import okhttp3.OkHttpClient
-import okhttp3.Protocol
 import okhttp3.Request
 import java.net.InetAddress
 import java.net.URL
-import java.util.concurrent.ConcurrentHashMap
-import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
 
 /**
@@ -25,30 +21,12 @@ object NetworkWarmer {
     
     private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
     private val isWarmedUp = AtomicBoolean(false)
-    private val dnsCache = ConcurrentHashMap<String, List<InetAddress>>()
     private val warmedEndpoints = mutableSetOf<String>()
     
-    // Android TV typically has 4+ cores, use larger pool
-    private val poolSize = Runtime.getRuntime().availableProcessors().coerceIn(4, 8)
-    
-    private val sharedClient: OkHttpClient by lazy {
-        OkHttpClient.Builder()
-            .connectionPool(ConnectionPool(poolSize, 5, TimeUnit.MINUTES))
-            .connectTimeout(2, TimeUnit.SECONDS)
-            .readTimeout(5, TimeUnit.SECONDS)
-            .writeTimeout(5, TimeUnit.SECONDS)
-            .callTimeout(6, TimeUnit.SECONDS)
-            .retryOnConnectionFailure(false)
-            .followRedirects(false)
-            .followSslRedirects(false)
-            .protocols(listOf(Protocol.HTTP_2, Protocol.HTTP_1_1))
-            .dns { hostname ->
-                dnsCache[hostname] ?: InetAddress.getAllByName(hostname).toList().also {
-                    dnsCache[hostname] = it
-                }
-            }
-            .build()
-    }
+    // Connections and DNS entries warmed here live in the shared registry pool, where the
+    // auction client picks them up.
+    private val sharedClient: OkHttpClient
+        get() = HttpClientRegistry.client(HttpClientRegistry.Profile.AUCTION)
     
     /**
      * Warm up connections to the specified endpoint.
@@ -76,13 +54,10 @@ object NetworkWarmer {
     }
     
     private fun prefetchDns(hostname: String) {
-        if (dnsCache.containsKey(hostname)) return
+        if (HttpClientRegistry.cachedDns(hostname) != null) return
         
         try {
-            val addresses = InetAddress.getAllByName(hostname).toList()
-            if (addresses.isNotEmpty()) {
-                dnsCache[hostname] = addresses
-            }
+            HttpClientRegistry.prefetchDns(hostname)
         } catch (e: Exception) {
             // Will retry on actual request
         }
@@ -95,9 +70,7 @@ object NetworkWarmer {
                 .head()
                 .build()
             
-            sharedClient.newBuilder()
-                .callTimeout(2, TimeUnit.SECONDS)
-                .build()
+            HttpClientRegistry.client(HttpClientRegistry.Profile.AUCTION.copy(callTimeoutMs = 2_000))
                 .newCall(request)
                 .execute()
                 .close()
@@ -110,10 +83,10 @@ object NetworkWarmer {
     
     fun isWarmedUp(): Boolean = isWarmedUp.get()
     
-    fun getCachedDns(hostname: String): List<InetAddress>? = dnsCache[hostname]
+    fun getCachedDns(hostname: String): List<InetAddress>? = HttpClientRegistry.cachedDns(hostname)
     
     fun reset() {
-        dnsCache.clear()
+        HttpClientRegistry.evictAll()
         warmedEndpoints.clear()
         isWarmedUp.set(false)
     }
@@ -121,8 +94,8 @@ object NetworkWarmer {
     fun getDiagnostics(): Map<String, Any> = mapOf(
         "isWarmedUp" to isWarmedUp.get(),
         "warmedEndpoints" to warmedEndpoints.toList(),
-        "dnsCacheSize" to dnsCache.size,
-        "cachedHosts" to dnsCache.keys.toList(),
-        "connectionPoolSize" to poolSize
+        "dnsCacheSize" to HttpClientRegistry.cachedHosts().size,
+        "cachedHosts" to HttpClientRegistry.cachedHosts(),
+        "connectionPoolSize" to HttpClientRegistry.poolSize
     )
 }
@@ -1,15 +1,14 @@
 package com.rivalapexmediation.ctv.render
 
 import com.rivalapexmediation.ctv.metrics.MetricsRecorder
+import com.rivalapexmediation.ctv.network.HttpClientRegistry
 import okhttp3.OkHttpClient
 import okhttp3.Request
-import java.util.concurrent.TimeUnit
 
 internal object Beacon {
-    private val client: OkHttpClient = OkHttpClient.Builder()
-        .connectTimeout(2000, TimeUnit.MILLISECONDS)
-        .readTimeout(2000, TimeUnit.MILLISECONDS)
-        .build()
+    private val client: OkHttpClient = HttpClientRegistry.client(
+        HttpClientRegistry.Profile(connectTimeoutMs = 2_000, readTimeoutMs = 2_000)
+    )
 
     fun fire(url: String?, eventName: String? = null) {
         if (url.isNullOrBlank()) return
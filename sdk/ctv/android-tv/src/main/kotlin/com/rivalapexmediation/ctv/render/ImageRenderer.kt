@@ -2,16 +2,15 @@ package com.rivalapexmediation.ctv.render
 
 import android.graphics.BitmapFactory
 import android.widget.ImageView
+import com.rivalapexmediation.ctv.network.HttpClientRegistry
 import com.rivalapexmediation.ctv.util.Logger
 import okhttp3.OkHttpClient
 import okhttp3.Request
-import java.util.concurrent.TimeUnit
 
 internal object ImageRenderer {
-    private val client: OkHttpClient = OkHttpClient.Builder()
-        .connectTimeout(5000, TimeUnit.MILLISECONDS)
-        .readTimeout(5000, TimeUnit.MILLISECONDS)
-        .build()
+    private val client: OkHttpClient = HttpClientRegistry.client(
+        HttpClientRegistry.Profile(connectTimeoutMs = 5_000, readTimeoutMs = 5_000)
+    )
 
     fun load(url: String, target: ImageView, onReady: (() -> Unit)? = null, onError: ((String) -> Unit)? = null) {
         try {